@@ -31,6 +31,7 @@ import org.eclipse.egf.model.fcore.Contract;
 import org.eclipse.egf.model.fcore.FactoryComponent;
 import org.eclipse.egf.model.fcore.Viewpoint;
 import org.eclipse.egf.model.types.Type;
+import org.eclipse.egf.model.types.TypeBoolean;
 import org.eclipse.egf.model.types.TypeString;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -40,10 +41,12 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.application.WorkbenchAdvisor;
 import org.polarsys.capella.common.helpers.EcoreUtil2;
+import org.polarsys.capella.core.commandline.core.CommandLineArgumentHelper;
 import org.polarsys.capella.core.commandline.core.CommandLineException;
 import org.polarsys.capella.core.commandline.core.DefaultCommandLine;
 import org.polarsys.capella.core.data.capellamodeller.Project;
 import org.polarsys.capella.core.sirius.ui.helper.SessionHelper;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
 import org.polarsys.kitalpha.doc.gen.business.core.exceptions.DocgenRuntimeException;
 import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
 import org.polarsys.kitalpha.doc.gen.business.core.ui.helper.InvokeActivityHelper;
@@ -57,6 +60,76 @@ public class HTMLCommandLine extends DefaultCommandLine {
 
     private static final URI CAPELLA_LAUNCHER_URI = URI.createURI("platform:/plugin" + FCORE_URI); //$NON-NLS-1$
 
+    public static final String THREADS = "-threads"; //$NON-NLS-1$
+
+    /**
+     * Number of threads used to generate pages, null to use the preference value
+     */
+    private Integer threads;
+
+    public static final String DIAGRAM_THREADS = "-diagramthreads"; //$NON-NLS-1$
+
+    /**
+     * Number of threads used to export diagrams, null to use the preference value
+     */
+    private Integer diagramThreads;
+
+    public static final String INCREMENTAL = "-incremental"; //$NON-NLS-1$
+
+    /**
+     * Only generate the pages of the elements changed since the previous generation
+     */
+    private boolean incremental;
+
+    public static final String SHARED_IMAGES = "-sharedimages"; //$NON-NLS-1$
+
+    /**
+     * Write identical description images once, null to use the preference value
+     */
+    private Boolean sharedImages;
+
+    public static final String STREAMING = "-streaming"; //$NON-NLS-1$
+
+    /**
+     * Release the output of each page once it is written, null to use the preference value
+     */
+    private Boolean streamingOutput;
+
+    public static final String LAZY_PROGRESS = "-lazyprogress"; //$NON-NLS-1$
+
+    /**
+     * Write the Progress Overview rows in a data file loaded by the page, null to use the preference value
+     */
+    private Boolean lazyProgressOverview;
+
+    public static final String DIAGRAM_CACHE = "-diagramcache"; //$NON-NLS-1$
+
+    /**
+     * Reuse the diagrams exported by previous generations, null to use the preference value
+     */
+    private Boolean diagramCache;
+
+    public static final String LINK_FILES = "-linkfiles"; //$NON-NLS-1$
+
+    /**
+     * Hard link the attached files instead of copying them, null to use the preference value
+     */
+    private Boolean linkFiles;
+
+    public static final String NO_SHARED_FILES = "-nosharedfiles"; //$NON-NLS-1$
+
+    /**
+     * Copy each linked file once, shared by the pages, null to use the preference value
+     */
+    private Boolean sharedFiles;
+
+    public static final String SEARCH_INDEX = "-searchindex"; //$NON-NLS-1$
+
+    /**
+     * Write a prefix sharded search index of the elements, null to use the preference value
+     */
+    private Boolean searchIndex;
+
     /**
     * 
     */
@@ -68,6 +141,16 @@ public class HTMLCommandLine extends DefaultCommandLine {
     public void printHelp() {
         System.out.println("*** Capella HTML Command Line"); //$NON-NLS-1$
         super.printHelp();
+        System.out.println("-threads value : defines the number of threads used to generate pages (default is 1)"); //$NON-NLS-1$
+        System.out.println("-diagramthreads value : defines the number of threads used to export diagrams (default is 1)"); //$NON-NLS-1$
+        System.out.println("-incremental : only generates the pages of the elements changed since the previous generation"); //$NON-NLS-1$
+        System.out.println("-sharedimages : writes identical description images once, shared by the pages"); //$NON-NLS-1$
+        System.out.println("-streaming : releases the output of each page once it is written, to bound the memory used by large generations"); //$NON-NLS-1$
+        System.out.println("-lazyprogress : writes the Progress Overview rows in a data file, the page loads the rows of a node when it is expanded"); //$NON-NLS-1$
+        System.out.println("-diagramcache : reuses the diagrams exported by previous generations when neither the diagram nor its elements changed"); //$NON-NLS-1$
+        System.out.println("-linkfiles : hard links the attached files and their companion folders instead of copying them, when the output folder is on the same file system"); //$NON-NLS-1$
+        System.out.println("-nosharedfiles : copies the linked files in a folder per element, as former versions did"); //$NON-NLS-1$
+        System.out.println("-searchindex : writes a search index split by token prefix, searched by scripts/search-index/search.html"); //$NON-NLS-1$
     }
 
     /**
@@ -76,6 +159,45 @@ public class HTMLCommandLine extends DefaultCommandLine {
     @Override
     public void checkArgs(IApplicationContext context_p) throws CommandLineException {
         super.checkArgs(context_p);
+
+        String[] args = CommandLineArgumentHelper.parseContext(context_p);
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i].toLowerCase();
+            if (THREADS.equals(arg)) {
+                threads = parseThreads(++i < args.length ? args[i] : null, Messages.threads_invalid);
+            } else if (DIAGRAM_THREADS.equals(arg)) {
+                diagramThreads = parseThreads(++i < args.length ? args[i] : null, Messages.diagram_threads_invalid);
+            } else if (INCREMENTAL.equals(arg)) {
+                incremental = true;
+            } else if (SHARED_IMAGES.equals(arg)) {
+                sharedImages = Boolean.TRUE;
+            } else if (STREAMING.equals(arg)) {
+                streamingOutput = Boolean.TRUE;
+            } else if (LAZY_PROGRESS.equals(arg)) {
+                lazyProgressOverview = Boolean.TRUE;
+            } else if (DIAGRAM_CACHE.equals(arg)) {
+                diagramCache = Boolean.TRUE;
+            } else if (LINK_FILES.equals(arg)) {
+                linkFiles = Boolean.TRUE;
+            } else if (NO_SHARED_FILES.equals(arg)) {
+                sharedFiles = Boolean.FALSE;
+            } else if (SEARCH_INDEX.equals(arg)) {
+                searchIndex = Boolean.TRUE;
+            }
+        }
+    }
+
+    private Integer parseThreads(String value, String message) throws CommandLineException {
+        Integer result = null;
+        try {
+            result = Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            // Handled below
+        }
+        if (result == null || result.intValue() < 1) {
+            logErrorAndThrowException(message + value);
+        }
+        return result;
     }
 
     /**
@@ -86,27 +208,60 @@ public class HTMLCommandLine extends DefaultCommandLine {
 
         startFakeWorkbench();
 
-        // load the AIRD
-        List<IFile> airdFilesFromInput = getAirdFilesFromInput();
-        boolean status = true;
-        if (!airdFilesFromInput.isEmpty()) {
-            URI uri = EcoreUtil2.getURI(airdFilesFromInput.get(0));
+        if (threads != null) {
+            CapellaDocgenPreferenceHelper.setGenerationThreads(threads.intValue());
+        }
+        if (diagramThreads != null) {
+            CapellaDocgenPreferenceHelper.setDiagramExportThreads(diagramThreads.intValue());
+        }
+        if (sharedImages != null) {
+            CapellaDocgenPreferenceHelper.setSharedImages(sharedImages.booleanValue());
+        }
+        if (streamingOutput != null) {
+            CapellaDocgenPreferenceHelper.setStreamingOutput(streamingOutput.booleanValue());
+        }
+        if (lazyProgressOverview != null) {
+            CapellaDocgenPreferenceHelper.setLazyProgressOverview(lazyProgressOverview.booleanValue());
+        }
+        if (diagramCache != null) {
+            CapellaDocgenPreferenceHelper.setDiagramCache(diagramCache.booleanValue());
+        }
+        if (linkFiles != null) {
+            CapellaDocgenPreferenceHelper.setLinkFiles(linkFiles.booleanValue());
+        }
+        if (sharedFiles != null) {
+            CapellaDocgenPreferenceHelper.setSharedFiles(sharedFiles.booleanValue());
+        }
+        if (searchIndex != null) {
+            CapellaDocgenPreferenceHelper.setSearchIndex(searchIndex.booleanValue());
+        }
 
-            if (uri.lastSegment().endsWith(".aird")) {//$NON-NLS-1$
+        try {
+            // load the AIRD
+            List<IFile> airdFilesFromInput = getAirdFilesFromInput();
+            boolean status = true;
+            if (!airdFilesFromInput.isEmpty()) {
+                URI uri = EcoreUtil2.getURI(airdFilesFromInput.get(0));
 
-                DiagramSessionHelper.setAirdUri(uri);
-                Session session = DiagramSessionHelper.initSession();
+                if (uri.lastSegment().endsWith(".aird")) {//$NON-NLS-1$
 
-                session.open(new NullProgressMonitor());
+                    DiagramSessionHelper.setAirdUri(uri);
+                    Session session = DiagramSessionHelper.initSession();
 
-                status = executeGeneration(session);
-            } else {
-                status = false;
-                logError(Messages.filepath_point_to_aird);
+                    session.open(new NullProgressMonitor());
+
+                    status = executeGeneration(session);
+                } else {
+                    status = false;
+                    logError(Messages.filepath_point_to_aird);
+                }
             }
-        }
 
-        return status;
+            return status;
+        } finally {
+            // The values set for this run are not kept
+            CapellaDocgenPreferenceHelper.clearOverrides();
+        }
     }
 
     private boolean executeGeneration(Session session) {
@@ -193,6 +348,7 @@ public class HTMLCommandLine extends DefaultCommandLine {
             final FactoryComponent factoryComponent = (FactoryComponent) capellaLauncher;
             setContract(factoryComponent, "projectName", projectName); //$NON-NLS-1$
             setContract(factoryComponent, "outputFolder", relativeFilePath + "/output"); //$NON-NLS-1$ //$NON-NLS-2$
+            setContract(factoryComponent, "incremental", incremental); //$NON-NLS-1$
             setDomain(factoryComponent, uri);
 
             // run the activity
@@ -233,4 +389,14 @@ public class HTMLCommandLine extends DefaultCommandLine {
 
     }
 
+    private void setContract(FactoryComponent factoryComponent, String contractName, boolean value) {
+        Contract invokedContract = factoryComponent.getContract(contractName);
+
+        Type type = invokedContract.getType();
+        if (type instanceof TypeBoolean) {
+            TypeBoolean typeBoolean = (TypeBoolean) type;
+            typeBoolean.setValue(Boolean.valueOf(value));
+        }
+    }
+
 }
@@ -28,6 +28,8 @@ public class Messages extends NLS {
 	public static String filepath_point_to_aird;
 	public static String generation_done;
 	public static String no_root_semantic_element;
+	public static String threads_invalid;
+	public static String diagram_threads_invalid;
 	public static String representation_mandatory;
 	public static String resource_prefix;
 	static {
@@ -32,6 +32,7 @@ import org.eclipse.egf.model.fcore.Contract;
 import org.eclipse.egf.model.fcore.FactoryComponent;
 import org.eclipse.egf.model.fcore.Viewpoint;
 import org.eclipse.egf.model.types.Type;
+import org.eclipse.egf.model.types.TypeBoolean;
 import org.eclipse.egf.model.types.TypeString;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
@@ -48,6 +49,7 @@ import org.polarsys.capella.core.commandline.core.CommandLineException;
 import org.polarsys.capella.core.commandline.core.DefaultCommandLine;
 import org.polarsys.capella.core.data.capellamodeller.Project;
 import org.polarsys.capella.core.sirius.ui.helper.SessionHelper;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
 import org.polarsys.capella.docgen.configuration.ui.utils.ConfigurationUtils;
 import org.polarsys.kitalpha.doc.gen.business.core.exceptions.DocgenRuntimeException;
 import org.polarsys.kitalpha.doc.gen.business.core.scope.GenerationGlobalScope;
@@ -74,6 +76,76 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
 
     public static final String CONFIGURATION = "-configurationfile"; //$NON-NLS-1$
 
+    public static final String THREADS = "-threads"; //$NON-NLS-1$
+
+    /**
+     * Number of threads used to generate pages, null to use the preference value
+     */
+    private Integer threads;
+
+    public static final String DIAGRAM_THREADS = "-diagramthreads"; //$NON-NLS-1$
+
+    /**
+     * Number of threads used to export diagrams, null to use the preference value
+     */
+    private Integer diagramThreads;
+
+    public static final String INCREMENTAL = "-incremental"; //$NON-NLS-1$
+
+    /**
+     * Only generate the pages of the elements changed since the previous generation
+     */
+    private boolean incremental;
+
+    public static final String SHARED_IMAGES = "-sharedimages"; //$NON-NLS-1$
+
+    /**
+     * Write identical description images once, null to use the preference value
+     */
+    private Boolean sharedImages;
+
+    public static final String STREAMING = "-streaming"; //$NON-NLS-1$
+
+    /**
+     * Release the output of each page once it is written, null to use the preference value
+     */
+    private Boolean streamingOutput;
+
+    public static final String LAZY_PROGRESS = "-lazyprogress"; //$NON-NLS-1$
+
+    /**
+     * Write the Progress Overview rows in a data file loaded by the page, null to use the preference value
+     */
+    private Boolean lazyProgressOverview;
+
+    public static final String DIAGRAM_CACHE = "-diagramcache"; //$NON-NLS-1$
+
+    /**
+     * Reuse the diagrams exported by previous generations, null to use the preference value
+     */
+    private Boolean diagramCache;
+
+    public static final String LINK_FILES = "-linkfiles"; //$NON-NLS-1$
+
+    /**
+     * Hard link the attached files instead of copying them, null to use the preference value
+     */
+    private Boolean linkFiles;
+
+    public static final String NO_SHARED_FILES = "-nosharedfiles"; //$NON-NLS-1$
+
+    /**
+     * Copy each linked file once, shared by the pages, null to use the preference value
+     */
+    private Boolean sharedFiles;
+
+    public static final String SEARCH_INDEX = "-searchindex"; //$NON-NLS-1$
+
+    /**
+     * Write a prefix sharded search index of the elements, null to use the preference value
+     */
+    private Boolean searchIndex;
+
     /**
      * Constructor.
      */
@@ -91,6 +163,16 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
         System.out.println("*** Capella HTML with Configuration Command Line"); //$NON-NLS-1$
         super.printHelp();
         System.out.println("-configurationfile value : defines the workspace or absolute path to the configuration file");
+        System.out.println("-threads value : defines the number of threads used to generate pages (default is 1)"); //$NON-NLS-1$
+        System.out.println("-diagramthreads value : defines the number of threads used to export diagrams (default is 1)"); //$NON-NLS-1$
+        System.out.println("-incremental : only generates the pages of the elements changed since the previous generation"); //$NON-NLS-1$
+        System.out.println("-sharedimages : writes identical description images once, shared by the pages"); //$NON-NLS-1$
+        System.out.println("-streaming : releases the output of each page once it is written, to bound the memory used by large generations"); //$NON-NLS-1$
+        System.out.println("-lazyprogress : writes the Progress Overview rows in a data file, the page loads the rows of a node when it is expanded"); //$NON-NLS-1$
+        System.out.println("-diagramcache : reuses the diagrams exported by previous generations when neither the diagram nor its elements changed"); //$NON-NLS-1$
+        System.out.println("-linkfiles : hard links the attached files and their companion folders instead of copying them, when the output folder is on the same file system"); //$NON-NLS-1$
+        System.out.println("-nosharedfiles : copies the linked files in a folder per element, as former versions did"); //$NON-NLS-1$
+        System.out.println("-searchindex : writes a search index split by token prefix, searched by scripts/search-index/search.html"); //$NON-NLS-1$
     }
 
     /**
@@ -108,6 +190,26 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
             String arg = args[i].toLowerCase();
             if (CONFIGURATION.equals(arg)) {
                 configurationFile = args[++i];
+            } else if (THREADS.equals(arg)) {
+                threads = parseThreads(++i < args.length ? args[i] : null, Messages.threads_invalid);
+            } else if (DIAGRAM_THREADS.equals(arg)) {
+                diagramThreads = parseThreads(++i < args.length ? args[i] : null, Messages.diagram_threads_invalid);
+            } else if (INCREMENTAL.equals(arg)) {
+                incremental = true;
+            } else if (SHARED_IMAGES.equals(arg)) {
+                sharedImages = Boolean.TRUE;
+            } else if (STREAMING.equals(arg)) {
+                streamingOutput = Boolean.TRUE;
+            } else if (LAZY_PROGRESS.equals(arg)) {
+                lazyProgressOverview = Boolean.TRUE;
+            } else if (DIAGRAM_CACHE.equals(arg)) {
+                diagramCache = Boolean.TRUE;
+            } else if (LINK_FILES.equals(arg)) {
+                linkFiles = Boolean.TRUE;
+            } else if (NO_SHARED_FILES.equals(arg)) {
+                sharedFiles = Boolean.FALSE;
+            } else if (SEARCH_INDEX.equals(arg)) {
+                searchIndex = Boolean.TRUE;
             }
         }
         // is configuration empty ?
@@ -116,6 +218,19 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
         }
     }
 
+    private Integer parseThreads(String value, String message) throws CommandLineException {
+        Integer result = null;
+        try {
+            result = Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            // Handled below
+        }
+        if (result == null || result.intValue() < 1) {
+            logErrorAndThrowException(message + value);
+        }
+        return result;
+    }
+
     /**
      * (non-Javadoc)
      * 
@@ -126,32 +241,65 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
 
         startFakeWorkbench();
 
-        // load the AIRD
-        List<IFile> airdFilesFromInput = getAirdFilesFromInput();
-        boolean status = true;
-        if (!airdFilesFromInput.isEmpty()) {
-            URI uri = EcoreUtil2.getURI(airdFilesFromInput.get(0));
-
-            if (uri.lastSegment().endsWith(".aird")) {//$NON-NLS-1$
-
-                DiagramSessionHelper.setAirdUri(uri);
-                Session session = DiagramSessionHelper.initSession();
+        if (threads != null) {
+            CapellaDocgenPreferenceHelper.setGenerationThreads(threads.intValue());
+        }
+        if (diagramThreads != null) {
+            CapellaDocgenPreferenceHelper.setDiagramExportThreads(diagramThreads.intValue());
+        }
+        if (sharedImages != null) {
+            CapellaDocgenPreferenceHelper.setSharedImages(sharedImages.booleanValue());
+        }
+        if (streamingOutput != null) {
+            CapellaDocgenPreferenceHelper.setStreamingOutput(streamingOutput.booleanValue());
+        }
+        if (lazyProgressOverview != null) {
+            CapellaDocgenPreferenceHelper.setLazyProgressOverview(lazyProgressOverview.booleanValue());
+        }
+        if (diagramCache != null) {
+            CapellaDocgenPreferenceHelper.setDiagramCache(diagramCache.booleanValue());
+        }
+        if (linkFiles != null) {
+            CapellaDocgenPreferenceHelper.setLinkFiles(linkFiles.booleanValue());
+        }
+        if (sharedFiles != null) {
+            CapellaDocgenPreferenceHelper.setSharedFiles(sharedFiles.booleanValue());
+        }
+        if (searchIndex != null) {
+            CapellaDocgenPreferenceHelper.setSearchIndex(searchIndex.booleanValue());
+        }
 
-                session.open(new NullProgressMonitor());
-                // initialize scope
-                boolean init = initializeScope(session);
-                if (!init) {
-                    return true;
+        try {
+            // load the AIRD
+            List<IFile> airdFilesFromInput = getAirdFilesFromInput();
+            boolean status = true;
+            if (!airdFilesFromInput.isEmpty()) {
+                URI uri = EcoreUtil2.getURI(airdFilesFromInput.get(0));
+
+                if (uri.lastSegment().endsWith(".aird")) {//$NON-NLS-1$
+
+                    DiagramSessionHelper.setAirdUri(uri);
+                    Session session = DiagramSessionHelper.initSession();
+
+                    session.open(new NullProgressMonitor());
+                    // initialize scope
+                    boolean init = initializeScope(session);
+                    if (!init) {
+                        return true;
+                    }
+
+                    status = executeGeneration(session);
+                } else {
+                    status = false;
+                    logError(Messages.filepath_point_to_aird);
                 }
-
-                status = executeGeneration(session);
-            } else {
-                status = false;
-                logError(Messages.filepath_point_to_aird);
             }
-        }
 
-        return status;
+            return status;
+        } finally {
+            // The values set for this run are not kept
+            CapellaDocgenPreferenceHelper.clearOverrides();
+        }
     }
 
     private boolean executeGeneration(Session session) {
@@ -268,6 +416,7 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
             final FactoryComponent factoryComponent = (FactoryComponent) capellaLauncher;
             setContract(factoryComponent, "projectName", projectName); //$NON-NLS-1$
             setContract(factoryComponent, "outputFolder", relativeFilePath + "/output"); //$NON-NLS-1$
+            setContract(factoryComponent, "incremental", incremental); //$NON-NLS-1$
             setDomain(factoryComponent, uri);
 
             // run the activity
@@ -309,4 +458,14 @@ public class HTMLConfigurationCommandLine extends DefaultCommandLine {
 
     }
 
+    private void setContract(FactoryComponent factoryComponent, String contractName, boolean value) {
+        Contract invokedContract = factoryComponent.getContract(contractName);
+
+        Type type = invokedContract.getType();
+        if (type instanceof TypeBoolean) {
+            TypeBoolean typeBoolean = (TypeBoolean) type;
+            typeBoolean.setValue(Boolean.valueOf(value));
+        }
+    }
+
 }
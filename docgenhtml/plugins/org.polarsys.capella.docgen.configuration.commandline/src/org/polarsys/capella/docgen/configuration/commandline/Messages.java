@@ -33,6 +33,8 @@ public class Messages extends NLS {
 	public static String resource_prefix;
 	public static String configuration_mandatory;
 	public static String no_root_semantic_element;
+	public static String threads_invalid;
+	public static String diagram_threads_invalid;
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
@@ -33,4 +33,34 @@ public class CapellaDocgenPreferenceConstant {
     
     public static final String DOCGEN_EXPORT__ASSOCIATION = "DocgenExportAssociation";
     public static final boolean DOCGEN_EXPORT__ASSOCIATION_DEFAULT_VALUE = false;
+    
+    public static final String DOCGEN_GENERATION__THREADS = "DocgenGenerationThreads";
+    public static final int DOCGEN_GENERATION__THREADS_DEFAULT_VALUE = 1;
+    
+    public static final String DOCGEN_GENERATION__DIAGRAM_THREADS = "DocgenGenerationDiagramThreads";
+    public static final int DOCGEN_GENERATION__DIAGRAM_THREADS_DEFAULT_VALUE = 1;
+    
+    public static final String DOCGEN_GENERATION__SHARED_IMAGES = "DocgenGenerationSharedImages";
+    public static final boolean DOCGEN_GENERATION__SHARED_IMAGES_DEFAULT_VALUE = false;
+    
+    public static final String DOCGEN_GENERATION__STREAMING_OUTPUT = "DocgenGenerationStreamingOutput";
+    public static final boolean DOCGEN_GENERATION__STREAMING_OUTPUT_DEFAULT_VALUE = false;
+    
+    public static final String DOCGEN_GENERATION__LAZY_PROGRESS = "DocgenGenerationLazyProgress";
+    public static final boolean DOCGEN_GENERATION__LAZY_PROGRESS_DEFAULT_VALUE = false;
+    
+    public static final String DOCGEN_GENERATION__DIAGRAM_CACHE = "DocgenGenerationDiagramCache";
+    public static final boolean DOCGEN_GENERATION__DIAGRAM_CACHE_DEFAULT_VALUE = false;
+    
+    public static final String DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE = "DocgenGenerationDiagramCacheSize";
+    public static final int DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE_DEFAULT_VALUE = 1024;
+    
+    public static final String DOCGEN_GENERATION__LINK_FILES = "DocgenGenerationLinkFiles";
+    public static final boolean DOCGEN_GENERATION__LINK_FILES_DEFAULT_VALUE = false;
+    
+    public static final String DOCGEN_GENERATION__SHARED_FILES = "DocgenGenerationSharedFiles";
+    public static final boolean DOCGEN_GENERATION__SHARED_FILES_DEFAULT_VALUE = true;
+    
+    public static final String DOCGEN_GENERATION__SEARCH_INDEX = "DocgenGenerationSearchIndex";
+    public static final boolean DOCGEN_GENERATION__SEARCH_INDEX_DEFAULT_VALUE = false;
 }
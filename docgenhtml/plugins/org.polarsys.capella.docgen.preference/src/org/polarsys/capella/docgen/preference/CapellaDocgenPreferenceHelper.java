@@ -12,6 +12,9 @@
 
 package org.polarsys.capella.docgen.preference;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.polarsys.capella.docgen.preference.internal.Activator;
 
@@ -20,6 +23,12 @@ import org.polarsys.capella.docgen.preference.internal.Activator;
  */
 public class CapellaDocgenPreferenceHelper {
 	
+	/**
+	 * Values set by command lines for the current run, they take precedence over
+	 * the preference store and are never saved in it.
+	 */
+	private static final Map<String, Object> OVERRIDES = new ConcurrentHashMap<String, Object>();
+	
 	/**
 	 * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_EXPORT__STATUS_AND_REVIEW} 
 	 */
@@ -62,16 +71,197 @@ public class CapellaDocgenPreferenceHelper {
         return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__ASSOCIATION);
     }
 	
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__THREADS}, 
+     * a value lower than 2 means a sequential generation
+     */
+    public static int getGenerationThreads(){
+        return Math.max(1, getCustomizedIntValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS));
+    }
+    
+    /**
+     * Set the number of threads used to generate pages. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param threads number of threads
+     */
+    public static void setGenerationThreads(int threads){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS, Math.max(1, threads));
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__DIAGRAM_THREADS}, 
+     * a value lower than 2 means the diagrams are exported by the thread generating the page
+     */
+    public static int getDiagramExportThreads(){
+        return Math.max(1, getCustomizedIntValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS));
+    }
+    
+    /**
+     * Set the number of threads used to export diagrams. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param threads number of threads
+     */
+    public static void setDiagramExportThreads(int threads){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS, Math.max(1, threads));
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__SHARED_IMAGES} 
+     */
+    public static boolean isSharedImages(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES);
+    }
+    
+    /**
+     * Set whether identical description images are shared. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param sharedImages whether identical images are written once
+     */
+    public static void setSharedImages(boolean sharedImages){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES, sharedImages);
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__STREAMING_OUTPUT} 
+     */
+    public static boolean isStreamingOutput(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT);
+    }
+    
+    /**
+     * Set whether the output of each page is released once the page is written. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param streamingOutput the value of the preference
+     */
+    public static void setStreamingOutput(boolean streamingOutput){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT, streamingOutput);
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__LAZY_PROGRESS} 
+     */
+    public static boolean isLazyProgressOverview(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS);
+    }
+    
+    /**
+     * Write the Progress Overview rows in a data file loaded by the page. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param lazyProgressOverview the value of the preference
+     */
+    public static void setLazyProgressOverview(boolean lazyProgressOverview){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS, lazyProgressOverview);
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__DIAGRAM_CACHE} 
+     */
+    public static boolean isDiagramCache(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE);
+    }
+    
+    /**
+     * Reuse the diagrams exported by previous generations. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param diagramCache the value of the preference
+     */
+    public static void setDiagramCache(boolean diagramCache){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE, diagramCache);
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE}, 
+     * the size of the diagram cache in megabytes
+     */
+    public static int getDiagramCacheSize(){
+        IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+        return Math.max(1, store.getInt(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE));
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__LINK_FILES} 
+     */
+    public static boolean isLinkFiles(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES);
+    }
+    
+    /**
+     * Hard link the attached files instead of copying them. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param linkFiles the value of the preference
+     */
+    public static void setLinkFiles(boolean linkFiles){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES, linkFiles);
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__SHARED_FILES} 
+     */
+    public static boolean isSharedFiles(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES);
+    }
+    
+    /**
+     * Copy each linked file once, shared by the pages. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param sharedFiles the value of the preference
+     */
+    public static void setSharedFiles(boolean sharedFiles){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES, sharedFiles);
+    }
+    
+    /**
+     * @return The value of the preference {@link CapellaDocgenPreferenceConstant#DOCGEN_GENERATION__SEARCH_INDEX} 
+     */
+    public static boolean isSearchIndex(){
+        return getCustomizedBooleanValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX);
+    }
+    
+    /**
+     * Write a prefix sharded search index of the elements. The value is not saved, 
+     * it is used by command lines to override the preference for the current run.
+     * @param searchIndex the value of the preference
+     */
+    public static void setSearchIndex(boolean searchIndex){
+        OVERRIDES.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX, searchIndex);
+    }
+	
 	/**
 	 * Get a string value of a preference
 	 * @param preferenceName name of a preference
 	 * @return the value of a preference
 	 */
 	private static boolean getCustomizedBooleanValue(String preferenceName){
+		Object override = OVERRIDES.get(preferenceName);
+		if (override instanceof Boolean) {
+			return ((Boolean) override).booleanValue();
+		}
 		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
 		return store.getBoolean(preferenceName);
 	}
 	
+	/**
+	 * Get an integer value of a preference
+	 * @param preferenceName name of a preference
+	 * @return the value of a preference
+	 */
+	private static int getCustomizedIntValue(String preferenceName){
+		Object override = OVERRIDES.get(preferenceName);
+		if (override instanceof Integer) {
+			return ((Integer) override).intValue();
+		}
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		return store.getInt(preferenceName);
+	}
+	
+	/**
+	 * Forget the values set by command lines, the values of the preference store
+	 * are used again.
+	 */
+	public static void clearOverrides(){
+		OVERRIDES.clear();
+	}
+	
 	/**
 	 * Set default values of preference.
 	 */
@@ -89,6 +279,26 @@ public class CapellaDocgenPreferenceHelper {
 				CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__DIAGRAM_TREE_DEFAULT_VALUE);
         store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__ASSOCIATION, 
                 CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__ASSOCIATION_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES_DEFAULT_VALUE);
+        store.setDefault(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX_DEFAULT_VALUE);
 	}
 	
 	/**
@@ -108,5 +318,25 @@ public class CapellaDocgenPreferenceHelper {
 				CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__DIAGRAM_TREE_DEFAULT_VALUE);
         store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__ASSOCIATION, 
                 CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__ASSOCIATION_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES_DEFAULT_VALUE);
+        store.setValue(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX, 
+                CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX_DEFAULT_VALUE);
 	}
 }
@@ -13,6 +13,7 @@
 package org.polarsys.capella.docgen.preference;
 
 import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -37,6 +38,16 @@ public class CapellaDocgenPreferencePage  extends AbstractDocgenPreferencePage {
 	private BooleanFieldEditor useExportPhysicalLink;
 	private BooleanFieldEditor useExportDiagramTree;
     private BooleanFieldEditor useExportAssociation;
+    private IntegerFieldEditor generationThreads;
+    private IntegerFieldEditor diagramExportThreads;
+    private BooleanFieldEditor sharedImages;
+    private BooleanFieldEditor streamingOutput;
+    private BooleanFieldEditor lazyProgressOverview;
+    private BooleanFieldEditor diagramCache;
+    private BooleanFieldEditor linkFiles;
+    private BooleanFieldEditor sharedFiles;
+    private BooleanFieldEditor searchIndex;
+    private IntegerFieldEditor diagramCacheSize;
 	
 	/*
 	 * (non-Javadoc)
@@ -55,6 +66,18 @@ public class CapellaDocgenPreferencePage  extends AbstractDocgenPreferencePage {
 		addField(useExportComponentExchange);
 		addField(useExportPhysicalLink);
         addField(useExportAssociation);
+        
+        createGeneration();
+        addField(generationThreads);
+        addField(diagramExportThreads);
+        addField(sharedImages);
+        addField(streamingOutput);
+        addField(lazyProgressOverview);
+        addField(diagramCache);
+        addField(diagramCacheSize);
+        addField(linkFiles);
+        addField(sharedFiles);
+        addField(searchIndex);
 	}
 	
 	/**
@@ -89,6 +112,46 @@ public class CapellaDocgenPreferencePage  extends AbstractDocgenPreferencePage {
                  Messages.EXPORT__ASSOCIATION_FIELD_LABEL, composite);
 	}
 	
+	/**
+	 * Creation of the generation fields:
+	 * * Threads: Number of threads used to generate pages, 1 means a sequential generation.
+	 * * Diagram export threads: Number of threads used to export the diagrams of the pages, 1 means they are exported by the page.
+	 * * Shared images: If checked, identical description images are written once and shared by the pages.
+	 * * Streaming output: If checked, the output of each page is released once the page is written.
+	 * * Lazy progress overview: If checked, the Progress Overview rows are written in a data file loaded by the page.
+	 * * Diagram cache: If checked, the diagrams exported by previous generations are reused when they did not change.
+	 * * Diagram cache size: Size of the diagram cache in megabytes, the least recently used diagrams are removed beyond.
+	 * * Link files: If checked, the attached files are hard linked in the output folder when possible, copied otherwise.
+	 * * Shared files: If checked, a file linked by several elements is copied once and shared by the pages.
+	 * * Search index: If checked, a search index split by word prefix is written with a search page.
+	 */
+	private void createGeneration(){
+		Composite composite = createParent(getFieldEditorParent(), "Generation");
+		generationThreads = new IntegerFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS, 
+				 Messages.GENERATION__THREADS_FIELD_LABEL, composite);
+		generationThreads.setValidRange(1, 64);
+		diagramExportThreads = new IntegerFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_THREADS, 
+				 Messages.GENERATION__DIAGRAM_THREADS_FIELD_LABEL, composite);
+		diagramExportThreads.setValidRange(1, 64);
+		sharedImages = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_IMAGES, 
+				 Messages.GENERATION__SHARED_IMAGES_FIELD_LABEL, composite);
+		streamingOutput = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__STREAMING_OUTPUT, 
+				 Messages.GENERATION__STREAMING_OUTPUT_FIELD_LABEL, composite);
+		lazyProgressOverview = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LAZY_PROGRESS, 
+				 Messages.GENERATION__LAZY_PROGRESS_FIELD_LABEL, composite);
+		diagramCache = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE, 
+				 Messages.GENERATION__DIAGRAM_CACHE_FIELD_LABEL, composite);
+		diagramCacheSize = new IntegerFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__DIAGRAM_CACHE_SIZE, 
+				 Messages.GENERATION__DIAGRAM_CACHE_SIZE_FIELD_LABEL, composite);
+		diagramCacheSize.setValidRange(1, 1024 * 1024);
+		linkFiles = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__LINK_FILES, 
+				 Messages.GENERATION__LINK_FILES_FIELD_LABEL, composite);
+		sharedFiles = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SHARED_FILES, 
+				 Messages.GENERATION__SHARED_FILES_FIELD_LABEL, composite);
+		searchIndex = new BooleanFieldEditor(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX, 
+				 Messages.GENERATION__SEARCH_INDEX_FIELD_LABEL, composite);
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see org.eclipse.jface.preference.FieldEditorPreferencePage#performDefaults()
@@ -26,6 +26,16 @@ public class Messages {
 	public static String EXPORT__PHYSICAL_LINK_FIELD_LABEL;
 	public static String EXPORT__DIAGRAM_TREE_FIELD_LABEL;
     public static String EXPORT__ASSOCIATION_FIELD_LABEL;
+    public static String GENERATION__THREADS_FIELD_LABEL;
+    public static String GENERATION__DIAGRAM_THREADS_FIELD_LABEL;
+    public static String GENERATION__SHARED_IMAGES_FIELD_LABEL;
+    public static String GENERATION__STREAMING_OUTPUT_FIELD_LABEL;
+    public static String GENERATION__LAZY_PROGRESS_FIELD_LABEL;
+    public static String GENERATION__DIAGRAM_CACHE_FIELD_LABEL;
+    public static String GENERATION__DIAGRAM_CACHE_SIZE_FIELD_LABEL;
+    public static String GENERATION__LINK_FILES_FIELD_LABEL;
+    public static String GENERATION__SHARED_FILES_FIELD_LABEL;
+    public static String GENERATION__SEARCH_INDEX_FIELD_LABEL;
 	
 	private static final String BUNDLE_PACKAGE = Activator.PLUGIN_ID; //$NON-NLS-1$
 	private static final String BUNDLE_FILENAME = "Messages"; //$NON-NLS-1$
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+
+/*
+ * Progress Overview rendered from a data file. The data file calls
+ * ProgressOverview.load with the rows of the tree in depth-first order, each
+ * row being [parent, label, status, review]. Only the rows of the expanded
+ * nodes are listed and only the listed rows within the scrolled area are in
+ * the page.
+ */
+var ProgressOverview = (function () {
+
+	var ROW_HEIGHT = 24;
+	var OVERSCAN = 10;
+
+	var container = null;
+	var rows = [];
+	var children = [];
+	var roots = [];
+	var depths = [];
+	var expanded = [];
+	var texts = [];
+	var listed = [];
+	var filtered = false;
+	var selected = -1;
+	var scheduled = false;
+
+	function init(id) {
+		container = document.getElementById(id);
+		container.onscroll = scheduleRender;
+		container.onclick = onClick;
+		container.innerHTML = "<table><thead><tr><th>Object</th><th>Status</th><th>Review</th></tr></thead><tbody></tbody></table>";
+	}
+
+	function load(data) {
+		rows = data.rows;
+		children = new Array(rows.length);
+		depths = new Array(rows.length);
+		expanded = new Array(rows.length);
+		texts = new Array(rows.length);
+		roots = [];
+		for (var i = 0; i < rows.length; i++) {
+			var parent = rows[i][0];
+			children[i] = null;
+			expanded[i] = false;
+			if (parent < 0) {
+				depths[i] = 0;
+				roots.push(i);
+			} else {
+				depths[i] = depths[parent] + 1;
+				(children[parent] || (children[parent] = [])).push(i);
+			}
+		}
+		refresh();
+	}
+
+	/* Rows listed when no filter is set: the roots and the children of the expanded rows */
+	function listExpanded() {
+		var result = [];
+		var stack = roots.slice().reverse();
+		while (stack.length > 0) {
+			var index = stack.pop();
+			result.push(index);
+			if (expanded[index] && children[index]) {
+				for (var i = children[index].length - 1; i >= 0; i--) {
+					stack.push(children[index][i]);
+				}
+			}
+		}
+		return result;
+	}
+
+	/* Rows listed when a filter is set: the matching rows and their parents */
+	function listMatching(filterName, filterStatus, filterReview) {
+		var kept = new Array(rows.length);
+		for (var i = 0; i < rows.length; i++) {
+			if (matches(i, filterName, filterStatus, filterReview)) {
+				for (var j = i; j >= 0 && !kept[j]; j = rows[j][0]) {
+					kept[j] = true;
+				}
+			}
+		}
+		var result = [];
+		for (var k = 0; k < rows.length; k++) {
+			if (kept[k]) {
+				result.push(k);
+			}
+		}
+		return result;
+	}
+
+	function matches(index, filterName, filterStatus, filterReview) {
+		var status = (rows[index][2] || "").toUpperCase();
+		if (filterStatus !== "" && filterStatus.indexOf(status) < 0) {
+			return false;
+		}
+		return contains(getText(index), filterName) && contains(rows[index][3], filterReview);
+	}
+
+	function contains(value, filter) {
+		return filter === "" || (value && value.toUpperCase().indexOf(filter) > -1);
+	}
+
+	/* Text of the label without the markup, computed once */
+	function getText(index) {
+		if (texts[index] === undefined) {
+			var element = document.createElement("div");
+			element.innerHTML = rows[index][1] || "";
+			texts[index] = element.textContent || element.innerText || "";
+		}
+		return texts[index];
+	}
+
+	function refresh() {
+		var filterName = value("filter-object");
+		var filterStatus = value("filter-status");
+		var filterReview = value("filter-review");
+		filtered = filterName !== "" || filterStatus !== "" || filterReview !== "";
+		listed = filtered ? listMatching(filterName, filterStatus, filterReview) : listExpanded();
+		render();
+	}
+
+	function value(id) {
+		var element = document.getElementById(id);
+		return element ? element.value.toUpperCase() : "";
+	}
+
+	function scheduleRender() {
+		if (!scheduled) {
+			scheduled = true;
+			(window.requestAnimationFrame || setTimeout)(function () {
+				scheduled = false;
+				render();
+			});
+		}
+	}
+
+	function render() {
+		if (container === null) {
+			return;
+		}
+		var visible = Math.ceil(container.clientHeight / ROW_HEIGHT) || 40;
+		var first = Math.max(0, Math.floor(container.scrollTop / ROW_HEIGHT) - OVERSCAN);
+		var last = Math.min(listed.length, first + visible + 2 * OVERSCAN);
+		var html = [];
+		html.push(spacer(first));
+		for (var i = first; i < last; i++) {
+			html.push(renderRow(listed[i]));
+		}
+		html.push(spacer(listed.length - last));
+		container.getElementsByTagName("tbody")[0].innerHTML = html.join("");
+	}
+
+	function spacer(count) {
+		return count > 0 ? "<tr class=\"spacer\" style=\"height:" + count * ROW_HEIGHT + "px\"><td colspan=\"3\"></td></tr>" : "";
+	}
+
+	function renderRow(index) {
+		var row = rows[index];
+		var toggle = "";
+		if (children[index]) {
+			toggle = filtered ? "<span class=\"indenter\"></span>"
+					: "<a class=\"toggle\" data-index=\"" + index + "\">" + (expanded[index] ? "&#9662;" : "&#9656;") + "</a>";
+		} else {
+			toggle = "<span class=\"indenter\"></span>";
+		}
+		return "<tr" + (index === selected ? " class=\"selected\"" : "") + " data-index=\"" + index + "\">"
+				+ "<td style=\"padding-left:" + (depths[index] * 19 + 4) + "px\">" + toggle + (row[1] || "") + "</td>"
+				+ "<td>" + (row[2] || "") + "</td>"
+				+ "<td>" + (row[3] || "") + "</td></tr>";
+	}
+
+	function onClick(event) {
+		var target = event.target || event.srcElement;
+		if (target.className === "toggle") {
+			var index = parseInt(target.getAttribute("data-index"), 10);
+			expanded[index] = !expanded[index];
+			refresh();
+			return false;
+		}
+		while (target && target !== container && target.tagName !== "TR") {
+			target = target.parentNode;
+		}
+		if (target && target.tagName === "TR" && target.getAttribute("data-index") !== null) {
+			var clicked = parseInt(target.getAttribute("data-index"), 10);
+			selected = selected === clicked ? -1 : clicked;
+			render();
+		}
+		return true;
+	}
+
+	function setAll(value) {
+		for (var i = 0; i < rows.length; i++) {
+			expanded[i] = value;
+		}
+		refresh();
+	}
+
+	return {
+		init : init,
+		load : load,
+		filter : refresh,
+		expandAll : function () {
+			setAll(true);
+		},
+		collapseAll : function () {
+			setAll(false);
+		},
+		getListedRows : function () {
+			return listed;
+		}
+	};
+})();
+
+/* Called by the search area of the page */
+function multiSearch() {
+	ProgressOverview.filter();
+}
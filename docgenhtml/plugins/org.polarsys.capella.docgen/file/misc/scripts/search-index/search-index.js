@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+
+/*
+ * Search in the index written by the generation. The index files are scripts
+ * loaded on demand from the folder of this script: meta.js lists the shards,
+ * shard-<key>.js maps the words starting with key to the ids of their elements
+ * (each id written as the difference with the previous one) and docs-<n>.js
+ * lists the elements [name, concept, href, summary] with ids from n * chunk.
+ * A search loads only the shards of the words searched and the chunks of the
+ * elements shown.
+ */
+var CapellaSearchIndex = (function () {
+
+	var MIN_LENGTH = 2;
+
+	var MARKS = unicodeRegExp("\\p{M}+", /[\u0300-\u036f]+/g);
+	var SEPARATORS = unicodeRegExp("[^\\p{L}\\p{N}]+", /[^0-9a-z\u00aa-\uffff]+/);
+
+	var base = currentFolder();
+	var meta = null;
+	var shards = {};
+	var chunks = {};
+	var decoded = {};
+	var waiting = {};
+
+	function unicodeRegExp(pattern, fallback) {
+		try {
+			return new RegExp(pattern, fallback.global ? "gu" : "u");
+		} catch (e) {
+			return fallback;
+		}
+	}
+
+	function currentFolder() {
+		var script = document.currentScript;
+		if (!script) {
+			var scripts = document.getElementsByTagName("script");
+			script = scripts[scripts.length - 1];
+		}
+		return script.src.substring(0, script.src.lastIndexOf("/") + 1);
+	}
+
+	function require(file, loaded, callback) {
+		if (loaded()) {
+			callback();
+			return;
+		}
+		if (waiting[file]) {
+			waiting[file].push(callback);
+			return;
+		}
+		waiting[file] = [callback];
+		var script = document.createElement("script");
+		script.src = base + file;
+		// A missing file is searched as an empty one
+		script.onerror = function () {
+			done(file);
+		};
+		document.getElementsByTagName("head")[0].appendChild(script);
+	}
+
+	function requireAll(files, callback) {
+		var pending = files.length + 1;
+		function loaded() {
+			if (--pending === 0) {
+				callback();
+			}
+		}
+		for (var i = 0; i < files.length; i++) {
+			require(files[i].file, files[i].loaded, loaded);
+		}
+		loaded();
+	}
+
+	function done(file) {
+		var callbacks = waiting[file] || [];
+		delete waiting[file];
+		for (var i = 0; i < callbacks.length; i++) {
+			callbacks[i]();
+		}
+	}
+
+	function shardFile(key) {
+		return {
+			file: "shard-" + key + ".js",
+			loaded: function () {
+				return shards.hasOwnProperty(key);
+			}
+		};
+	}
+
+	function chunkFile(n) {
+		return {
+			file: "docs-" + n + ".js",
+			loaded: function () {
+				return chunks.hasOwnProperty(n);
+			}
+		};
+	}
+
+	/*
+	 * Same words as the generation: lower-cased, without accents, split on the
+	 * characters other than letters and digits.
+	 */
+	function tokens(text) {
+		var normalized = text.normalize ? text.normalize("NFD").replace(MARKS, "") : text;
+		var words = normalized.toLowerCase().split(SEPARATORS);
+		var result = [];
+		for (var i = 0; i < words.length; i++) {
+			if (words[i].length >= MIN_LENGTH && result.indexOf(words[i]) < 0) {
+				result.push(words[i]);
+			}
+		}
+		return result;
+	}
+
+	function shardKey(token) {
+		var key = "";
+		for (var i = 0; i < MIN_LENGTH; i++) {
+			var c = token.charAt(i);
+			key += (c >= "a" && c <= "z") || (c >= "0" && c <= "9") ? c : "_";
+		}
+		return key;
+	}
+
+	function ids(key, token) {
+		var name = key + " " + token;
+		if (!decoded.hasOwnProperty(name)) {
+			var deltas = shards[key][token];
+			var result = new Array(deltas.length);
+			var id = 0;
+			for (var i = 0; i < deltas.length; i++) {
+				id += deltas[i];
+				result[i] = id;
+			}
+			decoded[name] = result;
+		}
+		return decoded[name];
+	}
+
+	/*
+	 * Sorted ids of the elements having a word starting with the token
+	 */
+	function matches(token) {
+		var key = shardKey(token);
+		var shard = shards[key] || {};
+		var result = [];
+		for (var word in shard) {
+			if (shard.hasOwnProperty(word) && word.lastIndexOf(token, 0) === 0) {
+				result = result.length === 0 ? ids(key, word) : union(result, ids(key, word));
+			}
+		}
+		return result;
+	}
+
+	function union(a, b) {
+		var result = [];
+		var i = 0, j = 0;
+		while (i < a.length || j < b.length) {
+			if (j >= b.length || (i < a.length && a[i] < b[j])) {
+				result.push(a[i++]);
+			} else if (i >= a.length || b[j] < a[i]) {
+				result.push(b[j++]);
+			} else {
+				result.push(a[i++]);
+				j++;
+			}
+		}
+		return result;
+	}
+
+	function intersection(a, b) {
+		var result = [];
+		var i = 0, j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (b[j] < a[i]) {
+				j++;
+			} else {
+				result.push(a[i++]);
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Search the elements having, for each word of the query, a word starting
+	 * with it. The callback gets at most limit elements {name, concept, href,
+	 * summary} in the order of the generation, and the number of elements found.
+	 */
+	function search(query, limit, callback) {
+		var words = tokens(query);
+		if (words.length === 0) {
+			callback([], 0);
+			return;
+		}
+		require("meta.js", function () {
+			return meta !== null;
+		}, function () {
+			var files = [];
+			for (var i = 0; i < words.length; i++) {
+				var key = shardKey(words[i]);
+				if (!meta || meta.shards.indexOf(key) < 0) {
+					callback([], 0);
+					return;
+				}
+				files.push(shardFile(key));
+			}
+			requireAll(files, function () {
+				var found = null;
+				for (var i = 0; i < words.length; i++) {
+					found = found === null ? matches(words[i]) : intersection(found, matches(words[i]));
+				}
+				var shown = found.slice(0, limit);
+				var chunkFiles = [];
+				for (var j = 0; j < shown.length; j++) {
+					var n = Math.floor(shown[j] / meta.chunk);
+					if (j === 0 || n !== Math.floor(shown[j - 1] / meta.chunk)) {
+						chunkFiles.push(chunkFile(n));
+					}
+				}
+				requireAll(chunkFiles, function () {
+					var results = [];
+					for (var k = 0; k < shown.length; k++) {
+						var chunk = chunks[Math.floor(shown[k] / meta.chunk)];
+						var doc = chunk && chunk[shown[k] % meta.chunk];
+						if (doc) {
+							results.push({ name: doc[0], concept: doc[1], href: doc[2], summary: doc[3] });
+						}
+					}
+					callback(results, found.length);
+				});
+			});
+		});
+	}
+
+	return {
+		search: search,
+		meta: function (data) {
+			meta = data;
+			done("meta.js");
+		},
+		shard: function (key, data) {
+			shards[key] = data;
+			done("shard-" + key + ".js");
+		},
+		docs: function (n, list) {
+			chunks[n] = list;
+			done("docs-" + n + ".js");
+		}
+	};
+})();
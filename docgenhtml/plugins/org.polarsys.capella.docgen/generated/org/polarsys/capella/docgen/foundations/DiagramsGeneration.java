@@ -10,6 +10,8 @@ import org.eclipse.egf.pattern.query.*;
 import org.eclipse.sirius.diagram.DSemanticDiagram;
 import org.eclipse.sirius.viewpoint.DRepresentation;
 import org.polarsys.capella.docgen.diagram.CapellaHelper;
+import org.polarsys.capella.docgen.diagram.DiagramExportCache;
+import org.polarsys.capella.docgen.diagram.DiagramExportStage;
 import org.polarsys.capella.docgen.util.*;
 
 public class DiagramsGeneration {
@@ -126,31 +128,37 @@ public class DiagramsGeneration {
             // Diagram generation
             String outputFolder = ctx.getValue("outputFolder").toString();
             String projectName = ctx.getValue("projectName").toString();
+            InternalPatternContext pageContext = (InternalPatternContext) ctx;
+            DiagramExportStage.Batch batch = DiagramExportStage.INSTANCE.newBatch();
             for (DRepresentation diagram : diagramList) {
                 if (diagram instanceof DSemanticDiagram) {
                     String generatedFolder = fileNameService.getFileName(((DSemanticDiagram) diagram).getTarget());
                     stringBuffer.append(TEXT_2);
-                    {
-                        //<%@ egf:patternCall patternId="platform:/plugin/org.polarsys.kitalpha.doc.gen.business.core/egf/HTMLDocGenCommon.fcore#LogicalName=org.polarsys.kitalpha.doc.gen.business.core.sirius.DiagramGenerator" args="diagram:diagram, outputFolder:outputFolder, projectName:projectName, generatedFolder:generatedFolder, fileNameService:fileNameService, helper:helper"%>
-
-                        InternalPatternContext ictx = (InternalPatternContext) ctx;
-                        new Node.DataLeaf(ictx.getNode(), getClass(), null, stringBuffer.toString());
-                        stringBuffer.setLength(0);
-
-                        final Map<String, Object> callParameters = new HashMap<String, Object>();
-                        callParameters.put("diagram", diagram);
-                        callParameters.put("outputFolder", outputFolder);
-                        callParameters.put("projectName", projectName);
-                        callParameters.put("generatedFolder", generatedFolder);
-                        callParameters.put("fileNameService", fileNameService);
-                        callParameters.put("helper", helper);
-                        CallHelper.executeWithParameterInjection("platform:/plugin/org.polarsys.kitalpha.doc.gen.business.core/egf/HTMLDocGenCommon.fcore#_yyU7IvYiEd-jis7N5RhttA",
-                                new ExecutionContext((InternalPatternContext) ctx), callParameters);
-                        stringBuffer.setLength(0);
-                    }
-
+                    new Node.DataLeaf(pageContext.getNode(), getClass(), null, stringBuffer.toString());
+                    stringBuffer.setLength(0);
+
+                    final Map<String, Object> callParameters = new HashMap<String, Object>();
+                    callParameters.put("diagram", diagram);
+                    callParameters.put("outputFolder", outputFolder);
+                    callParameters.put("projectName", projectName);
+                    callParameters.put("generatedFolder", generatedFolder);
+                    callParameters.put("fileNameService", fileNameService);
+                    callParameters.put("helper", helper);
+                    final ExecutionContext diagramContext = batch.newContext(pageContext);
+                    final DiagramExportCache.Entry cacheEntry = DiagramExportCache.INSTANCE.getEntry(element, (DSemanticDiagram) diagram, callParameters);
+                    batch.submit(diagram, () -> {
+                        // A diagram exported by a previous generation is reused
+                        if (cacheEntry == null || !cacheEntry.restore(diagramContext)) {
+                            CallHelper.executeWithParameterInjection("platform:/plugin/org.polarsys.kitalpha.doc.gen.business.core/egf/HTMLDocGenCommon.fcore#_yyU7IvYiEd-jis7N5RhttA",
+                                    diagramContext, callParameters);
+                            if (cacheEntry != null) {
+                                cacheEntry.store(diagramContext);
+                            }
+                        }
+                    });
                 }
             }
+            batch.await();
         }
         InternalPatternContext ictx = (InternalPatternContext) ctx;
         new Node.DataLeaf(ictx.getNode(), getClass(), "body", stringBuffer.toString());
@@ -157,7 +157,7 @@ public class InterestedDiagrmsGeneration {
 
         Collection<DDiagram> interestedDiagrams = CapellaHelper.getAllInterestedRepresentationsFor(element);
         stringBuffer.append(TEXT_1);
-        List<DSemanticDiagram> exportableDiagrams = interestedDiagrams.parallelStream().filter(diagram -> diagram instanceof DSemanticDiagram).map(diagram -> (DSemanticDiagram) diagram)
+        List<DSemanticDiagram> exportableDiagrams = interestedDiagrams.stream().filter(diagram -> diagram instanceof DSemanticDiagram).map(diagram -> (DSemanticDiagram) diagram)
                 .filter(diagram -> GenerationGlobalScope.getInstance().isCopyInScope(diagram.getTarget())).collect(Collectors.toList());
         stringBuffer.append(TEXT_2);
         if (!exportableDiagrams.isEmpty()) {
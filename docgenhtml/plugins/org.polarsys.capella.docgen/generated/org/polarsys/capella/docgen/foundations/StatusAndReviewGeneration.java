@@ -147,7 +147,7 @@ public class StatusAndReviewGeneration {
             EnumerationPropertyType progressStatus = CapellaProjectHelper.getEnumerationPropertyType(element, CapellaProjectHelper.PROGRESS_STATUS_KEYWORD);
             if (progressStatus != null) {
                 stringBuffer.append(TEXT_6);
-                stringBuffer.append(new ProgressHelper(projectName, outputFolder).generateProgressTable(element));
+                stringBuffer.append(new ProgressHelper(projectName, outputFolder).generateProgressOverview(element));
             } else {
                 stringBuffer.append(TEXT_8);
             }
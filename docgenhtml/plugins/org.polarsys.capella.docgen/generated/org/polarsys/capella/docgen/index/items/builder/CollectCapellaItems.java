@@ -1,17 +1,12 @@
 //Generated with EGF 1.6.3.202110291409
 package org.polarsys.capella.docgen.index.items.builder;
 
-import org.polarsys.kitalpha.doc.gen.business.core.services.IndexItem;
-import org.polarsys.capella.docgen.util.CapellaServices;
 import org.polarsys.capella.docgen.util.DocGenHtmlCapellaUtil;
-import org.polarsys.kitalpha.doc.gen.business.core.services.IndexerService;
-import org.polarsys.kitalpha.doc.gen.business.core.services.ExtensionService;
-import org.polarsys.kitalpha.doc.gen.business.core.helper.IConceptsHelper;
+import org.polarsys.capella.docgen.util.IndexItemCollector;
 import java.util.*;
 import org.eclipse.egf.model.pattern.*;
 import org.eclipse.egf.pattern.execution.*;
 import org.eclipse.egf.pattern.query.*;
-import org.polarsys.kitalpha.doc.gen.business.core.util.DefaultFileNameService;
 import org.polarsys.capella.common.data.modellingcore.ModelElement;
 
 public class CollectCapellaItems {
@@ -114,27 +109,10 @@ public class CollectCapellaItems {
 
     protected void method_body(final StringBuffer stringBuffer, final PatternContext ctx) throws Exception {
 
-        List<IConceptsHelper> conceptsHelperList = ExtensionService.INSTANCE.getConceptsHelpersList();
-
         String projectName = (String) ctx.getValue("projectName");
         String outputFolder = (String) ctx.getValue("outputFolder");
 
-        for (IConceptsHelper iConceptsHelper : conceptsHelperList) {
-            if (iConceptsHelper.accept(parameter)) {
-                String conceptLabel = iConceptsHelper.getConceptLabel(parameter);
-                String linkTagTowardPageElement = CapellaServices.getIndexHyperlinkFromElement(parameter);
-                String iconTagOfElement = CapellaServices.getIndexImageLinkFromElement(parameter, projectName, outputFolder);
-                String fileName = DocGenHtmlCapellaUtil.SERVICE.getFileName(parameter);
-                IndexItem item = new IndexItem(conceptLabel, parameter.eClass().getName(), iconTagOfElement, linkTagTowardPageElement, fileName);
-                // Check if the default indexer have already indexed the element
-                String defaultFileName = DefaultFileNameService.INSTANCE.getFileName(parameter);
-                if (IndexerService.INSTANCE.getElementsToIndexItems().get(defaultFileName) != null) {
-                    IndexerService.INSTANCE.getElementsToIndexItems().remove(defaultFileName);
-                }
-                IndexerService.INSTANCE.getElementsToIndexItems().put(fileName, item);
-                break;
-            }
-        }
+        IndexItemCollector.INSTANCE.collect(parameter, projectName, outputFolder);
 
         InternalPatternContext ictx = (InternalPatternContext) ctx;
         new Node.DataLeaf(ictx.getNode(), getClass(), "body", stringBuffer.toString());
@@ -16,8 +16,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -27,29 +27,22 @@ import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.edit.domain.EditingDomain;
-import org.eclipse.sirius.business.api.dialect.DialectManager;
-import org.eclipse.sirius.business.api.query.EObjectQuery;
 import org.eclipse.sirius.business.api.session.Session;
 import org.eclipse.sirius.common.tools.api.editing.EditingDomainFactoryService;
 import org.eclipse.sirius.diagram.DDiagram;
 import org.eclipse.sirius.diagram.DSemanticDiagram;
 import org.eclipse.sirius.viewpoint.DRepresentation;
-import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
-import org.eclipse.sirius.viewpoint.description.DAnnotation;
-import org.eclipse.sirius.viewpoint.description.DescriptionPackage;
 import org.polarsys.capella.common.data.modellingcore.AbstractType;
 import org.polarsys.capella.common.data.modellingcore.AbstractTypedElement;
 import org.polarsys.capella.core.data.capellacore.CapellaElement;
 import org.polarsys.capella.core.data.cs.BlockArchitecture;
 import org.polarsys.capella.core.data.information.AbstractInstance;
-import org.polarsys.capella.core.diagram.helpers.naming.DAnnotationSourceConstants;
 import org.polarsys.capella.docgen.util.CapellaServices;
 import org.polarsys.kitalpha.doc.gen.business.core.preference.helper.DocgenDiagramPreferencesHelper;
 import org.polarsys.kitalpha.doc.gen.business.core.scope.GenerationGlobalScope;
 import org.polarsys.kitalpha.doc.gen.business.core.scope.ScopeReferencesStrategy;
 import org.polarsys.kitalpha.doc.gen.business.core.scope.ScopeStatus;
 import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
-import org.polarsys.kitalpha.doc.gen.business.core.util.SiriusHelper;
 
 public class CapellaHelper {
 	private static final String AIRD = ".aird";
@@ -65,9 +58,9 @@ public class CapellaHelper {
 		final ScopeReferencesStrategy referencesStrategy = GenerationGlobalScope.getInstance().getReferencesStrategy();
 		if (referencesStrategy.equals(ScopeReferencesStrategy.DONT_EXPORT)) {
 			final EObject originalModelElement = GenerationGlobalScope.getInstance().getOriginalModelElement(element);
-			representations = DialectManager.INSTANCE.getRepresentations(originalModelElement, currentSession);
+			representations = RepresentationIndex.INSTANCE.getRepresentations(originalModelElement, currentSession);
 		} else {
-			representations = DialectManager.INSTANCE.getRepresentations(element, currentSession);
+			representations = RepresentationIndex.INSTANCE.getRepresentations(element, currentSession);
 		}
 
 		return representations.stream()
@@ -125,7 +118,7 @@ public class CapellaHelper {
 		{
 			Collection<EObject> refElements = resolveReferencedElements(element);
 			for (EObject refElement: refElements) {
-				SiriusHelper.getDiagramForObject(refElement, false).stream().forEach(rep -> result.add(rep));
+				result.addAll(RepresentationIndex.INSTANCE.getDiagramsDisplaying(refElement));
 			}
 		}
 		return result;
@@ -163,18 +156,7 @@ public class CapellaHelper {
 	 *         there are no representation, empty collection is returned
 	 */
 	public static Collection<DDiagram> getAllInterestedRepresentationsFor(EObject semanticElement) {
-		Collection<EObject> descriptors = new LinkedHashSet<>();
-
-		Collection<EObject> inverseReferences = new EObjectQuery(semanticElement)
-				.getInverseReferences(DescriptionPackage.Literals.DANNOTATION__REFERENCES);
-		inverseReferences.forEach(eObject -> {
-			DAnnotation annotation = (DAnnotation) eObject;
-			if (DAnnotationSourceConstants.CAPELLA_ELEMENT_OF_INTEREST.equals(annotation.getSource())) {
-				descriptors.add(annotation.eContainer());
-			}
-		});
-
-		return descriptors.parallelStream().map(eObject -> (DRepresentationDescriptor) eObject)
+		return RepresentationIndex.INSTANCE.getInterestedDescriptors(semanticElement).stream()
 				.map(desc -> DiagramSessionHelper.getDDiagram(desc)).collect(Collectors.toList());
 	}
 
@@ -185,18 +167,8 @@ public class CapellaHelper {
 	 * @return
 	 */
 	public static Collection<DRepresentation> getAllDiagramsIn(BlockArchitecture archi) {
-		Collection<DRepresentation> representations = new ArrayList<DRepresentation>();
-		for (DRepresentation rep : DiagramSessionHelper.getSessionDRepresentation()) {
-			// Return only representations belonging to the current BlockArchitecture
-			EObject originalContainer = archi;
-			if (GenerationGlobalScope.getInstance().getScopeStatus().equals(ScopeStatus.LIMITED)) {
-				originalContainer = GenerationGlobalScope.getInstance().getOriginalModelElement(archi);
-			}
-			if (originalContainer.equals(getBlockArchitectureContainer(rep))) {
-				representations.add(rep);
-			}
-		}
-		return representations;
+		return new ArrayList<DRepresentation>(getDiagramsByBlockArchitecture().getOrDefault(getOriginalContainer(archi),
+				Collections.<DRepresentation> emptyList()));
 	}
 
 	/**
@@ -206,17 +178,31 @@ public class CapellaHelper {
 	 * @return
 	 */
 	public static boolean hostDiagrams(BlockArchitecture archi) {
-		for (DRepresentation rep : DiagramSessionHelper.getSessionDRepresentation()) {
-			// Return only representations belonging to the current BlockArchitecture
-			EObject originalContainer = archi;
-			if (GenerationGlobalScope.getInstance().getScopeStatus().equals(ScopeStatus.LIMITED)) {
-				originalContainer = GenerationGlobalScope.getInstance().getOriginalModelElement(archi);
-			}
-			if (originalContainer.equals(getBlockArchitectureContainer(rep))) {
-				return true;
-			}
+		return getDiagramsByBlockArchitecture().containsKey(getOriginalContainer(archi));
+	}
+
+	/**
+	 * Representations of the current session grouped by the BlockArchitecture
+	 * containing their target. The keys are elements of the original model, see
+	 * {@link GenerationGlobalScope#getOriginalModelElement(EObject)}. During a
+	 * generation the grouping is computed once.
+	 * 
+	 * @return an unmodifiable map of the representations by BlockArchitecture
+	 */
+	public static Map<EObject, List<DRepresentation>> getDiagramsByBlockArchitecture() {
+		return RepresentationIndex.INSTANCE.getRepresentationsByBlockArchitecture();
+	}
+
+	/**
+	 * @param archi
+	 * @return the BlockArchitecture of the original model, <code>archi</code>
+	 *         itself unless the scope is limited
+	 */
+	private static EObject getOriginalContainer(BlockArchitecture archi) {
+		if (GenerationGlobalScope.getInstance().getScopeStatus().equals(ScopeStatus.LIMITED)) {
+			return GenerationGlobalScope.getInstance().getOriginalModelElement(archi);
 		}
-		return false;
+		return archi;
 	}
 
 	/**
@@ -226,7 +212,7 @@ public class CapellaHelper {
 	 * @param diagram
 	 * @return
 	 */
-	private static EObject getBlockArchitectureContainer(DRepresentation representation) {
+	static EObject getBlockArchitectureContainer(DRepresentation representation) {
 		EObject parent = null;
 		if (representation instanceof DSemanticDiagram) {
 			EObject target = CapellaServices.getRepresentationTarget(representation);
@@ -0,0 +1,593 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.diagram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.egf.pattern.execution.InternalPatternContext;
+import org.eclipse.egf.pattern.execution.Node;
+import org.eclipse.egf.pattern.execution.OutputManager;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.sirius.diagram.DDiagramElement;
+import org.eclipse.sirius.diagram.DSemanticDiagram;
+import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
+import org.polarsys.capella.common.data.modellingcore.AbstractNamedElement;
+import org.polarsys.capella.docgen.Activator;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.kitalpha.doc.gen.business.core.preference.helper.DocgenDiagramPreferencesHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlUtil;
+import org.polarsys.kitalpha.doc.gen.business.core.util.IDiagramHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.util.IFileNameService;
+
+/**
+ * Diagrams exported by previous generations. An entry is the page fragment of
+ * a diagram and the images it references, under the hash of the serialized
+ * representation, the semantic elements it displays and the diagram
+ * preferences. On a later generation with the same hash the images are copied
+ * and the fragment is added to the page instead of rendering the diagram
+ * again. The fragment references the images relative to the folder of the
+ * page, so the output location is not part of the hash: an entry stored by a
+ * generation is reused by the generations in other output folders.
+ * <p>
+ * The cache is in the user home folder so the generations of every workspace
+ * and of the command lines share it. An entry is written in a temporary folder
+ * which is renamed once complete, the cache never contains a partial entry.
+ * When the cache exceeds its size at the end of a generation, the entries used
+ * the least recently are removed.
+ */
+public class DiagramExportCache {
+
+	public static final DiagramExportCache INSTANCE = new DiagramExportCache();
+
+	/**
+	 * Folder of the cache, in the user home folder
+	 */
+	private static final String CACHE_FOLDER = ".capella/docgen/diagram-cache"; //$NON-NLS-1$
+
+	private static final String TEMPORARY_FOLDER = "tmp"; //$NON-NLS-1$
+
+	private static final String LOCK_FILE = ".lock"; //$NON-NLS-1$
+
+	private static final String FRAGMENT_FILE = "fragment.html"; //$NON-NLS-1$
+
+	private static final String FILES_FOLDER = "files"; //$NON-NLS-1$
+
+	private static final String HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	/**
+	 * Version of the entries, to change when their content changes
+	 */
+	private static final String FORMAT = "1"; //$NON-NLS-1$
+
+	/**
+	 * Temporary folders older than this are left by stopped generations
+	 */
+	private static final long TEMPORARY_EXPIRATION = 24 * 60 * 60 * 1000L;
+
+	/**
+	 * Images referenced by a page fragment, relative to the folder of the page
+	 */
+	private static final Pattern IMAGE_PATTERN = Pattern
+			.compile("src=\"([^\"#?:]+\\.(?:jpg|jpeg|png|gif|svg|bmp))\"", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+
+	/**
+	 * The cache entry of a diagram of a page.
+	 */
+	public class Entry {
+
+		private final Path cacheFolder;
+
+		private final String key;
+
+		private final Path pageFolder;
+
+		private Entry(Path cacheFolder, String key, Path pageFolder) {
+			this.cacheFolder = cacheFolder;
+			this.key = key;
+			this.pageFolder = pageFolder;
+		}
+
+		/**
+		 * @return the hash of the diagram, name of the entry in the cache
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * Copy the images of the entry to the page folder and add the fragment to
+		 * the output of the diagram.
+		 *
+		 * @param context
+		 *            context of the diagram
+		 * @return false if the cache has no entry for the diagram, the diagram
+		 *         shall be exported
+		 */
+		public boolean restore(InternalPatternContext context) {
+			String fragment = restore();
+			if (fragment == null) {
+				return false;
+			}
+			new Node.DataLeaf(context.getNode(), DiagramExportCache.class, null, fragment);
+			return true;
+		}
+
+		/**
+		 * Copy the images of the entry to the page folder.
+		 *
+		 * @return the page fragment of the diagram, null if the cache has no entry
+		 *         for the diagram
+		 */
+		public String restore() {
+			Path entryFolder = cacheFolder.resolve(key);
+			if (!Files.isDirectory(entryFolder)) {
+				misses.incrementAndGet();
+				return null;
+			}
+			try {
+				Path fragmentFile = entryFolder.resolve(FRAGMENT_FILE);
+				String fragment = new String(Files.readAllBytes(fragmentFile), StandardCharsets.UTF_8);
+				List<Path> restored = copyTree(entryFolder.resolve(FILES_FOLDER), pageFolder);
+				Files.setLastModifiedTime(fragmentFile, FileTime.fromMillis(System.currentTimeMillis()));
+				refresh(restored);
+				hits.incrementAndGet();
+				return fragment;
+			} catch (IOException e) {
+				// Removed by another generation, the diagram is exported again
+				misses.incrementAndGet();
+				return null;
+			}
+		}
+
+		/**
+		 * Store the fragment of the exported diagram and the images it
+		 * references. A fragment referencing images outside of the page folder
+		 * or missing images is not stored.
+		 *
+		 * @param context
+		 *            context of the diagram, once exported
+		 * @throws Exception
+		 *             if the output of the diagram can not be computed
+		 */
+		public void store(InternalPatternContext context) throws Exception {
+			store(OutputManager.computeExecutionOutput(context));
+		}
+
+		/**
+		 * Store the fragment of the exported diagram and the images it
+		 * references, see {@link #store(InternalPatternContext)}.
+		 *
+		 * @param fragment
+		 *            page fragment of the diagram
+		 */
+		public void store(String fragment) {
+			Set<String> images = getImages(fragment);
+			if (images.isEmpty()) {
+				return;
+			}
+			Path temporary = cacheFolder.resolve(TEMPORARY_FOLDER).resolve(key + '.' + UUID.randomUUID());
+			try {
+				for (String image : images) {
+					Path source = pageFolder.resolve(image);
+					Path target = temporary.resolve(FILES_FOLDER).resolve(image);
+					Files.createDirectories(target.getParent());
+					Files.copy(source, target);
+				}
+				Files.write(temporary.resolve(FRAGMENT_FILE), fragment.getBytes(StandardCharsets.UTF_8));
+				try {
+					Files.move(temporary, cacheFolder.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+					stores.incrementAndGet();
+				} catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+					// Stored by another generation
+					delete(temporary);
+				}
+			} catch (IOException e) {
+				delete(temporary);
+				if (Files.exists(cacheFolder.resolve(key))) {
+					// Stored by another generation
+					return;
+				}
+				Logger.logWarning("The diagram can not be stored in the cache " + cacheFolder, e); //$NON-NLS-1$
+			}
+		}
+
+		/**
+		 * @return the images of the fragment, relative to the page folder, empty
+		 *         if one of them is not a file of the page folder
+		 */
+		private Set<String> getImages(String fragment) {
+			Set<String> images = new LinkedHashSet<String>();
+			Matcher matcher = IMAGE_PATTERN.matcher(fragment);
+			while (matcher.find()) {
+				String image = matcher.group(1);
+				Path file = pageFolder.resolve(image).normalize();
+				if (image.startsWith("/") || !file.startsWith(pageFolder) || !Files.isRegularFile(file)) { //$NON-NLS-1$
+					return Collections.emptySet();
+				}
+				images.add(pageFolder.relativize(file).toString());
+			}
+			return images;
+		}
+	}
+
+	private volatile boolean active;
+
+	private volatile Path cacheFolder;
+
+	private long maxSize;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong stores = new AtomicLong();
+
+	private DiagramExportCache() {
+	}
+
+	/**
+	 * Start using the cache, called when a generation starts.
+	 *
+	 * @param enabled
+	 *            whether the cache is used
+	 * @param maxSize
+	 *            size of the cache, in bytes
+	 */
+	public void start(boolean enabled, long maxSize) {
+		start(enabled, maxSize, new File(System.getProperty("user.home"), CACHE_FOLDER).toPath()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Start using the cache in the given folder.
+	 *
+	 * @param enabled
+	 *            whether the cache is used
+	 * @param maxSize
+	 *            size of the cache, in bytes
+	 * @param folder
+	 *            folder of the cache
+	 */
+	public void start(boolean enabled, long maxSize, Path folder) {
+		hits.set(0);
+		misses.set(0);
+		stores.set(0);
+		this.maxSize = maxSize;
+		active = false;
+		if (enabled) {
+			try {
+				Files.createDirectories(folder.resolve(TEMPORARY_FOLDER));
+				cacheFolder = folder;
+				active = true;
+			} catch (IOException e) {
+				Logger.logWarning("The diagram cache " + folder + " can not be created", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	/**
+	 * Remove the entries used the least recently when the cache exceeds its
+	 * size, called when a generation ends.
+	 */
+	public void dispose() {
+		if (active) {
+			Logger.logInfo("Diagram cache: " + hits.get() + " diagrams reused, " + misses.get() + " exported, " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ stores.get() + " stored", null); //$NON-NLS-1$
+			try {
+				evict();
+			} catch (IOException e) {
+				Logger.logWarning("The diagram cache " + cacheFolder + " can not be cleaned", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		active = false;
+		cacheFolder = null;
+	}
+
+	/**
+	 * @param element
+	 *            element of the page
+	 * @param diagram
+	 *            diagram to export
+	 * @param parameters
+	 *            parameters of the diagram generator
+	 * @return the cache entry of the diagram, null if the cache is not used
+	 */
+	public Entry getEntry(EObject element, DSemanticDiagram diagram, Map<String, Object> parameters) {
+		Path cache = cacheFolder;
+		if (!active || cache == null) {
+			return null;
+		}
+		String projectName = String.valueOf(parameters.get("projectName")); //$NON-NLS-1$
+		String outputFolder = String.valueOf(parameters.get("outputFolder")); //$NON-NLS-1$
+		String modelName = DocGenHtmlUtil.getModelName(element);
+		IFolder pageFolder = ResourcesPlugin.getWorkspace().getRoot()
+				.getFolder(new org.eclipse.core.runtime.Path(projectName).append(outputFolder).append(modelName));
+		IPath location = pageFolder.getLocation();
+		if (location == null) {
+			return null;
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+			try (OutputStream output = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+				writeKey(output, diagram, parameters, modelName);
+			}
+			String key = DatatypeConverter.printHexBinary(digest.digest()).toLowerCase();
+			return new Entry(cache, key, location.toFile().toPath().toAbsolutePath().normalize());
+		} catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+			Logger.logWarning("The cache key of the diagram " + diagram.getName() + " can not be computed", e); //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+	}
+
+	/**
+	 * Everything the exported diagram depends on
+	 */
+	private void writeKey(OutputStream output, DSemanticDiagram diagram, Map<String, Object> parameters,
+			String modelName) throws IOException {
+		Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+		writer.append(FORMAT).append('\n');
+		writer.append(String.valueOf(Activator.getDefault().getBundle().getVersion())).append('\n');
+		writer.append(String.valueOf(FrameworkUtil.getBundle(DocGenHtmlUtil.class).getVersion())).append('\n');
+		// Folder of the images, relative to the page folder
+		writer.append(String.valueOf(parameters.get("generatedFolder"))).append('\n'); //$NON-NLS-1$
+		writer.append(modelName).append('\n');
+		writePreferences(writer);
+
+		DRepresentationDescriptor descriptor = RepresentationIndex.INSTANCE.getDescriptor(diagram);
+		if (descriptor != null) {
+			writer.append(descriptor.getName()).append('\n');
+			writer.append(descriptor.getDocumentation()).append('\n');
+		}
+
+		IDiagramHelper helper = (IDiagramHelper) parameters.get("helper"); //$NON-NLS-1$
+		IFileNameService fileNameService = (IFileNameService) parameters.get("fileNameService"); //$NON-NLS-1$
+		Set<EObject> elements = new LinkedHashSet<EObject>();
+		elements.add(diagram.getTarget());
+		for (DDiagramElement diagramElement : diagram.getDiagramElements()) {
+			EObject semantic = helper == null ? diagramElement.getTarget() : helper.getSemanticElement(diagramElement);
+			if (semantic != null) {
+				elements.add(semantic);
+			}
+		}
+		for (EObject semantic : elements) {
+			writer.append(EcoreUtil.getURI(semantic).toString()).append(' ');
+			if (semantic instanceof AbstractNamedElement) {
+				writer.append(((AbstractNamedElement) semantic).getName());
+			}
+			if (helper != null) {
+				writer.append(' ').append(String.valueOf(helper.select(semantic)));
+				writer.append(' ').append(helper.getElementId(semantic));
+			}
+			if (fileNameService != null) {
+				writer.append(' ').append(fileNameService.getFileName(semantic));
+			}
+			writer.append('\n');
+		}
+		writer.flush();
+
+		// The representation with its layout and styles, its references to the
+		// semantic elements are saved as their URI
+		Resource resource = new XMIResourceImpl(URI.createURI("diagram.xmi")); //$NON-NLS-1$
+		resource.getContents().add(EcoreUtil.copy(diagram));
+		resource.save(output, Collections.emptyMap());
+		resource.getContents().clear();
+	}
+
+	/**
+	 * The diagram preferences of the generation
+	 */
+	private void writePreferences(Writer writer) throws IOException {
+		String bundle = FrameworkUtil.getBundle(DocgenDiagramPreferencesHelper.class).getSymbolicName();
+		Preferences preferences = InstanceScope.INSTANCE.getNode(bundle);
+		try {
+			String[] keys = preferences.keys();
+			Arrays.sort(keys);
+			for (String key : keys) {
+				writer.append(key).append('=').append(preferences.get(key, null)).append('\n');
+			}
+		} catch (BackingStoreException e) {
+			throw new IOException(e);
+		}
+		writer.append(String.valueOf(DocgenDiagramPreferencesHelper.getExportDiagram())).append('\n');
+	}
+
+	/**
+	 * Remove the entries used the least recently until the cache size is
+	 * lower than the maximum. Another generation removing entries at the same
+	 * time is not waited for.
+	 */
+	private void evict() throws IOException {
+		try (FileChannel channel = FileChannel.open(cacheFolder.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE); FileLock lock = channel.tryLock()) {
+			if (lock == null) {
+				return;
+			}
+			deleteExpiredTemporaryFolders();
+			List<Path> entries = new ArrayList<Path>();
+			Map<Path, Long> sizes = new HashMap<Path, Long>();
+			Map<Path, Long> accesses = new HashMap<Path, Long>();
+			long total = 0;
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheFolder)) {
+				for (Path entry : stream) {
+					if (!Files.isDirectory(entry) || TEMPORARY_FOLDER.equals(entry.getFileName().toString())) {
+						continue;
+					}
+					try {
+						long access = Files.getLastModifiedTime(entry.resolve(FRAGMENT_FILE)).toMillis();
+						long size = getSize(entry);
+						entries.add(entry);
+						sizes.put(entry, size);
+						accesses.put(entry, access);
+						total += size;
+					} catch (NoSuchFileException e) {
+						// Removed meanwhile
+					}
+				}
+			}
+			if (total <= maxSize) {
+				return;
+			}
+			entries.sort(Comparator.comparing(accesses::get));
+			int removed = 0;
+			for (Path entry : entries) {
+				if (total <= maxSize) {
+					break;
+				}
+				// The entry is moved first so it is never seen partially removed
+				Path temporary = cacheFolder.resolve(TEMPORARY_FOLDER)
+						.resolve(entry.getFileName() + "." + UUID.randomUUID()); //$NON-NLS-1$
+				try {
+					Files.move(entry, temporary, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					continue;
+				}
+				delete(temporary);
+				total -= sizes.get(entry);
+				removed++;
+			}
+			Logger.logInfo("Diagram cache: " + removed + " diagrams removed", null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void deleteExpiredTemporaryFolders() throws IOException {
+		long expiration = System.currentTimeMillis() - TEMPORARY_EXPIRATION;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheFolder.resolve(TEMPORARY_FOLDER))) {
+			for (Path temporary : stream) {
+				if (Files.getLastModifiedTime(temporary).toMillis() < expiration) {
+					delete(temporary);
+				}
+			}
+		}
+	}
+
+	private static long getSize(Path folder) throws IOException {
+		final long[] size = new long[1];
+		Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				size[0] += attributes.size();
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return size[0];
+	}
+
+	/**
+	 * Copy the files of <code>source</code> in <code>target</code>
+	 *
+	 * @return the copied files
+	 */
+	private static List<Path> copyTree(final Path source, final Path target) throws IOException {
+		final List<Path> copied = new ArrayList<Path>();
+		Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Path copy = target.resolve(source.relativize(file).toString());
+				Files.createDirectories(copy.getParent());
+				Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+				copied.add(copy);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return copied;
+	}
+
+	private static void delete(Path folder) {
+		try {
+			Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path directory, IOException exception) throws IOException {
+					Files.delete(directory);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (NoSuchFileException e) {
+			// Nothing to delete
+		} catch (IOException e) {
+			Logger.logWarning("The folder " + folder + " can not be deleted", e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Refresh the workspace files written at the given locations
+	 */
+	private static void refresh(List<Path> locations) {
+		for (Path location : locations) {
+			IFile file = ResourcesPlugin.getWorkspace().getRoot()
+					.getFileForLocation(new org.eclipse.core.runtime.Path(location.toString()));
+			if (file != null) {
+				try {
+					file.refreshLocal(IResource.DEPTH_ZERO, new NullProgressMonitor());
+				} catch (CoreException e) {
+					Logger.logWarning("File " + location + " can not be refreshed", e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.diagram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.egf.model.pattern.PatternContext;
+import org.eclipse.egf.model.pattern.PatternException;
+import org.eclipse.egf.model.pattern.PatternExecutionReporter;
+import org.eclipse.egf.pattern.execution.ExecutionContext;
+import org.eclipse.egf.pattern.execution.InternalPatternContext;
+import org.eclipse.egf.pattern.execution.Node;
+import org.eclipse.emf.transaction.Transaction;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.impl.InternalTransactionalEditingDomain;
+import org.eclipse.sirius.business.api.session.Session;
+import org.eclipse.sirius.diagram.DSemanticDiagram;
+import org.eclipse.sirius.viewpoint.DRepresentation;
+import org.eclipse.swt.widgets.Display;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.capella.docgen.visitor.SynchronizedPatternExecutionReporter;
+import org.polarsys.kitalpha.doc.gen.business.core.preference.helper.DocgenDiagramPreferencesHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
+
+/**
+ * Exports the diagrams of the generation. The diagrams of a page are submitted
+ * as a batch which the page waits for before its end, so the exports of a page
+ * run on the worker threads while the other diagrams of the page are
+ * submitted. The diagrams in scope are collected once, when the first batch of
+ * a generation is created: the progress of the export is logged against them,
+ * and the diagrams in scope which were not exported are logged at the end of
+ * the generation.
+ * <p>
+ * Sirius and GMF run the rendering of a diagram in the UI thread. When the
+ * batch is created in the UI thread, the workers would wait for the page which
+ * waits for them, so the diagrams are exported by the calling thread. The same
+ * applies when the calling thread owns the transaction of the session, as the
+ * page workers of a parallel generation do: the exclusive sections of the
+ * export would wait for the transaction held by the page.
+ */
+public class DiagramExportStage {
+
+	public static final DiagramExportStage INSTANCE = new DiagramExportStage();
+
+	/**
+	 * Number of progress messages logged during the export.
+	 */
+	private static final int PROGRESS_STEPS = 10;
+
+	/**
+	 * The export of a diagram.
+	 */
+	public interface ExportJob {
+		void run() throws Exception;
+	}
+
+	/**
+	 * The diagrams of one page.
+	 */
+	public class Batch {
+
+		private final List<Future<?>> exports = new ArrayList<Future<?>>();
+
+		private final ExecutorService batchExecutor;
+
+		private Batch(ExecutorService batchExecutor) {
+			this.batchExecutor = batchExecutor;
+		}
+
+		/**
+		 * @param pageContext
+		 *            context of the page
+		 * @return the context of a diagram of the page, its output node is added
+		 *         to the node of the page so the diagrams keep their order. When
+		 *         the diagram is exported by a worker thread the reporter of the
+		 *         page is serialized.
+		 */
+		public ExecutionContext newContext(InternalPatternContext pageContext) {
+			ExecutionContext context = new ExecutionContext(pageContext);
+			context.setNode(new Node.Container(pageContext.getNode(), DiagramExportStage.class));
+			Object reporter = pageContext.getValue(PatternContext.PATTERN_REPORTER);
+			if (batchExecutor != null && reporter instanceof PatternExecutionReporter
+					&& !(reporter instanceof SynchronizedPatternExecutionReporter)) {
+				context.setValue(PatternContext.PATTERN_REPORTER,
+						new SynchronizedPatternExecutionReporter((PatternExecutionReporter) reporter));
+			}
+			return context;
+		}
+
+		/**
+		 * Export a diagram, the job is run by a worker thread when the stage has
+		 * more than one thread.
+		 *
+		 * @param diagram
+		 *            the exported diagram
+		 * @param job
+		 *            the export of the diagram
+		 * @throws Exception
+		 *             the failure of the job when it is run by the calling thread
+		 */
+		public void submit(final DRepresentation diagram, final ExportJob job) throws Exception {
+			if (batchExecutor == null) {
+				job.run();
+				exported(diagram);
+				return;
+			}
+			exports.add(batchExecutor.submit(() -> {
+				job.run();
+				workerExportedDiagrams.incrementAndGet();
+				exported(diagram);
+				return null;
+			}));
+		}
+
+		/**
+		 * Wait for the diagrams of the batch.
+		 *
+		 * @throws PatternException
+		 *             wrapping the first failure of an export, the other failures
+		 *             are added as suppressed exceptions
+		 */
+		public void await() throws PatternException {
+			PatternException exception = null;
+			try {
+				for (Future<?> export : exports) {
+					try {
+						export.get();
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause();
+						if (exception == null) {
+							exception = cause instanceof PatternException ? (PatternException) cause
+									: new PatternException(cause);
+						} else {
+							exception.addSuppressed(cause);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				for (Future<?> export : exports) {
+					export.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				throw new PatternException(e);
+			} finally {
+				exports.clear();
+			}
+			if (exception != null) {
+				throw exception;
+			}
+		}
+	}
+
+	private volatile boolean active;
+
+	private volatile ExecutorService executor;
+
+	private volatile int total = -1;
+
+	/**
+	 * Diagrams in scope not exported yet
+	 */
+	private final Set<DRepresentation> pendingDiagrams = Collections
+			.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<DRepresentation, Boolean>()));
+
+	private final AtomicLong exportedDiagrams = new AtomicLong();
+
+	private final AtomicLong workerExportedDiagrams = new AtomicLong();
+
+	private long startTime;
+
+	private DiagramExportStage() {
+	}
+
+	/**
+	 * Start the stage, called when a generation starts.
+	 *
+	 * @param threads
+	 *            number of threads exporting the diagrams, 1 exports them in the
+	 *            thread generating the page
+	 */
+	public synchronized void start(int threads) {
+		shutdownExecutor();
+		if (threads > 1) {
+			final AtomicInteger count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "Capella docgen diagram export " + count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		total = -1;
+		pendingDiagrams.clear();
+		exportedDiagrams.set(0);
+		workerExportedDiagrams.set(0);
+		startTime = System.nanoTime();
+		active = true;
+	}
+
+	/**
+	 * Release the worker threads, called when a generation ends.
+	 */
+	public synchronized void dispose() {
+		if (active && exportedDiagrams.get() > 0) {
+			Logger.logInfo("Diagram export: " + exportedDiagrams.get() + " diagrams exported in " //$NON-NLS-1$ //$NON-NLS-2$
+					+ (System.nanoTime() - startTime) / 1000000 + " ms, " + workerExportedDiagrams.get() //$NON-NLS-1$
+					+ " by the worker threads", null); //$NON-NLS-1$
+		}
+		if (active && !pendingDiagrams.isEmpty()) {
+			Logger.logInfo("Diagram export: " + pendingDiagrams.size() + " diagrams in scope not exported", null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		pendingDiagrams.clear();
+		active = false;
+		shutdownExecutor();
+	}
+
+	/**
+	 * @return a new batch for the diagrams of a page
+	 */
+	public Batch newBatch() {
+		if (active && total < 0) {
+			collectDiagrams();
+		}
+		ExecutorService current = executor;
+		if (current == null || Display.getCurrent() != null || ownsTransaction()) {
+			return new Batch(null);
+		}
+		return new Batch(current);
+	}
+
+	/**
+	 * @return number of diagrams exported since the start of the generation
+	 */
+	public long getExportedDiagrams() {
+		return exportedDiagrams.get();
+	}
+
+	/**
+	 * @return number of diagrams exported by the worker threads since the start
+	 *         of the generation
+	 */
+	public long getWorkerExportedDiagrams() {
+		return workerExportedDiagrams.get();
+	}
+
+	/**
+	 * @return number of diagrams in the scope of the generation, -1 if they are
+	 *         not collected yet
+	 */
+	public int getTotalDiagrams() {
+		return total;
+	}
+
+	/**
+	 * @return number of diagrams in the scope of the generation which are not
+	 *         exported yet
+	 */
+	public int getPendingDiagrams() {
+		return pendingDiagrams.size();
+	}
+
+	/**
+	 * @return whether the calling thread owns the active transaction of the
+	 *         editing domain of the session
+	 */
+	private boolean ownsTransaction() {
+		Session session = DiagramSessionHelper.getCurrentSession();
+		TransactionalEditingDomain domain = session == null ? null : session.getTransactionalEditingDomain();
+		if (domain instanceof InternalTransactionalEditingDomain) {
+			Transaction transaction = ((InternalTransactionalEditingDomain) domain).getActiveTransaction();
+			return transaction != null && transaction.getOwner() == Thread.currentThread();
+		}
+		return false;
+	}
+
+	private synchronized void collectDiagrams() {
+		if (total >= 0) {
+			return;
+		}
+		if (DocgenDiagramPreferencesHelper.getExportDiagram() && DiagramSessionHelper.getCurrentSession() != null) {
+			for (DRepresentation representation : DiagramSessionHelper.getSessionDRepresentation()) {
+				if (representation instanceof DSemanticDiagram && CapellaHelper.exportRefToDiagram(representation,
+						((DSemanticDiagram) representation).getTarget())) {
+					pendingDiagrams.add(representation);
+				}
+			}
+		}
+		total = pendingDiagrams.size();
+		Logger.logInfo("Diagram export: " + total + " diagrams in scope", null); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void exported(DRepresentation diagram) {
+		exportedDiagrams.incrementAndGet();
+		if (diagram == null || !pendingDiagrams.remove(diagram)) {
+			return;
+		}
+		int expected = total;
+		int count = expected - pendingDiagrams.size();
+		if (active && expected >= PROGRESS_STEPS && count <= expected
+				&& count * PROGRESS_STEPS / expected != (count - 1) * PROGRESS_STEPS / expected) {
+			Logger.logInfo("Diagram export: " + count + "/" + expected + " diagrams exported", null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	private void shutdownExecutor() {
+		ExecutorService current = executor;
+		executor = null;
+		if (current != null) {
+			current.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.diagram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.sirius.business.api.dialect.DialectManager;
+import org.eclipse.sirius.business.api.query.EObjectQuery;
+import org.eclipse.sirius.business.api.session.Session;
+import org.eclipse.sirius.business.api.session.SessionManager;
+import org.eclipse.sirius.diagram.DDiagram;
+import org.eclipse.sirius.diagram.DDiagramElement;
+import org.eclipse.sirius.viewpoint.DRepresentation;
+import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
+import org.eclipse.sirius.viewpoint.description.DAnnotation;
+import org.eclipse.sirius.viewpoint.description.DescriptionPackage;
+import org.polarsys.capella.core.diagram.helpers.naming.DAnnotationSourceConstants;
+import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.util.SiriusHelper;
+
+/**
+ * Representations of a session by semantic target, diagrams by displayed
+ * semantic element, descriptors by representation, descriptors by element of
+ * interest and representations by BlockArchitecture. During a generation, the
+ * index of a session is built once, the first time it is used, and is not
+ * modified afterwards. Outside of a generation Sirius is queried on each call.
+ */
+public class RepresentationIndex {
+
+	public static final RepresentationIndex INSTANCE = new RepresentationIndex();
+
+	/**
+	 * Index of the representations of one session
+	 */
+	private static class Index {
+
+		private final Map<EObject, List<DRepresentation>> representationsByTarget;
+
+		private final Map<EObject, Collection<DRepresentation>> diagramsByElement;
+
+		private final Map<DRepresentation, DRepresentationDescriptor> descriptors;
+
+		private final Map<EObject, Collection<DRepresentationDescriptor>> interestedDescriptors;
+
+		private Index(Session session) {
+			Map<EObject, List<DRepresentation>> byTarget = new HashMap<EObject, List<DRepresentation>>();
+			Map<EObject, Collection<DRepresentation>> byElement = new HashMap<EObject, Collection<DRepresentation>>();
+			Map<DRepresentation, DRepresentationDescriptor> byRepresentation = new HashMap<DRepresentation, DRepresentationDescriptor>();
+			Map<EObject, Collection<DRepresentationDescriptor>> byInterest = new HashMap<EObject, Collection<DRepresentationDescriptor>>();
+			for (DRepresentationDescriptor descriptor : DialectManager.INSTANCE.getAllRepresentationDescriptors(session)) {
+				for (DAnnotation annotation : descriptor.getEAnnotations()) {
+					if (DAnnotationSourceConstants.CAPELLA_ELEMENT_OF_INTEREST.equals(annotation.getSource())) {
+						for (EObject reference : annotation.getReferences()) {
+							byInterest.computeIfAbsent(reference, key -> new LinkedHashSet<DRepresentationDescriptor>())
+									.add(descriptor);
+						}
+					}
+				}
+				DRepresentation representation = descriptor.getRepresentation();
+				if (representation == null) {
+					continue;
+				}
+				byRepresentation.putIfAbsent(representation, descriptor);
+				if (descriptor.getTarget() != null) {
+					byTarget.computeIfAbsent(descriptor.getTarget(), key -> new ArrayList<DRepresentation>())
+							.add(representation);
+				}
+				if (representation instanceof DDiagram) {
+					for (DDiagramElement element : ((DDiagram) representation).getDiagramElements()) {
+						if (element.getTarget() != null) {
+							byElement.computeIfAbsent(element.getTarget(), key -> new LinkedHashSet<DRepresentation>())
+									.add(representation);
+						}
+					}
+				}
+			}
+			for (Entry<EObject, List<DRepresentation>> entry : byTarget.entrySet()) {
+				entry.setValue(Collections.unmodifiableList(entry.getValue()));
+			}
+			for (Entry<EObject, Collection<DRepresentation>> entry : byElement.entrySet()) {
+				entry.setValue(Collections.unmodifiableCollection(entry.getValue()));
+			}
+			for (Entry<EObject, Collection<DRepresentationDescriptor>> entry : byInterest.entrySet()) {
+				entry.setValue(Collections.unmodifiableCollection(entry.getValue()));
+			}
+			representationsByTarget = Collections.unmodifiableMap(byTarget);
+			diagramsByElement = Collections.unmodifiableMap(byElement);
+			descriptors = Collections.unmodifiableMap(byRepresentation);
+			interestedDescriptors = Collections.unmodifiableMap(byInterest);
+		}
+	}
+
+	private volatile boolean active;
+
+	private final Map<Session, Index> indexes = new ConcurrentHashMap<Session, Index>();
+
+	private final Map<Session, Map<EObject, List<DRepresentation>>> architectures = new ConcurrentHashMap<Session, Map<EObject, List<DRepresentation>>>();
+
+	private RepresentationIndex() {
+	}
+
+	/**
+	 * Start indexing the representations, called when a generation starts.
+	 */
+	public void start() {
+		indexes.clear();
+		architectures.clear();
+		active = true;
+	}
+
+	/**
+	 * Release the indexes, called when a generation ends.
+	 */
+	public void dispose() {
+		active = false;
+		indexes.clear();
+		architectures.clear();
+	}
+
+	/**
+	 * @param target  semantic element
+	 * @param session session holding the representations
+	 * @return the representations whose target is <code>target</code>
+	 */
+	public Collection<DRepresentation> getRepresentations(EObject target, Session session) {
+		Index index = getIndex(session);
+		if (index == null) {
+			return DialectManager.INSTANCE.getRepresentations(target, session);
+		}
+		return index.representationsByTarget.getOrDefault(target, Collections.<DRepresentation> emptyList());
+	}
+
+	/**
+	 * @param element semantic element
+	 * @return the diagrams displaying <code>element</code>
+	 */
+	public Collection<DRepresentation> getDiagramsDisplaying(EObject element) {
+		Index index = getIndex(SessionManager.INSTANCE.getSession(element));
+		if (index == null) {
+			return new ArrayList<DRepresentation>(SiriusHelper.getDiagramForObject(element, false));
+		}
+		return index.diagramsByElement.getOrDefault(element, Collections.<DRepresentation> emptyList());
+	}
+
+	/**
+	 * @param representation representation
+	 * @return the descriptor of <code>representation</code>, null if it is not
+	 *         found
+	 */
+	public DRepresentationDescriptor getDescriptor(DRepresentation representation) {
+		Session session = SessionManager.INSTANCE.getSession(representation);
+		Index index = getIndex(session);
+		if (index == null) {
+			Optional<DRepresentationDescriptor> optDesc = DialectManager.INSTANCE
+					.getAllRepresentationDescriptors(session).stream()
+					.filter(repDesc -> representation.equals(repDesc.getRepresentation())).findFirst();
+			return optDesc.orElse(null);
+		}
+		return index.descriptors.get(representation);
+	}
+
+	/**
+	 * @param element semantic element
+	 * @return the descriptors of the representations having <code>element</code>
+	 *         as element of interest, see
+	 *         {@link DAnnotationSourceConstants#CAPELLA_ELEMENT_OF_INTEREST}
+	 */
+	public Collection<DRepresentationDescriptor> getInterestedDescriptors(EObject element) {
+		Index index = getIndex(SessionManager.INSTANCE.getSession(element));
+		if (index == null) {
+			Collection<DRepresentationDescriptor> descriptors = new LinkedHashSet<DRepresentationDescriptor>();
+			for (EObject eObject : new EObjectQuery(element)
+					.getInverseReferences(DescriptionPackage.Literals.DANNOTATION__REFERENCES)) {
+				DAnnotation annotation = (DAnnotation) eObject;
+				if (DAnnotationSourceConstants.CAPELLA_ELEMENT_OF_INTEREST.equals(annotation.getSource())) {
+					descriptors.add((DRepresentationDescriptor) annotation.eContainer());
+				}
+			}
+			return descriptors;
+		}
+		return index.interestedDescriptors.getOrDefault(element,
+				Collections.<DRepresentationDescriptor> emptyList());
+	}
+
+	/**
+	 * @return the representations of the current session by BlockArchitecture
+	 *         containing their target
+	 */
+	public Map<EObject, List<DRepresentation>> getRepresentationsByBlockArchitecture() {
+		Session session = DiagramSessionHelper.getCurrentSession();
+		if (!active || session == null) {
+			return groupByBlockArchitecture();
+		}
+		return architectures.computeIfAbsent(session, key -> groupByBlockArchitecture());
+	}
+
+	private static Map<EObject, List<DRepresentation>> groupByBlockArchitecture() {
+		Map<EObject, List<DRepresentation>> result = new HashMap<EObject, List<DRepresentation>>();
+		for (DRepresentation representation : DiagramSessionHelper.getSessionDRepresentation()) {
+			EObject architecture = CapellaHelper.getBlockArchitectureContainer(representation);
+			if (architecture != null) {
+				result.computeIfAbsent(architecture, key -> new ArrayList<DRepresentation>()).add(representation);
+			}
+		}
+		for (Entry<EObject, List<DRepresentation>> entry : result.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	private Index getIndex(Session session) {
+		if (!active || session == null) {
+			return null;
+		}
+		return indexes.computeIfAbsent(session, Index::new);
+	}
+}
@@ -12,9 +12,14 @@
 
 package org.polarsys.capella.docgen.helper;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -33,21 +38,28 @@ import org.polarsys.capella.core.diagram.helpers.RepresentationAnnotationHelper;
 import org.polarsys.capella.core.model.handler.helpers.CapellaProjectHelper;
 import org.polarsys.capella.core.ui.metric.utils.ProgressMonitoringPropagator;
 import org.polarsys.capella.docgen.util.CapellaLabelProviderHelper;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
 import org.polarsys.capella.docgen.util.CapellaServices;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.capella.docgen.util.StreamingFileWriter;
 import org.polarsys.kitalpha.doc.gen.business.core.scope.GenerationGlobalScope;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlUtil;
 
 /**
  * @author Zendagui Boubekeur
  */
 public class ProgressHelper {
 	
-	private static final DataContentProvider dataProvider = new DataContentProvider();
 	private static final String TABLE_ID = "progress-overview-table";
-	private String projectName;
-	private String outputFolder;
+	/** Folder of the Progress Overview script and data files, relative to the output folder */
+	private static final String DATA_FOLDER = "scripts/progress-overview";
+	private final String projectName;
+	private final String outputFolder;
 	
 	/**
-	 * Default constructor. The two parameters are needed for managing the element icons
+	 * Default constructor. The two parameters are needed for managing the element icons.
+	 * Each table is generated from its own tree of tagged objects, a helper can be used
+	 * by several threads at once.
 	 * @param projectName the project wherein the documentation will be generated
 	 * @param outputFolder the folder wherein the documentation will be generated
 	 */
@@ -56,32 +68,167 @@ public class ProgressHelper {
 		this.outputFolder = outputFolder;
 	}
 	
+	/**
+	 * Generate the Progress Overview, as a table or, when
+	 * {@link CapellaDocgenPreferenceHelper#isLazyProgressOverview()} is checked,
+	 * as a data file loaded by the page.
+	 * @param element a model element
+	 * @return the HTML content of the Progress Overview
+	 */
+	public String generateProgressOverview(EObject element){
+		if (CapellaDocgenPreferenceHelper.isLazyProgressOverview()) {
+			return generateLazyProgressTable(element);
+		}
+		return generateProgressTable(element);
+	}
+	
 	/**
 	 * Generate the HTML page. This method is the root one.
 	 * @param element a model element
 	 * @return an HTML table (<code>&lttable&gt ... &lt/table&gt</codes>)
 	 */
 	public String generateProgressTable(EObject element){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
+		generateProgressTable(element, result);
+		return result.toString();
+	}
+	
+	/**
+	 * Append the HTML page to <code>result</code>, the lines of the table are
+	 * appended one by one without intermediate strings.
+	 * @param element a model element
+	 * @param result the buffer receiving the HTML table
+	 */
+	public void generateProgressTable(EObject element, StringBuilder result){
 		result.append(generateSearchArea(element));
 		result.append("<table id=\"").append(TABLE_ID).append("\">");
 		result.append(generateExpandCollapsAction(TABLE_ID));
 		result.append(generateTableHeader());
-		result.append(generateTableBody(element));
+		generateTableBody(element, result);
 		result.append("</table>");
 		result.append(generateCustomStype());
 		result.append(getTreeTablePluginIntegration(TABLE_ID));
 		result.append(getSearchJavascriptFucntions());
+	}
+	
+	/**
+	 * Write the lines of the table in a data file and generate the HTML page
+	 * loading it. The rows of a node are rendered when it is expanded and only
+	 * the visible rows are in the page, the search filters the data.
+	 * @param element a model element
+	 * @return the search area, the table container and the scripts
+	 */
+	public String generateLazyProgressTable(EObject element){
+		String dataFileName = DocGenHtmlUtil.getValidFileName(String.valueOf(getID(element))) + ".js";
+		writeProgressDataFile(element, dataFileName);
+		StringBuilder result = new StringBuilder();
+		result.append(generateSearchArea(element));
+		result.append("<img class=\"cebutton\" src=\"../../img/closed.gif\" alt=\"Expand all\" onclick=\"ProgressOverview.expandAll(); return false;\"/>");
+		result.append("<img class=\"cebutton\" src=\"../../img/open.gif\" alt=\"Collapse all\" onclick=\"ProgressOverview.collapseAll(); return false;\"/>");
+		result.append("<div id=\"").append(TABLE_ID).append("\" class=\"progress-overview\"></div>");
+		result.append(generateCustomStype());
+		result.append("<link href=\"../../").append(DATA_FOLDER).append("/progress-overview.css\" rel=\"stylesheet\" type=\"text/css\" />");
+		result.append("<script src=\"../../").append(DATA_FOLDER).append("/progress-overview.js\"></script>");
+		result.append("<script>ProgressOverview.init(\"").append(TABLE_ID).append("\");</script>");
+		result.append("<script src=\"../../").append(DATA_FOLDER).append("/").append(dataFileName).append("\"></script>");
 		return result.toString();
 	}
 	
+	private void writeProgressDataFile(EObject element, String dataFileName) {
+		File outputLocation = ResourcesPlugin.getWorkspace().getRoot().getFolder(new Path(projectName).append(outputFolder)).getLocation().toFile();
+		File dataFile = new File(new File(outputLocation, DATA_FOLDER), dataFileName);
+		try (StreamingFileWriter writer = new StreamingFileWriter(dataFile)) {
+			writeProgressData(element, writer);
+		} catch (IOException e) {
+			Logger.logError("The Progress Overview data can not be written in " + dataFile, e); //$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * Write the lines of the table as a script calling <code>ProgressOverview.load</code>
+	 * with a JSON object. Each row is an array <code>[parent, label, status, review]</code>
+	 * where parent is the index of the parent row, -1 for a root row. The rows are
+	 * written in depth-first order while the tree is traversed.
+	 * @param element a model element
+	 * @param writer the writer of the data file
+	 * @throws IOException if the data can not be written
+	 */
+	public void writeProgressData(EObject element, Writer writer) throws IOException {
+		DataContentProvider tree = createTree(element);
+		try {
+			writer.write("ProgressOverview.load({\"rows\":[");
+			writeDataRows(tree, tree.getElements(element), null, -1, writer, new int[1]);
+			writer.write("]});\n");
+		} finally {
+			tree.dispose();
+		}
+	}
+	
+	private void writeDataRows(DataContentProvider tree, Object[] elements, String parentID, int parentIndex, Writer writer, int[] count) throws IOException {
+		for (Object element : elements) {
+			String[] exportableData = getExportableData(element);
+			int index = parentIndex;
+			// Same rule as generateElementHtmlLine, the children of a skipped line are attached to its parent
+			if (parentID == null || !exportableData[0].equals(parentID)) {
+				index = count[0]++;
+				if (index > 0) {
+					writer.write(",\n");
+				}
+				boolean root = parentID == null || ((EObject) element).eContainer() == null;
+				writer.write('[');
+				writer.write(Integer.toString(root ? -1 : parentIndex));
+				for (int i = 1; i < exportableData.length; i++) {
+					writer.write(',');
+					writeJsonString(exportableData[i], writer);
+				}
+				writer.write(']');
+			}
+			writeDataRows(tree, tree.getChildren(element), getID(element), index, writer, count);
+		}
+	}
+	
+	private static void writeJsonString(String value, Writer writer) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				writer.write("\\\"");
+				break;
+			case '\\':
+				writer.write("\\\\");
+				break;
+			case '\n':
+				writer.write("\\n");
+				break;
+			case '\r':
+				writer.write("\\r");
+				break;
+			case '\t':
+				writer.write("\\t");
+				break;
+			default:
+				if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+					writer.write(String.format("\\u%04x", (int) c));
+				} else {
+					writer.write(c);
+				}
+			}
+		}
+		writer.write('"');
+	}
+	
 	/**
 	 * Generate the Collapse and Expand all buttons for a given HTML table
 	 * @param tableID the ID of the table
 	 * @return the section <code>&ltcaption&gt ... &lt/caption&gt</codes> 
 	 */
 	public String generateExpandCollapsAction(String tableID){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append("<img class=\"cebutton\" src=\"../../img/closed.gif\" alt=\"Collapse all\" onclick=\"jQuery('#progress-overview-table').treetable('expandAll'); return false;\"/>");
 		result.append("<img class=\"cebutton\" src=\"../../img/open.gif\" alt=\"Collapse all\" onclick=\"jQuery('#progress-overview-table').treetable('collapseAll'); return false;\"/>");
 		return result.toString();
@@ -91,7 +238,7 @@ public class ProgressHelper {
 	 * @return The search area HTML code. It contains 3 search criteria, end-user can use to filter table lines
 	 */
 	public String generateSearchArea(EObject element){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append("<label for=\"filter-object\">Object:</label>");
 		result.append("<input class=\"search\" type=\"text\" id=\"filter-object\" onkeyup=\"multiSearch()\" placeholder=\"Search Object by name..\">");
 		result.append("<label for=\"filter-status\">Status:</label>");
@@ -109,7 +256,7 @@ public class ProgressHelper {
 	}
 	
 	public String generateCustomStype(){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append("<style>");
 		result.append("	.search {width: 160;height: 30px;border-radius: 3px;border: 1px solid #000000; margin: 15px}");
 		result.append("	.search input {width: 120px;padding: 10px 5px;float: left;color: #ccc;border: 0;background: transparent;border-radius: 3px 0 0 3px;}");
@@ -123,7 +270,7 @@ public class ProgressHelper {
 	 * @return the HTML content allowing the integration of the JQuery scripts
 	 */
 	public String getTreeTablePluginIntegration(String tableID){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append("<script src=\"../../scripts/jquery-treeview/lib/jquery-1.11.1.js\"></script>");
 		result.append("<script src=\"../../scripts/jquery-treetable/jquery.treetable.js\"></script>");
 		result.append("<link href=\"../../scripts/jquery-treetable/css/jquery.treetable.css\" rel=\"stylesheet\" type=\"text/css\" />");
@@ -143,7 +290,7 @@ public class ProgressHelper {
 	 * @return the HTML content allowing the integration of the JQuery scripts
 	 */
 	public String getSearchJavascriptFucntions(){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append("<script>");
 		result.append("	function multiSearch() {");
 		result.append("		$(\"#progress-overview-table\").treetable(\"expandAll\");");
@@ -202,7 +349,7 @@ public class ProgressHelper {
 	 * @return the section <code>&ltthead&gt ... &lt/thead&gt</code>
 	 */
 	public String generateTableHeader(){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append("<thead>");
 		result.append("<tr>");
 		result.append("<th>Object</th>");
@@ -219,7 +366,34 @@ public class ProgressHelper {
 	 * @return the section <code>&lttbody&gt ... &lt/tbody&gt</code>
 	 */
 	public String generateTableBody(EObject element){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
+		generateTableBody(element, result);
+		return result.toString();
+	}
+	
+	/**
+	 * Append the table body to <code>result</code>
+	 * @param element a model element
+	 * @param result the buffer receiving the section <code>&lttbody&gt ... &lt/tbody&gt</code>
+	 */
+	public void generateTableBody(EObject element, StringBuilder result){
+		DataContentProvider tree = createTree(element);
+		try {
+			result.append("<tbody>");
+			generateSubElementTableLines(tree, tree.getElements(element), null, result);
+			result.append("</tbody>");
+		} finally {
+			// The tree is released once the table is generated
+			tree.dispose();
+		}
+	}
+	
+	/**
+	 * Create the tree of the tagged objects in the scope
+	 * @param element a model element
+	 * @return a data provider owned by the caller, whose input is the tree
+	 */
+	private DataContentProvider createTree(EObject element){
 		List<EObject> allTaggedObjects = ProgressMonitoringPropagator.getInstance().getTaggedObjects(EcoreUtil.getRootContainer(element));
 		List<EObject> taggedObjects = allTaggedObjects.stream().filter(eObject -> {
 			if (GenerationGlobalScope.getInstance().inScope(eObject, true)){
@@ -234,32 +408,40 @@ public class ProgressHelper {
 		}
 		).collect(Collectors.toList());
 		TreeData treeData = new TreeData(taggedObjects, null);
-		dataProvider.inputChanged(null, null, treeData);
-		Object[] elements = dataProvider.getElements(element);
-		result.append("<tbody>");
-		result.append(generateSubElementTableLines(elements, null));
-		result.append("</tbody>");
-		return result.toString();
+		DataContentProvider tree = new DataContentProvider();
+		tree.inputChanged(null, null, treeData);
+		return tree;
 	}
 	
 	/**
 	 * Generate a table line for a given element. Because the first column is a tree, each line is considered as a node.
+	 * @param tree the tree of the table
 	 * @param elements the model element
 	 * @param parentID the ID of parent node of the new node 
 	 * @return
 	 */
-	public String generateSubElementTableLines(Object[] elements, String parentID){
-		StringBuffer result = new StringBuffer();
+	public String generateSubElementTableLines(DataContentProvider tree, Object[] elements, String parentID){
+		StringBuilder result = new StringBuilder();
+		generateSubElementTableLines(tree, elements, parentID, result);
+		return result.toString();
+	}
+	
+	/**
+	 * Append the table lines of the elements and of their sub-elements to <code>result</code>
+	 * @param tree the tree of the table
+	 * @param elements the model elements
+	 * @param parentID the ID of parent node of the new nodes
+	 * @param result the buffer receiving the lines
+	 */
+	public void generateSubElementTableLines(DataContentProvider tree, Object[] elements, String parentID, StringBuilder result){
 		for (Object element : elements) {
 			// generate HTML content for the current element
-			result.append(generateElementHtmlLine(element, parentID));
+			generateElementHtmlLine(element, parentID, result);
 			// generate HTML content for sub-elements
 			// Compute the element ID
 			String elementID = getID(element);
-			String content = generateSubElementTableLines(dataProvider.getChildren(element), elementID);
-			result.append(content);
+			generateSubElementTableLines(tree, tree.getChildren(element), elementID, result);
 		}
-		return result.toString();
 	}
 	
 	/**
@@ -268,11 +450,21 @@ public class ProgressHelper {
 	 * @return a set of <code>&lttr&gt ... &lt/tr&gt</code>
 	 */
 	public String generateElementHtmlLine(Object element, String parentID){
+		StringBuilder result = new StringBuilder();
+		generateElementHtmlLine(element, parentID, result);
+		return result.toString();
+	}
+	
+	/**
+	 * @param element
+	 * @param parentID if null, this means that the element is the root
+	 * @param result the buffer receiving the <code>&lttr&gt ... &lt/tr&gt</code>
+	 */
+	public void generateElementHtmlLine(Object element, String parentID, StringBuilder result){
 		String[] exportableData = getExportableData(element);
 		if (parentID != null && exportableData[0].equals(parentID)) {
-			return "";
+			return;
 		}
-		StringBuffer result = new StringBuffer();
 		result.append("<tr data-tt-id=\"").append(exportableData[0]).append("\"");
 		if (parentID != null && ((EObject)element).eContainer() != null) {
 			result.append(" data-tt-parent-id=\"").append(parentID).append("\"");
@@ -282,7 +474,6 @@ public class ProgressHelper {
 		result.append("<td>").append(exportableData[2]).append("</td>");
 		result.append("<td>").append(exportableData[3]).append("</td>");
 		result.append("</tr>");
-		return result.toString();
 	}
 	
 	
@@ -337,13 +528,13 @@ public class ProgressHelper {
 	 * @return the element label.
 	 */
 	private String getLabel(Object element){
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = new StringBuilder();
 		result.append(CapellaServices.getImageLinkFromElement((EObject) element, this.projectName, this.outputFolder));
 		result.append(" ");
 		if (element instanceof CapellaElement || element instanceof DSemanticDiagram){ 
 			result.append(CapellaServices.getHyperlinkFromElement((EObject) element));
 		} else if (element instanceof DAnalysis){
-			result.append("DAnalysis " + ((DAnalysis) element).getVersion());
+			result.append("DAnalysis ").append(((DAnalysis) element).getVersion());
 		} else if (element instanceof DView){
 			result.append("DView");
 		} else if (element instanceof DTable){
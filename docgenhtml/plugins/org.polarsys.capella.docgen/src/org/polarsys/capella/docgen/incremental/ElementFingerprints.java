@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.incremental;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.sirius.business.api.query.DRepresentationQuery;
+import org.eclipse.sirius.viewpoint.DRepresentation;
+import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
+import org.eclipse.sirius.viewpoint.DSemanticDecorator;
+
+/**
+ * Computes the fingerprint of the inputs feeding the page of a model element:
+ * its own attributes, the elements it references (with their attributes, so
+ * property values and labels are covered), the elements referencing it
+ * (allocations, diagrams showing it) and the fingerprints of its children. The
+ * structure of an element (its name and the ids and names of its children) is
+ * computed separately, it feeds the sidebar of its children, and so is its
+ * ancestry (the ids and names of its ancestors), which feeds its breadcrumb.
+ * <p>
+ * The values may be computed by several page workers at once: the model is
+ * not modified during a generation, so a value computed twice is the same.
+ */
+public class ElementFingerprints {
+
+	private static final char SEPARATOR = '|';
+
+	private final Map<EObject, String> fingerprints = new ConcurrentHashMap<EObject, String>();
+
+	private final Map<EObject, String> structures = new ConcurrentHashMap<EObject, String>();
+
+	private final Map<EObject, String> ancestries = new ConcurrentHashMap<EObject, String>();
+
+	/**
+	 * @param element
+	 *            a model element
+	 * @return the fingerprint of the element, computed once
+	 */
+	public String getFingerprint(EObject element) {
+		String fingerprint = fingerprints.get(element);
+		if (fingerprint == null) {
+			StringBuilder input = new StringBuilder();
+			appendShallow(input, element);
+			appendReferences(input, element);
+			appendInverseReferences(input, element);
+			for (EObject child : element.eContents()) {
+				input.append(SEPARATOR).append(getFingerprint(child));
+			}
+			fingerprint = hash(input);
+			fingerprints.put(element, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * @param element
+	 *            a model element
+	 * @return the fingerprint of the name of the element and of the ids and names
+	 *         of its children
+	 */
+	public String getStructure(EObject element) {
+		String structure = structures.get(element);
+		if (structure == null) {
+			StringBuilder input = new StringBuilder();
+			appendName(input, element);
+			for (EObject child : element.eContents()) {
+				input.append(SEPARATOR).append(getId(child));
+				appendName(input, child);
+			}
+			structure = hash(input);
+			structures.put(element, structure);
+		}
+		return structure;
+	}
+
+	/**
+	 * @param element
+	 *            a model element
+	 * @return the fingerprint of the ids and names of the ancestors of the
+	 *         element, from its root to its container
+	 */
+	public String getAncestry(EObject element) {
+		String ancestry = ancestries.get(element);
+		if (ancestry == null) {
+			StringBuilder input = new StringBuilder();
+			EObject container = element.eContainer();
+			if (container != null) {
+				input.append(getAncestry(container)).append(SEPARATOR).append(getId(container));
+				appendName(input, container);
+			}
+			ancestry = hash(input);
+			ancestries.put(element, ancestry);
+		}
+		return ancestry;
+	}
+
+	/**
+	 * @param element
+	 *            a model element
+	 * @return the identifier of the element, the id attribute for Capella
+	 *         elements
+	 */
+	public static String getId(EObject element) {
+		String id = EcoreUtil.getID(element);
+		if (id == null) {
+			id = EcoreUtil.getURI(element).fragment();
+		}
+		return id;
+	}
+
+	private void appendShallow(StringBuilder input, EObject element) {
+		input.append(element.eClass().getName()).append(SEPARATOR).append(getId(element));
+		for (EAttribute attribute : element.eClass().getEAllAttributes()) {
+			if (!attribute.isDerived() && !attribute.isTransient()) {
+				input.append(SEPARATOR).append(attribute.getName()).append('=')
+						.append(String.valueOf(element.eGet(attribute)));
+			}
+		}
+	}
+
+	private void appendName(StringBuilder input, EObject element) {
+		EAttribute name = (EAttribute) element.eClass().getEStructuralFeature("name"); //$NON-NLS-1$
+		if (name != null) {
+			input.append(SEPARATOR).append(String.valueOf(element.eGet(name)));
+		}
+	}
+
+	private void appendReferences(StringBuilder input, EObject element) {
+		for (EReference reference : element.eClass().getEAllReferences()) {
+			if (!reference.isContainment() && !reference.isContainer() && !reference.isDerived()
+					&& !reference.isTransient()) {
+				input.append(SEPARATOR).append(reference.getName()).append('=');
+				for (EObject target : getTargets(element, reference)) {
+					input.append('[');
+					appendShallow(input, target);
+					input.append(']');
+				}
+			}
+		}
+	}
+
+	private Collection<EObject> getTargets(EObject element, EReference reference) {
+		Object value = element.eGet(reference, false);
+		if (value instanceof EObject) {
+			return Collections.singletonList((EObject) value);
+		} else if (value instanceof Collection<?>) {
+			List<EObject> targets = new ArrayList<EObject>();
+			for (Object target : (Collection<?>) value) {
+				if (target instanceof EObject) {
+					targets.add((EObject) target);
+				}
+			}
+			return targets;
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Elements referencing the given element are sorted, the order of the cross
+	 * referencer is not stable between two sessions.
+	 */
+	private void appendInverseReferences(StringBuilder input, EObject element) {
+		ECrossReferenceAdapter adapter = ECrossReferenceAdapter.getCrossReferenceAdapter(element);
+		if (adapter == null) {
+			return;
+		}
+		List<String> referencing = new ArrayList<String>();
+		for (Setting setting : adapter.getInverseReferences(element, false)) {
+			EObject source = setting.getEObject();
+			StringBuilder description = new StringBuilder(setting.getEStructuralFeature().getName());
+			if (source instanceof DSemanticDecorator) {
+				appendRepresentation(description, source);
+			} else {
+				appendShallow(description, source);
+				if (source.eContainer() != null) {
+					appendShallow(description, source.eContainer());
+				}
+			}
+			referencing.add(description.toString());
+		}
+		Collections.sort(referencing);
+		for (String description : referencing) {
+			input.append(SEPARATOR).append(description);
+		}
+	}
+
+	private void appendRepresentation(StringBuilder input, EObject viewElement) {
+		EObject current = viewElement;
+		while (current != null && !(current instanceof DRepresentation)) {
+			current = current.eContainer();
+		}
+		if (current != null) {
+			DRepresentation representation = (DRepresentation) current;
+			input.append(SEPARATOR).append(representation.getUid());
+			DRepresentationDescriptor descriptor = new DRepresentationQuery(representation)
+					.getRepresentationDescriptor();
+			if (descriptor != null) {
+				input.append(SEPARATOR).append(descriptor.getName()).append(SEPARATOR)
+						.append(descriptor.getChangeId());
+			}
+		}
+	}
+
+	private static String hash(CharSequence input) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			byte[] bytes = digest.digest(input.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder result = new StringBuilder(bytes.length * 2);
+			for (byte b : bytes) {
+				result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return result.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is available on every Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.incremental;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.ecore.EObject;
+import org.polarsys.capella.docgen.Activator;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
+import org.polarsys.capella.docgen.util.DocGenHtmlCapellaUtil;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.kitalpha.doc.gen.business.core.preference.helper.DocgenDiagramPreferencesHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.scope.GenerationGlobalScope;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlUtil;
+
+/**
+ * State of an incremental generation. The manifest of the previous generation
+ * (element id to fingerprint) is read from the output folder, the pages of the
+ * elements whose fingerprint did not change are not generated again and the
+ * manifest of the current model is written at the end of the generation. When
+ * the manifest is missing, or was written with other generation settings, the
+ * whole documentation is generated.
+ * <p>
+ * The manifest also records the page of each element, relative to the output
+ * folder. At the end of the generation, the page of an element of the previous
+ * manifest which is no longer in the model is deleted with the folder of its
+ * diagrams.
+ */
+public class IncrementalGeneration {
+
+	public static final IncrementalGeneration INSTANCE = new IncrementalGeneration();
+
+	/**
+	 * Name of the manifest file in the output folder
+	 */
+	public static final String MANIFEST_FILE_NAME = "docgen.manifest"; //$NON-NLS-1$
+
+	private static final String SETTINGS_KEY = "#settings"; //$NON-NLS-1$
+
+	/**
+	 * Prefix of the manifest keys of the pages, followed by the element id
+	 */
+	private static final String PAGE_KEY_PREFIX = "#page:"; //$NON-NLS-1$
+
+	private static final String PAGE_EXTENSION = ".html"; //$NON-NLS-1$
+
+	private static final String VALUE_SEPARATOR = " "; //$NON-NLS-1$
+
+	private boolean active;
+
+	private IFolder outputFolder;
+
+	private IFile manifestFile;
+
+	private String settings;
+
+	/**
+	 * Fingerprints of the previous generation, empty for a full generation
+	 */
+	private final Map<String, String> previous = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Fingerprints of the visited elements
+	 */
+	private final Map<String, String> current = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Pages of the previous generation, relative to the output folder, by
+	 * element id
+	 */
+	private final Map<String, String> previousPages = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Pages of the visited elements, relative to the output folder, by element id
+	 */
+	private final Map<String, String> currentPages = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Whether the page of each visited element is kept, decided once per
+	 * element whatever the number of visitor passes
+	 */
+	private final Map<EObject, Boolean> decisions = new ConcurrentHashMap<EObject, Boolean>();
+
+	private ElementFingerprints fingerprints = new ElementFingerprints();
+
+	private final AtomicLong skipped = new AtomicLong();
+
+	private final AtomicLong regenerated = new AtomicLong();
+
+	private IncrementalGeneration() {
+	}
+
+	/**
+	 * Start a generation.
+	 *
+	 * @param projectName
+	 *            project wherein documentation is generated
+	 * @param outputFolder
+	 *            folder wherein documentation is generated
+	 * @param incremental
+	 *            whether unchanged pages are kept
+	 */
+	public synchronized void start(String projectName, String outputFolder, boolean incremental) {
+		clear();
+		active = incremental;
+		if (!active) {
+			return;
+		}
+		IFolder folder = ResourcesPlugin.getWorkspace().getRoot().getFolder(new Path(projectName).append(outputFolder));
+		this.outputFolder = folder;
+		manifestFile = folder.getFile(MANIFEST_FILE_NAME);
+		settings = getSettings(projectName, outputFolder);
+		if (!manifestFile.exists()) {
+			Logger.logInfo("No generation manifest found in " + folder.getFullPath() //$NON-NLS-1$
+					+ ", the whole documentation is generated", null); //$NON-NLS-1$
+			return;
+		}
+		Properties manifest = new Properties();
+		try (InputStream stream = manifestFile.getContents(true)) {
+			manifest.load(stream);
+		} catch (IOException | CoreException e) {
+			Logger.logWarning("The generation manifest can not be read, the whole documentation is generated", e); //$NON-NLS-1$
+			return;
+		}
+		if (!settings.equals(manifest.getProperty(SETTINGS_KEY))) {
+			Logger.logInfo("The generation settings changed, the whole documentation is generated", null); //$NON-NLS-1$
+			return;
+		}
+		for (String id : manifest.stringPropertyNames()) {
+			if (id.startsWith(PAGE_KEY_PREFIX)) {
+				previousPages.put(id.substring(PAGE_KEY_PREFIX.length()), manifest.getProperty(id));
+			} else if (!SETTINGS_KEY.equals(id)) {
+				previous.put(id, manifest.getProperty(id));
+			}
+		}
+	}
+
+	/**
+	 * @return whether the current generation is incremental
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Record the element and tell whether its page can be kept. The page is kept
+	 * when the element, its own structure, the structure of its container
+	 * (sidebar) and its ancestors (breadcrumb) did not change since the previous
+	 * generation. The decision is taken once per element, the next calls return
+	 * it.
+	 *
+	 * @param element
+	 *            the visited element
+	 * @return true if the page of the element does not need to be generated
+	 */
+	public boolean isUpToDate(EObject element) {
+		if (!active) {
+			return false;
+		}
+		Boolean decision = decisions.get(element);
+		if (decision != null) {
+			return decision.booleanValue();
+		}
+		String id = ElementFingerprints.getId(element);
+		String value = fingerprints.getFingerprint(element) + VALUE_SEPARATOR + fingerprints.getStructure(element)
+				+ VALUE_SEPARATOR + fingerprints.getAncestry(element);
+		EObject container = element.eContainer();
+		if (container != null) {
+			value = value + VALUE_SEPARATOR + fingerprints.getStructure(container);
+		}
+		boolean upToDate = value.equals(previous.get(id));
+		decision = decisions.putIfAbsent(element, Boolean.valueOf(upToDate));
+		if (decision != null) {
+			// Another worker decided first and recorded the element
+			return decision.booleanValue();
+		}
+		current.put(id, value);
+		currentPages.put(id, DocGenHtmlUtil.getModelName(element) + '/'
+				+ DocGenHtmlCapellaUtil.SERVICE.getFileName(element) + PAGE_EXTENSION);
+		if (upToDate) {
+			skipped.incrementAndGet();
+		} else {
+			regenerated.incrementAndGet();
+		}
+		return upToDate;
+	}
+
+	/**
+	 * Delete the pages of the removed elements, write the manifest of the
+	 * current generation and release the state.
+	 */
+	public synchronized void finish() {
+		if (active && manifestFile != null) {
+			deleteRemovedPages();
+			Properties manifest = new Properties();
+			manifest.putAll(current);
+			for (Map.Entry<String, String> page : currentPages.entrySet()) {
+				manifest.setProperty(PAGE_KEY_PREFIX + page.getKey(), page.getValue());
+			}
+			manifest.setProperty(SETTINGS_KEY, settings);
+			try {
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				manifest.store(output, null);
+				ByteArrayInputStream input = new ByteArrayInputStream(output.toByteArray());
+				if (manifestFile.exists()) {
+					manifestFile.setContents(input, true, false, new NullProgressMonitor());
+				} else {
+					manifestFile.create(input, true, new NullProgressMonitor());
+				}
+			} catch (IOException | CoreException e) {
+				Logger.logWarning("The generation manifest can not be written, next generation will be a full one", e); //$NON-NLS-1$
+			}
+			Logger.logInfo("Incremental generation: " + skipped.get() + " pages kept, " + regenerated.get() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " pages generated", null); //$NON-NLS-1$
+		}
+		clear();
+	}
+
+	/**
+	 * Delete the page, and the folder of the diagrams, of the elements of the
+	 * previous generation which were not visited by this one. A page still
+	 * written by a visited element is kept.
+	 */
+	private void deleteRemovedPages() {
+		Set<String> pages = new HashSet<String>(currentPages.values());
+		int deleted = 0;
+		for (Map.Entry<String, String> page : previousPages.entrySet()) {
+			String path = page.getValue();
+			if (current.containsKey(page.getKey()) || pages.contains(path) || !path.endsWith(PAGE_EXTENSION)
+					|| path.contains("..")) { //$NON-NLS-1$
+				continue;
+			}
+			IFile file = outputFolder.getFile(path);
+			IFolder diagrams = outputFolder.getFolder(path.substring(0, path.length() - PAGE_EXTENSION.length()));
+			try {
+				if (file.exists()) {
+					file.delete(true, new NullProgressMonitor());
+					deleted++;
+				}
+				if (diagrams.exists()) {
+					diagrams.delete(true, new NullProgressMonitor());
+				}
+			} catch (CoreException e) {
+				Logger.logWarning("The page " + file.getFullPath() + " of a removed element can not be deleted", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		if (deleted > 0) {
+			Logger.logInfo("Incremental generation: " + deleted + " pages of removed elements deleted", null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void clear() {
+		active = false;
+		outputFolder = null;
+		manifestFile = null;
+		settings = null;
+		previous.clear();
+		current.clear();
+		previousPages.clear();
+		currentPages.clear();
+		decisions.clear();
+		fingerprints = new ElementFingerprints();
+		skipped.set(0);
+		regenerated.set(0);
+	}
+
+	/**
+	 * Settings that change the content of every page. A manifest written with
+	 * other settings is stale.
+	 */
+	private String getSettings(String projectName, String outputFolder) {
+		StringBuilder settings = new StringBuilder();
+		settings.append(Activator.getDefault().getBundle().getVersion()).append(VALUE_SEPARATOR);
+		settings.append(projectName).append('/').append(outputFolder).append(VALUE_SEPARATOR);
+		settings.append(CapellaDocgenPreferenceHelper.isExportStatusAndReview());
+		settings.append(CapellaDocgenPreferenceHelper.isExportComponentExchange());
+		settings.append(CapellaDocgenPreferenceHelper.isExportFunctionalExchange());
+		settings.append(CapellaDocgenPreferenceHelper.isExportPhysialLink());
+		settings.append(CapellaDocgenPreferenceHelper.isExportDiagramTree());
+		settings.append(CapellaDocgenPreferenceHelper.isExportAssociation());
+		settings.append(CapellaDocgenPreferenceHelper.isSharedImages());
+		settings.append(CapellaDocgenPreferenceHelper.isLazyProgressOverview());
+		settings.append(CapellaDocgenPreferenceHelper.isSharedFiles());
+		settings.append(CapellaDocgenPreferenceHelper.isSearchIndex());
+		settings.append(DocgenDiagramPreferencesHelper.getExportDiagram()).append(VALUE_SEPARATOR);
+		settings.append(GenerationGlobalScope.getInstance().getScopeStatus());
+		return settings.toString();
+	}
+}
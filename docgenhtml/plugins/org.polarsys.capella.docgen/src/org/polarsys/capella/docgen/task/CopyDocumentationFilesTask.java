@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.egf.core.producer.InvocationException;
+import org.eclipse.egf.ftask.producer.context.ITaskProductionContext;
+import org.eclipse.egf.ftask.producer.invocation.ITaskProduction;
+import org.polarsys.capella.docgen.Activator;
+import org.polarsys.capella.docgen.util.Logger;
+
+/**
+ * Copy the scripts and style sheets of the documentation, the files of
+ * {@value #FILES_FOLDER} in this plug-in, to the output folder. The third party
+ * scripts are unzipped from <code>file/misc.zip</code>.
+ */
+public class CopyDocumentationFilesTask implements ITaskProduction {
+
+	// Contracts names
+	private static final String PROJECT_NAME_CONTRACT = "projectName"; //$NON-NLS-1$
+	private static final String OUTPUT_FOLDER_CONTRACT = "outputFolder"; //$NON-NLS-1$
+
+	/**
+	 * Folder of the files in this plug-in, the files keep their path relative to
+	 * it in the output folder
+	 */
+	public static final String FILES_FOLDER = "file/misc"; //$NON-NLS-1$
+
+	@Override
+	public void preExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+	@Override
+	public void doExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+		String projectName = productionContext.getInputValue(PROJECT_NAME_CONTRACT, String.class);
+		String outputFolder = productionContext.getInputValue(OUTPUT_FOLDER_CONTRACT, String.class);
+		IFolder folder = ResourcesPlugin.getWorkspace().getRoot().getFolder(new Path(projectName).append(outputFolder));
+		IPath location = folder.getLocation();
+		if (location == null) {
+			return;
+		}
+		Set<String> copiedFolders = new HashSet<String>();
+		Enumeration<URL> entries = Activator.getDefault().getBundle().findEntries(FILES_FOLDER, "*", true); //$NON-NLS-1$
+		while (entries != null && entries.hasMoreElements()) {
+			URL entry = entries.nextElement();
+			String path = entry.getPath();
+			int start = path.indexOf(FILES_FOLDER + '/');
+			if (path.endsWith("/") || start < 0) { //$NON-NLS-1$
+				continue;
+			}
+			String relativePath = path.substring(start + FILES_FOLDER.length() + 1);
+			File target = location.append(relativePath).toFile();
+			try (InputStream input = entry.openStream()) {
+				Files.createDirectories(target.getParentFile().toPath());
+				Files.copy(input, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				copiedFolders.add(new Path(relativePath).segment(0));
+			} catch (IOException e) {
+				Logger.logError("The file " + relativePath + " can not be copied to " + location, e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		for (String copiedFolder : copiedFolders) {
+			try {
+				folder.getFolder(copiedFolder).refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor());
+			} catch (CoreException e) {
+				Logger.logWarning("The folder " + copiedFolder + " can not be refreshed", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	@Override
+	public void postExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.task;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.egf.core.producer.InvocationException;
+import org.eclipse.egf.ftask.producer.context.ITaskProductionContext;
+import org.eclipse.egf.ftask.producer.invocation.ITaskProduction;
+import org.polarsys.capella.docgen.diagram.DiagramExportCache;
+import org.polarsys.capella.docgen.diagram.DiagramExportStage;
+import org.polarsys.capella.docgen.diagram.RepresentationIndex;
+import org.polarsys.capella.docgen.util.AssetWriteStage;
+import org.polarsys.capella.docgen.util.ElementIdIndex;
+import org.polarsys.capella.docgen.util.HyperlinkCache;
+import org.polarsys.capella.docgen.util.ImageHelper;
+import org.polarsys.capella.docgen.util.IndexItemCollector;
+import org.polarsys.capella.docgen.util.LinkabilityTable;
+import org.polarsys.capella.docgen.util.SearchIndexWriter;
+import org.polarsys.capella.docgen.util.pattern.helper.ExchangeItemUsageIndex;
+
+/**
+ * Release the caches used during the generation of the documentation.
+ */
+public class DisposeGenerationCachesTask implements ITaskProduction {
+
+	@Override
+	public void preExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+	@Override
+	public void doExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+		disposeCaches();
+	}
+
+	/**
+	 * Release the caches and the threads of the generation, does nothing for the
+	 * caches which are not started.
+	 */
+	public static void disposeCaches() {
+		// The files written in the background may use the other caches
+		AssetWriteStage.INSTANCE.dispose();
+		LinkabilityTable.INSTANCE.dispose();
+		HyperlinkCache.INSTANCE.dispose();
+		ElementIdIndex.INSTANCE.dispose();
+		RepresentationIndex.INSTANCE.dispose();
+		ImageHelper.INSTANCE.disposeIconRegistry();
+		ImageHelper.INSTANCE.disposeImageStore();
+		ImageHelper.INSTANCE.disposeFileStore();
+		ImageHelper.INSTANCE.disposeFileCopy();
+		ExchangeItemUsageIndex.INSTANCE.dispose();
+		IndexItemCollector.INSTANCE.dispose();
+		SearchIndexWriter.INSTANCE.dispose();
+		DiagramExportStage.INSTANCE.dispose();
+		DiagramExportCache.INSTANCE.dispose();
+	}
+
+	@Override
+	public void postExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+}
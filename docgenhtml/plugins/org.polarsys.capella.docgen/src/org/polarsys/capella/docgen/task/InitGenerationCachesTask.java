@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.task;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.egf.core.producer.InvocationException;
+import org.eclipse.egf.ftask.producer.context.ITaskProductionContext;
+import org.eclipse.egf.ftask.producer.invocation.ITaskProduction;
+import org.polarsys.capella.docgen.diagram.DiagramExportCache;
+import org.polarsys.capella.docgen.diagram.DiagramExportStage;
+import org.polarsys.capella.docgen.diagram.RepresentationIndex;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
+import org.polarsys.capella.docgen.util.AssetWriteStage;
+import org.polarsys.capella.docgen.util.ElementIdIndex;
+import org.polarsys.capella.docgen.util.HyperlinkCache;
+import org.polarsys.capella.docgen.util.ImageHelper;
+import org.polarsys.capella.docgen.util.IndexItemCollector;
+import org.polarsys.capella.docgen.util.LinkabilityTable;
+import org.polarsys.capella.docgen.util.SearchIndexWriter;
+import org.polarsys.capella.docgen.util.pattern.helper.ExchangeItemUsageIndex;
+
+/**
+ * Initialize the caches used during the generation of the documentation. The
+ * dispose step does not run when the generation fails, so the caches and the
+ * threads left by a previous generation are released first.
+ */
+public class InitGenerationCachesTask implements ITaskProduction {
+
+	@Override
+	public void preExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+	@Override
+	public void doExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+		// The caches of a generation stopped by a failure were not disposed
+		DisposeGenerationCachesTask.disposeCaches();
+		LinkabilityTable.INSTANCE.start();
+		HyperlinkCache.INSTANCE.start();
+		ElementIdIndex.INSTANCE.start();
+		RepresentationIndex.INSTANCE.start();
+		ImageHelper.INSTANCE.startIconRegistry();
+		ImageHelper.INSTANCE.startImageStore(CapellaDocgenPreferenceHelper.isSharedImages());
+		ImageHelper.INSTANCE.startFileStore(CapellaDocgenPreferenceHelper.isSharedFiles());
+		ImageHelper.INSTANCE.startFileCopy(CapellaDocgenPreferenceHelper.isLinkFiles());
+		AssetWriteStage.INSTANCE.start();
+		ExchangeItemUsageIndex.INSTANCE.start();
+		IndexItemCollector.INSTANCE.start();
+		SearchIndexWriter.INSTANCE.start(CapellaDocgenPreferenceHelper.isSearchIndex());
+		DiagramExportStage.INSTANCE.start(CapellaDocgenPreferenceHelper.getDiagramExportThreads());
+		DiagramExportCache.INSTANCE.start(CapellaDocgenPreferenceHelper.isDiagramCache(),
+				CapellaDocgenPreferenceHelper.getDiagramCacheSize() * 1024L * 1024L);
+	}
+
+	@Override
+	public void postExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+}
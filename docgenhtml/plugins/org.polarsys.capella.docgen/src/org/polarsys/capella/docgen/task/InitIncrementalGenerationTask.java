@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.task;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.egf.core.producer.InvocationException;
+import org.eclipse.egf.ftask.producer.context.ITaskProductionContext;
+import org.eclipse.egf.ftask.producer.invocation.ITaskProduction;
+import org.polarsys.capella.docgen.incremental.IncrementalGeneration;
+
+/**
+ * Load the manifest of the previous generation when the generation is
+ * incremental.
+ */
+public class InitIncrementalGenerationTask implements ITaskProduction {
+
+	// Contracts names
+	private static final String PROJECT_NAME_CONTRACT = "projectName"; //$NON-NLS-1$
+	private static final String OUTPUT_FOLDER_CONTRACT = "outputFolder"; //$NON-NLS-1$
+	private static final String INCREMENTAL_CONTRACT = "incremental"; //$NON-NLS-1$
+
+	@Override
+	public void preExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+	@Override
+	public void doExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+		String projectName = productionContext.getInputValue(PROJECT_NAME_CONTRACT, String.class);
+		String outputFolder = productionContext.getInputValue(OUTPUT_FOLDER_CONTRACT, String.class);
+		Boolean incremental = productionContext.getInputValue(INCREMENTAL_CONTRACT, Boolean.class);
+		IncrementalGeneration.INSTANCE.start(projectName, outputFolder, Boolean.TRUE.equals(incremental));
+	}
+
+	@Override
+	public void postExecute(ITaskProductionContext productionContext, IProgressMonitor monitor)
+			throws InvocationException {
+	}
+
+}
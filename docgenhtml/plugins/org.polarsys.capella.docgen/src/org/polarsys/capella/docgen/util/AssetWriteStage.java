@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.polarsys.capella.docgen.Activator;
+
+/**
+ * Writes the images and the attached files of the descriptions in the
+ * background of the page generation. The name of a written file is computed
+ * by the page, so the page does not change whether the file is written yet or
+ * not. At most {@link #CAPACITY} files are pending, a page submitting more
+ * waits until one of them is written.
+ * <p>
+ * The files are written by {@link #THREADS} threads during a generation, the
+ * end of the generation waits for all of them and logs the failures together.
+ * Outside of a generation a file is written by the calling thread, which gets
+ * the failure.
+ */
+public class AssetWriteStage {
+
+	public static final AssetWriteStage INSTANCE = new AssetWriteStage();
+
+	/**
+	 * Number of threads writing the files
+	 */
+	public static final int THREADS = 4;
+
+	/**
+	 * Maximum number of files submitted and not written yet
+	 */
+	public static final int CAPACITY = 256;
+
+	/**
+	 * The writing of a file.
+	 */
+	public interface WriteJob {
+		void run() throws IOException;
+	}
+
+	private final Semaphore permits = new Semaphore(CAPACITY);
+
+	/**
+	 * Lock of each target file, two files written to the same target are written
+	 * one after the other
+	 */
+	private final Map<String, Object> targetLocks = new ConcurrentHashMap<String, Object>();
+
+	private final Queue<IStatus> failures = new ConcurrentLinkedQueue<IStatus>();
+
+	private final AtomicLong writtenFiles = new AtomicLong();
+
+	private volatile ExecutorService executor;
+
+	private AssetWriteStage() {
+	}
+
+	/**
+	 * Start the writing threads, called when a generation starts.
+	 */
+	public synchronized void start() {
+		shutdownExecutor();
+		final AtomicInteger count = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "Capella docgen asset write " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		targetLocks.clear();
+		failures.clear();
+		writtenFiles.set(0);
+	}
+
+	/**
+	 * Wait for the files submitted, log the failures and release the writing
+	 * threads, called when a generation ends.
+	 */
+	public synchronized void dispose() {
+		if (executor == null) {
+			return;
+		}
+		try {
+			awaitWritten();
+		} catch (InterruptedIOException e) {
+			Logger.logWarning("Asset write: interrupted before all the files were written", e); //$NON-NLS-1$
+		}
+		shutdownExecutor();
+		if (writtenFiles.get() > 0 || !failures.isEmpty()) {
+			Logger.logInfo("Asset write: " + writtenFiles.get() + " files written, " + failures.size() + " failed", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					null);
+		}
+		if (!failures.isEmpty()) {
+			Activator.getDefault().getLog()
+					.log(new MultiStatus(Activator.PLUGIN_ID, IStatus.ERROR, failures.toArray(new IStatus[0]),
+							failures.size() + " files referenced by the descriptions can not be written", null)); //$NON-NLS-1$
+		}
+		targetLocks.clear();
+		failures.clear();
+	}
+
+	/**
+	 * Write a file, in the background during a generation.
+	 *
+	 * @param target
+	 *            path of the file written
+	 * @param errorMessage
+	 *            message of the failure, computed if the job fails
+	 * @param job
+	 *            the writing of the file
+	 * @throws IOException
+	 *             the failure of the job when it is run by the calling thread
+	 */
+	public void submit(final String target, final Supplier<String> errorMessage, final WriteJob job)
+			throws IOException {
+		ExecutorService current = executor;
+		if (current == null) {
+			job.run();
+			return;
+		}
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		try {
+			current.execute(() -> {
+				try {
+					synchronized (targetLocks.computeIfAbsent(target, key -> new Object())) {
+						job.run();
+					}
+					writtenFiles.incrementAndGet();
+				} catch (Exception e) {
+					failures.add(new Status(IStatus.ERROR, Activator.PLUGIN_ID, errorMessage.get(), e));
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			// The generation ended meanwhile
+			permits.release();
+			job.run();
+		}
+	}
+
+	/**
+	 * Wait until the files submitted are written.
+	 */
+	public void awaitWritten() throws InterruptedIOException {
+		try {
+			permits.acquire(CAPACITY);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		permits.release(CAPACITY);
+	}
+
+	/**
+	 * @return the failures of the files submitted since the start of the
+	 *         generation
+	 */
+	public List<IStatus> getFailures() {
+		return List.copyOf(failures);
+	}
+
+	/**
+	 * @return number of files written in the background since the start of the
+	 *         generation
+	 */
+	public long getWrittenFiles() {
+		return writtenFiles.get();
+	}
+
+	private void shutdownExecutor() {
+		ExecutorService current = executor;
+		executor = null;
+		if (current != null) {
+			current.shutdown();
+		}
+	}
+}
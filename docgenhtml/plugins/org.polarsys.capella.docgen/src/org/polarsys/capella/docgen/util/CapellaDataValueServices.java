@@ -48,7 +48,7 @@ public class CapellaDataValueServices {
 
 	private static String getDataValueInformation(DataValue dataValue_p, String projectName, String outputFolder, boolean displayType) {
 		// Initialize the buffer
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append("<div id=\"" + CapellaServices.getAnchorId(dataValue_p) + "\">");
 		buffer.append(CapellaServices.getImageLinkFromElement(dataValue_p, projectName, outputFolder));
 		buffer.append(CapellaServices.SPACE);
@@ -164,7 +164,7 @@ public class CapellaDataValueServices {
 	
 	private static String getOwnedDataValueInformation(DataValue dataValue_p, String projectName, String outputFolder, boolean displayType){
 		// Initialize the buffer
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		
 		if (dataValue_p instanceof UnaryExpression)
 		{
@@ -267,7 +267,7 @@ public class CapellaDataValueServices {
 	 */
 	private static String getSubDataValueInformation(String sectionName, DataValue dataValue_p, 
 													 String projectName, String outputFolder, boolean displayType){
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		
 		if (sectionName != null && false == sectionName.trim().isEmpty())
 		{
@@ -300,7 +300,7 @@ public class CapellaDataValueServices {
 	 */
 	private static String getSubDataValueInformation(String sectionName, EList<DataValue> dataValues_p, 
 													 String projectName, String outputFolder, boolean displayType){
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append(CapellaServices.LI_OPEN);
 		buffer.append(CapellaServices.SPAN_BEGIN_LABEL);
 		buffer.append(sectionName + ": ");
@@ -63,7 +63,7 @@ public class CapellaElementService {
 			TraceableElement targetElement = trace.getTargetElement();
 			if (targetElement instanceof Requirement) {
 				Requirement requirement = (Requirement) targetElement;
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append("<tr>");
 
 				buffer.append("<td>");
@@ -97,7 +97,7 @@ public class CapellaElementService {
 		for (AbstractTrace currentAbstractTrace : element.getOutgoingTraces()) {
 			if (currentAbstractTrace instanceof Allocation && isSuperLayer(element, ((Allocation) currentAbstractTrace).getTargetElement())) {
 
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				TraceableElement traceableElement = ((Allocation) currentAbstractTrace).getTargetElement();
 				if (traceableElement != null) {
 					buffer.append(CapellaServices.getImageLinkFromElement(traceableElement, projectName, outputFolder));
@@ -114,7 +114,7 @@ public class CapellaElementService {
 		Collection<String> ret = new ArrayList<String>();
 		for (AbstractTrace currentAbstractTrace : element.getIncomingTraces()) {
 			if (currentAbstractTrace instanceof Allocation && isLowerLayer(element, ((Allocation) currentAbstractTrace).getSourceElement())) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				TraceableElement traceableElement = ((Allocation) currentAbstractTrace).getSourceElement();
 				if (traceableElement != null) {
 					buffer.append(CapellaServices.getImageLinkFromElement(traceableElement, projectName, outputFolder));
@@ -154,11 +154,7 @@ public class CapellaFunctionServices {
 	public static Collection<String> getAvailableModeAndState(String projectName, String outputFolder, AbstractFunction abstractFunction) {
 		Collection<String> ret = new ArrayList<String>();
 		for (State currentStateMode : abstractFunction.getAvailableInStates()) {
-			StringBuffer buffer = new StringBuffer();
-			buffer.append(CapellaServices.getImageLinkFromElement(currentStateMode, projectName, outputFolder));
-			buffer.append(" ");
-			buffer.append(CapellaServices.getHyperlinkFromElement(currentStateMode));
-			ret.add(buffer.toString());
+			ret.add(CapellaServices.buildHyperlinkWithIcon(projectName, outputFolder, currentStateMode));
 		}
 		return ret;
 	}
@@ -257,7 +253,7 @@ public class CapellaFunctionServices {
 	}
 
 	private static String functionalExchangeToTableLine(FunctionalExchange functionalExchange, boolean external, boolean incoming, String projectName, String outputFolder) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		CapellaElement distantPort = incoming ? functionalExchange.getSourceFunctionOutputPort() : functionalExchange.getTargetFunctionInputPort();
 
 		if (distantPort != null) {
@@ -380,7 +376,7 @@ public class CapellaFunctionServices {
 	 */
 	private static String interactionToTableLine(FunctionalExchange activityEdge, boolean external, boolean incoming, boolean showBothSourceAndTarget, String projectName,
 			String outputFolder) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 
 		buffer.append("<tr>");
 
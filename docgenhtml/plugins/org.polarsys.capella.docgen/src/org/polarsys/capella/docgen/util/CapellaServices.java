@@ -16,15 +16,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.osgi.util.NLS;
-import org.eclipse.sirius.business.api.dialect.DialectManager;
-import org.eclipse.sirius.business.api.session.Session;
-import org.eclipse.sirius.business.api.session.SessionManager;
 import org.eclipse.sirius.diagram.DSemanticDiagram;
 import org.eclipse.sirius.viewpoint.DRepresentation;
 import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
@@ -35,6 +31,7 @@ import org.polarsys.capella.core.data.interaction.CombinedFragment;
 import org.polarsys.capella.core.data.interaction.InteractionOperand;
 import org.polarsys.capella.core.data.requirement.RequirementsPkg;
 import org.polarsys.capella.docgen.Messages;
+import org.polarsys.capella.docgen.diagram.RepresentationIndex;
 import org.polarsys.kitalpha.doc.gen.business.core.scope.GenerationGlobalScope;
 import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
 import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlUtil;
@@ -215,11 +212,13 @@ public class CapellaServices {
 	 * @return
 	 */
 	public static String getHyperlinkFromElement(EObject element) {
-		return getHyperlinkFromElement(element, CapellaLabelProviderHelper.getText(element));
+		return HyperlinkCache.INSTANCE.get(element, HyperlinkCache.Kind.HYPERLINK,
+				e -> getHyperlinkFromElement(e, CapellaLabelProviderHelper.getText(e)));
 	}
 	
 	public static String getIndexHyperlinkFromElement(EObject element) {
-		return getIndexHyperlinkFromElement(element, CapellaLabelProviderHelper.getText(element));
+		return HyperlinkCache.INSTANCE.get(element, HyperlinkCache.Kind.INDEX_HYPERLINK,
+				e -> getIndexHyperlinkFromElement(e, CapellaLabelProviderHelper.getText(e)));
 	}
 
 	public static boolean isElementLinkable(EObject element) {
@@ -232,6 +231,10 @@ public class CapellaServices {
 	 * @return 0 if element has page, 1 if parent element has page, otherwise -1
 	 */
 	public static int isLinkable(EObject element) {
+		return LinkabilityTable.INSTANCE.getLinkable(element, CapellaServices::computeLinkable);
+	}
+
+	private static int computeLinkable(EObject element) {
 		if ((! GenerationGlobalScope.getInstance().inScope(element, true)) || !(element instanceof CapellaElement))
 			return -1;
 		
@@ -271,6 +274,10 @@ public class CapellaServices {
 	}
 
 	public static String getPathFromElement(EObject element) {
+		return HyperlinkCache.INSTANCE.get(element, HyperlinkCache.Kind.PATH, CapellaServices::computePathFromElement);
+	}
+
+	private static String computePathFromElement(EObject element) {
 		StringBuilder stringBuilder = new StringBuilder();
 		stringBuilder.append(PATH_OPEN);
 		// Add the project root resource to the buffer
@@ -290,6 +297,11 @@ public class CapellaServices {
 	 * @return the path of the element to be reachable from the index
 	 */
 	public static String getIndexPathFromElement(EObject element) {
+		return HyperlinkCache.INSTANCE.get(element, HyperlinkCache.Kind.INDEX_PATH,
+				CapellaServices::computeIndexPathFromElement);
+	}
+
+	private static String computeIndexPathFromElement(EObject element) {
 		StringBuilder stringBuilder = new StringBuilder();
 		stringBuilder.append(PATH_OPEN).append(PATH_OPEN); //Index is located one level deeper
 		// Add the project root resource to the buffer
@@ -328,7 +340,8 @@ public class CapellaServices {
 	}
 
 	public static String getAnchorId(EObject element) {
-		return "id" + EcoreUtil.getURI(element).fragment();
+		return HyperlinkCache.INSTANCE.get(element, HyperlinkCache.Kind.ANCHOR,
+				e -> "id" + EcoreUtil.getURI(e).fragment());
 	}
 
 	/**
@@ -494,12 +507,22 @@ public class CapellaServices {
 
 	public static String buildHyperlinkWithIcon(String projectName, String outputFolder, EObject object) {
 		StringBuilder hyperLinkStringBuilder = new StringBuilder();
-		hyperLinkStringBuilder.append(getImageLinkFromElement(object, projectName, outputFolder));
-		hyperLinkStringBuilder.append(" "); //$NON-NLS-1$
-		hyperLinkStringBuilder.append(getHyperlinkFromElement(object));
+		appendHyperlinkWithIcon(hyperLinkStringBuilder, projectName, outputFolder, object);
 		return hyperLinkStringBuilder.toString();
 	}
 
+	/**
+	 * Append the icon and the hyperlink of <code>object</code> to
+	 * <code>builder</code>, see
+	 * {@link #buildHyperlinkWithIcon(String, String, EObject)}
+	 */
+	public static void appendHyperlinkWithIcon(StringBuilder builder, String projectName, String outputFolder,
+			EObject object) {
+		builder.append(getImageLinkFromElement(object, projectName, outputFolder));
+		builder.append(" "); //$NON-NLS-1$
+		builder.append(getHyperlinkFromElement(object));
+	}
+
 	public static String buildNameWithIcon(String projectName, String outputFolder, CapellaElement object) {
 		StringBuilder hyperLinkStringBuilder = new StringBuilder();
 		hyperLinkStringBuilder.append(getImageLinkFromElement(object, projectName, outputFolder));
@@ -555,10 +578,9 @@ public class CapellaServices {
 	public static EObject getRepresentationTarget(DRepresentation representation) {
 		EObject target = ((DSemanticDiagram) representation).getTarget();
 		if (target == null) {
-			Session session = SessionManager.INSTANCE.getSession(representation);
-			Optional<DRepresentationDescriptor> optDesc = DialectManager.INSTANCE.getAllRepresentationDescriptors(session).stream().filter(repDesc -> repDesc.getRepresentation().equals(representation)).findFirst();
-			if (optDesc.isPresent()) {
-				target = optDesc.get().getTarget();
+			DRepresentationDescriptor descriptor = RepresentationIndex.INSTANCE.getDescriptor(representation);
+			if (descriptor != null) {
+				target = descriptor.getTarget();
 			}
 		}
 		if (target == null) {
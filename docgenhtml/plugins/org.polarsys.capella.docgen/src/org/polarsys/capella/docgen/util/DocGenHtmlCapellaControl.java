@@ -68,6 +68,16 @@ public class DocGenHtmlCapellaControl {
 	 * @return
 	 */
 	public static boolean isPageCandidate(CapellaElement element) {
+		return LinkabilityTable.INSTANCE.isPageCandidate(element,
+				e -> LinkabilityTable.INSTANCE.isPageCandidateType(element.eClass(), c -> isPageCandidateType(element))
+						|| PageExtensionRegistry.getInstance().isPageCandidate(element, "capella"));
+	}
+
+	/**
+	 * The result only depends on the type of the element and on the preferences,
+	 * it is the same for all the elements of an EClass during a generation.
+	 */
+	private static boolean isPageCandidateType(CapellaElement element) {
 
 		// Include these elements
 		return (
@@ -100,8 +110,7 @@ public class DocGenHtmlCapellaControl {
 				|| (element instanceof FunctionalExchange 	&& CapellaDocgenPreferenceHelper.isExportFunctionalExchange())
 				|| (element instanceof ComponentExchange 	&& CapellaDocgenPreferenceHelper.isExportComponentExchange())
 				|| (element instanceof PhysicalLink 		&& CapellaDocgenPreferenceHelper.isExportPhysialLink()))
-		        || (element instanceof Association          && CapellaDocgenPreferenceHelper.isExportAssociation())
-				|| PageExtensionRegistry.getInstance().isPageCandidate(element, "capella");
+		        || (element instanceof Association          && CapellaDocgenPreferenceHelper.isExportAssociation());
 	}
 
 	/**
@@ -70,12 +70,7 @@ public class DocGenHtmlCapellaUtil {
 	 * @return
 	 */
 	public static String getCapellaElementRootFileName(CapellaElement element) {
-
-		StringBuffer buffer = new StringBuffer();
-
-		buffer.append(element.getId());
-
-		return DocGenHtmlUtil.getValidFileName(buffer.toString());
+		return DocGenHtmlUtil.getValidFileName(String.valueOf(element.getId()));
 	}
 
 	/**
@@ -86,7 +81,7 @@ public class DocGenHtmlCapellaUtil {
 	 */
 	public static String getCapellaElementFileName(CapellaElement element) {
 
-		StringBuffer buffer = new StringBuffer(getCapellaElementRootFileName(element));
+		StringBuilder buffer = new StringBuilder(getCapellaElementRootFileName(element));
 		buffer.append(DocGenHtmlConstants.DOT_CHARACTER).append(DocGenHtmlConstants.HTML_FILE_EXTENSION);
 
 		return buffer.toString();
@@ -101,11 +96,8 @@ public class DocGenHtmlCapellaUtil {
 	public static String getNamedElementRootFileName(CapellaElement element) {
 
 		NamedElement namedElement = ((NamedElement) element);
-		StringBuffer buffer = new StringBuffer();
-
-		buffer.append(namedElement.getId());
 
-		return DocGenHtmlUtil.getValidFileName(buffer.toString());
+		return DocGenHtmlUtil.getValidFileName(String.valueOf(namedElement.getId()));
 	}
 
 	/**
@@ -116,7 +108,7 @@ public class DocGenHtmlCapellaUtil {
 	 */
 	public static String getNamedElementFileName(CapellaElement element) {
 
-		StringBuffer buffer = new StringBuffer(getNamedElementRootFileName(element));
+		StringBuilder buffer = new StringBuilder(getNamedElementRootFileName(element));
 		buffer.append(DocGenHtmlConstants.DOT_CHARACTER).append(DocGenHtmlConstants.HTML_FILE_EXTENSION);
 
 		return buffer.toString();
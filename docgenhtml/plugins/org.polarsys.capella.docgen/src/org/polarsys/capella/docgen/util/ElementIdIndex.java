@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.sirius.business.api.session.resource.AirdResource;
+import org.polarsys.capella.core.data.capellamodeller.util.CapellamodellerResourceImpl;
+import org.polarsys.capella.shared.id.handler.IScope;
+import org.polarsys.capella.shared.id.handler.IdManager;
+
+/**
+ * Resolution of the element ids of the hlink:// links of the descriptions.
+ * During a generation, the elements of the Capella and aird resources of a
+ * resource set are indexed by id in one traversal, the first time an element
+ * is not found in the resource of the description. The ids which are not
+ * indexed, such as fragment paths, are searched once: the elements found are
+ * added to the index and the ids not resolved are remembered. Outside of a
+ * generation the resources are searched on each resolution.
+ */
+public class ElementIdIndex {
+
+	public static final ElementIdIndex INSTANCE = new ElementIdIndex();
+
+	private volatile boolean active;
+
+	private final Map<ResourceSet, Index> indexes = new ConcurrentHashMap<ResourceSet, Index>();
+
+	private final AtomicLong resolutions = new AtomicLong();
+
+	private final AtomicLong unresolved = new AtomicLong();
+
+	private final AtomicLong duration = new AtomicLong();
+
+	private ElementIdIndex() {
+	}
+
+	/**
+	 * Start indexing the elements, called when a generation starts.
+	 */
+	public void start() {
+		clear();
+		active = true;
+	}
+
+	/**
+	 * Release the indexes, called when a generation ends.
+	 */
+	public void dispose() {
+		if (active && resolutions.get() > 0) {
+			Logger.logInfo("Element links: " + resolutions.get() + " resolved in " + duration.get() / 1000000 //$NON-NLS-1$ //$NON-NLS-2$
+					+ " ms, " + unresolved.get() + " unresolved", null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		active = false;
+		clear();
+	}
+
+	/**
+	 * @return number of ids resolved, or not, since the generation started
+	 */
+	public long getResolutions() {
+		return resolutions.get();
+	}
+
+	/**
+	 * @return number of ids not resolved since the generation started
+	 */
+	public long getUnresolved() {
+		return unresolved.get();
+	}
+
+	/**
+	 * Look for the element in the resource of <code>context</code>, then in the
+	 * Capella and aird resources of its resource set, then with the Capella id
+	 * handlers.
+	 *
+	 * @param context element whose description holds the link
+	 * @param id      id of the linked element
+	 * @return the linked element, null if it is not found
+	 */
+	public EObject resolve(EObject context, String id) {
+		long start = System.nanoTime();
+		Resource resource = context.eResource();
+		EObject eObject = resource.getEObject(id);
+		// If the object is not found in the current resource, we look for
+		// it in all loaded resources of the ResourceSet
+		if (eObject == null) {
+			ResourceSet rs = resource.getResourceSet();
+			if (active) {
+				eObject = indexes.computeIfAbsent(rs, this::createIndex).resolve(id);
+			} else {
+				eObject = resolveInResourceSet(rs, id);
+			}
+		}
+
+		resolutions.incrementAndGet();
+		if (eObject == null) {
+			unresolved.incrementAndGet();
+		}
+		duration.addAndGet(System.nanoTime() - start);
+		return eObject;
+	}
+
+	/**
+	 * Look for the element in the Capella and aird resources of the resource
+	 * set, then with the Capella id handlers.
+	 */
+	private EObject resolveInResourceSet(final ResourceSet rs, String id) {
+		EObject eObject = searchResources(rs, id);
+
+		// If the object is still not found, so we use the Capella API.
+		if (eObject == null) {
+			eObject = IdManager.getInstance().getEObject(id, new IScope() {
+				@Override
+				public List<Resource> getResources() {
+					return rs.getResources();
+				}
+			});
+		}
+		return eObject;
+	}
+
+	private EObject searchResources(ResourceSet rs, String id) {
+		for (Resource iResource : new ArrayList<Resource>(rs.getResources())) {
+			if (isIndexed(iResource)) {
+				EObject eObject = iResource.getEObject(id);
+				if (eObject != null) {
+					return eObject;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Index the elements by id, the first element of the first resource wins as
+	 * in {@link #searchResources(ResourceSet, String)}
+	 */
+	private Index createIndex(ResourceSet rs) {
+		Map<String, EObject> index = new HashMap<String, EObject>();
+		for (Resource iResource : new ArrayList<Resource>(rs.getResources())) {
+			if (isIndexed(iResource)) {
+				for (TreeIterator<EObject> it = iResource.getAllContents(); it.hasNext();) {
+					EObject eObject = it.next();
+					String id = EcoreUtil.getID(eObject);
+					if (id != null) {
+						index.putIfAbsent(id, eObject);
+					}
+				}
+			}
+		}
+		return new Index(rs, index);
+	}
+
+	private boolean isIndexed(Resource resource) {
+		return resource instanceof CapellamodellerResourceImpl || resource instanceof AirdResource;
+	}
+
+	/**
+	 * Elements of a resource set by id, with the ids resolved or not resolved
+	 * after the traversal.
+	 */
+	private class Index {
+
+		private final ResourceSet resourceSet;
+
+		private final Map<String, EObject> elements;
+
+		/**
+		 * Ids resolved by a search of the resources, such as fragment paths
+		 */
+		private final Map<String, EObject> searched = new ConcurrentHashMap<String, EObject>();
+
+		/**
+		 * Ids which are not resolved
+		 */
+		private final Set<String> misses = ConcurrentHashMap.newKeySet();
+
+		Index(ResourceSet resourceSet, Map<String, EObject> elements) {
+			this.resourceSet = resourceSet;
+			this.elements = elements;
+		}
+
+		EObject resolve(String id) {
+			EObject eObject = elements.get(id);
+			if (eObject == null) {
+				eObject = searched.get(id);
+			}
+			if (eObject == null && !misses.contains(id)) {
+				eObject = resolveInResourceSet(resourceSet, id);
+				if (eObject == null) {
+					misses.add(id);
+				} else {
+					searched.putIfAbsent(id, eObject);
+				}
+			}
+			return eObject;
+		}
+	}
+
+	private void clear() {
+		indexes.clear();
+		resolutions.set(0);
+		unresolved.set(0);
+		duration.set(0);
+	}
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Decodes the text of an HTML attribute value, as read from a description, the
+ * way an HTML parser renders it in the body of a document: the named character
+ * references of HTML5 and the numeric character references are replaced by
+ * their characters, whitespace sequences are collapsed to one space and the
+ * result is trimmed. Percent-escapes are left as is.
+ */
+public final class HtmlEntityDecoder {
+
+	private static final String ENTITIES_FILE = "html5-entities.properties"; //$NON-NLS-1$
+
+	private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+	/**
+	 * Characters of the numeric references from 0x80 to 0x9F, read as
+	 * windows-1252 characters
+	 */
+	private static final char[] WINDOWS_1252 = { '\u20AC', '\u0081', '\u201A', '\u0192', '\u201E', '\u2026', '\u2020',
+			'\u2021', '\u02C6', '\u2030', '\u0160', '\u2039', '\u0152', '\u008D', '\u017D', '\u008F', '\u0090',
+			'\u2018', '\u2019', '\u201C', '\u201D', '\u2022', '\u2013', '\u2014', '\u02DC', '\u2122', '\u0161',
+			'\u203A', '\u0153', '\u009D', '\u017E', '\u0178' };
+
+	/**
+	 * Named character references, loaded on first use
+	 */
+	private static class Entities {
+
+		private static final Map<String, String> TABLE = load();
+
+		private static final int MAX_NAME_LENGTH = getMaxNameLength();
+
+		private static Map<String, String> load() {
+			Properties properties = new Properties();
+			try (InputStream stream = HtmlEntityDecoder.class.getResourceAsStream(ENTITIES_FILE)) {
+				properties.load(stream);
+			} catch (IOException | NullPointerException e) {
+				Logger.logError("HTML entities can not be read, named character references are not decoded", e); //$NON-NLS-1$
+				return Collections.emptyMap();
+			}
+			Map<String, String> table = new HashMap<String, String>(properties.size() * 2);
+			for (String name : properties.stringPropertyNames()) {
+				table.put(name, properties.getProperty(name));
+			}
+			return table;
+		}
+
+		private static int getMaxNameLength() {
+			int max = 0;
+			for (String name : TABLE.keySet()) {
+				max = Math.max(max, name.length());
+			}
+			return max;
+		}
+	}
+
+	private HtmlEntityDecoder() {
+	}
+
+	/**
+	 * @param text
+	 *            text to decode, may be null
+	 * @return the decoded text, <code>text</code> itself when there is nothing to
+	 *         decode
+	 */
+	public static String decode(String text) {
+		if (text == null || !needsDecoding(text)) {
+			return text;
+		}
+		int length = text.length();
+		StringBuilder result = new StringBuilder(length);
+		boolean whitespace = false;
+		int i = 0;
+		while (i < length) {
+			char c = text.charAt(i);
+			if (isWhitespace(c)) {
+				whitespace = true;
+				i++;
+				continue;
+			}
+			if (whitespace) {
+				result.append(' ');
+				whitespace = false;
+			}
+			if (c == '&') {
+				i = appendReference(text, i, result);
+			} else {
+				result.append(c);
+				i++;
+			}
+		}
+		return result.toString().trim();
+	}
+
+	private static boolean needsDecoding(String text) {
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '&') {
+				return true;
+			}
+			if (c <= ' ' && (c != ' ' || i == 0 || i == length - 1 || text.charAt(i + 1) <= ' ')) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
+	private static boolean isNameCharacter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * Append the character(s) of the reference starting at <code>start</code>, or
+	 * the ampersand when there is no reference.
+	 *
+	 * @return the index following the reference
+	 */
+	private static int appendReference(String text, int start, StringBuilder result) {
+		int length = text.length();
+		int i = start + 1;
+		if (i < length && text.charAt(i) == '#') {
+			return appendNumericReference(text, start, result);
+		}
+		int end = i;
+		while (end < length && end - i < Entities.MAX_NAME_LENGTH && isNameCharacter(text.charAt(end))) {
+			end++;
+		}
+		if (end > i) {
+			if (end < length && text.charAt(end) == ';') {
+				String value = Entities.TABLE.get(text.substring(i, end + 1));
+				if (value != null) {
+					result.append(value);
+					return end + 1;
+				}
+			}
+			// Legacy references are recognized without semicolon, the longest one wins
+			for (int prefixEnd = end; prefixEnd > i; prefixEnd--) {
+				String value = Entities.TABLE.get(text.substring(i, prefixEnd));
+				if (value != null) {
+					result.append(value);
+					return prefixEnd;
+				}
+			}
+		}
+		result.append('&');
+		return start + 1;
+	}
+
+	private static int appendNumericReference(String text, int start, StringBuilder result) {
+		int length = text.length();
+		int i = start + 2;
+		int radix = 10;
+		if (i < length && (text.charAt(i) == 'x' || text.charAt(i) == 'X')) {
+			radix = 16;
+			i++;
+		}
+		int digitsStart = i;
+		long codePoint = 0;
+		while (i < length && Character.digit(text.charAt(i), radix) >= 0) {
+			if (codePoint <= Character.MAX_CODE_POINT) {
+				codePoint = codePoint * radix + Character.digit(text.charAt(i), radix);
+			}
+			i++;
+		}
+		if (i == digitsStart) {
+			result.append('&');
+			return start + 1;
+		}
+		if (i < length && text.charAt(i) == ';') {
+			i++;
+		}
+		if (codePoint == 0 || codePoint > Character.MAX_CODE_POINT
+				|| (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+			result.append(REPLACEMENT_CHARACTER);
+		} else if (codePoint >= 0x80 && codePoint <= 0x9F) {
+			result.append(WINDOWS_1252[(int) codePoint - 0x80]);
+		} else {
+			result.appendCodePoint((int) codePoint);
+		}
+		return i;
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Hyperlinks, paths and anchors of the elements rendered during the current
+ * generation. The strings of the least recently used elements are released
+ * when more than {@link #MAX_SIZE} elements are kept. Outside of a generation
+ * nothing is kept.
+ */
+public class HyperlinkCache {
+
+	/**
+	 * Kind of string kept for an element
+	 */
+	enum Kind {
+		HYPERLINK, INDEX_HYPERLINK, PATH, INDEX_PATH, ANCHOR
+	}
+
+	public static final HyperlinkCache INSTANCE = new HyperlinkCache();
+
+	/**
+	 * Maximum number of elements whose strings are kept
+	 */
+	public static final int MAX_SIZE = 100000;
+
+	private static final int KINDS = Kind.values().length;
+
+	private volatile boolean active;
+
+	private final Map<EObject, String[]> entries = new LinkedHashMap<EObject, String[]>(1024, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<EObject, String[]> eldest) {
+			if (size() > MAX_SIZE) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private HyperlinkCache() {
+	}
+
+	/**
+	 * Start keeping the strings, called when a generation starts.
+	 */
+	public void start() {
+		clear();
+		active = true;
+	}
+
+	/**
+	 * Stop keeping the strings and release them, called when a generation ends.
+	 */
+	public void dispose() {
+		if (active && hits.get() + misses.get() > 0) {
+			Logger.logInfo("Hyperlink cache: " + hits.get() + " strings reused, " + misses.get() + " computed, " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ evictions.get() + " elements released", null); //$NON-NLS-1$
+		}
+		active = false;
+		clear();
+	}
+
+	/**
+	 * @return number of strings given by the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of strings computed
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * The computation is done outside of the lock, it may itself use the cache.
+	 */
+	String get(EObject element, Kind kind, Function<EObject, String> computation) {
+		if (!active || element == null) {
+			return computation.apply(element);
+		}
+		synchronized (entries) {
+			String[] strings = entries.get(element);
+			if (strings != null && strings[kind.ordinal()] != null) {
+				hits.incrementAndGet();
+				return strings[kind.ordinal()];
+			}
+		}
+		misses.incrementAndGet();
+		String value = computation.apply(element);
+		synchronized (entries) {
+			String[] strings = entries.get(element);
+			if (strings == null) {
+				strings = new String[KINDS];
+				entries.put(element, strings);
+			}
+			strings[kind.ordinal()] = value;
+		}
+		return value;
+	}
+
+	private void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+}
@@ -13,14 +13,34 @@ package org.polarsys.capella.docgen.util;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.bind.DatatypeConverter;
 
@@ -40,7 +60,6 @@ import org.eclipse.egf.common.helper.FileHelper;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageLoader;
 import org.polarsys.capella.core.ui.resources.CapellaUIResourcesPlugin;
@@ -60,10 +79,335 @@ public class ImageHelper {
 	private static final String BASE64_POSTFIX = ";base64";
 	private static final String ERROR_IMAGE_DATA_FORMAT = "Error while interpreting image data format: {0}";
 	private static final String ERROR_IMAGE_DATA_WRITE = "Error while writing image data to file: {0}";
+	private static final String SHARED_IMAGES_FOLDER = "sha256/";
+	private static final String SHARED_IMAGES_ALGORITHM = "SHA-256";
+	private static final String SHARED_FILES_FOLDER = "shared/";
+	private static final int SHARED_FILE_HASH_LENGTH = 16;
+
+	/**
+	 * Number of threads copying the files, the copies wait for the disks more
+	 * than for the processors
+	 */
+	private static final int COPY_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * File names of the icons written during the current generation, by icon
+	 * folder and customized image name
+	 */
+	private final Map<String, String> iconFileNames = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Icon folders wherein icons were written during the current generation
+	 */
+	private final Set<IFolder> iconFoldersToRefresh = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean iconRegistryActive;
+
+	/**
+	 * Paths of the shared images written during the current generation
+	 */
+	private final Set<String> sharedImageFiles = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean sharedImages;
+
+	/**
+	 * Path of the shared copy of each linked file, by canonical path, last
+	 * modification time and size of the file
+	 */
+	private final Map<String, String> sharedFilePaths = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Shared copies requested during the current generation
+	 */
+	private final Set<String> sharedFiles = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean sharedFileStore;
+
+	/**
+	 * Threads copying the files of the companion folders during the current
+	 * generation
+	 */
+	private volatile ExecutorService copyExecutor;
+
+	private volatile boolean linkFiles;
+
+	private final AtomicLong copiedFiles = new AtomicLong();
+
+	private final AtomicLong linkedFiles = new AtomicLong();
+
+	private final AtomicLong copiedBytes = new AtomicLong();
+
+	/**
+	 * Start of the first copy and end of the last copy of the generation, in
+	 * nanoseconds, 0 before the first copy. The copies run in several threads.
+	 */
+	private final AtomicLong firstCopyStart = new AtomicLong();
+
+	private final AtomicLong lastCopyEnd = new AtomicLong();
 
 	private ImageHelper() {
 	}
 
+	/**
+	 * Start keeping the icons written, called when a generation starts. Each icon
+	 * is then written at most once and the icon folders are refreshed when the
+	 * generation ends.
+	 */
+	public void startIconRegistry() {
+		iconFileNames.clear();
+		iconFoldersToRefresh.clear();
+		iconRegistryActive = true;
+	}
+
+	/**
+	 * Refresh the icon folders wherein icons were written and release the
+	 * registry, called when a generation ends.
+	 */
+	public void disposeIconRegistry() {
+		iconRegistryActive = false;
+		for (IFolder iconFolder : iconFoldersToRefresh) {
+			refreshIconFolder(iconFolder);
+		}
+		iconFileNames.clear();
+		iconFoldersToRefresh.clear();
+	}
+
+	/**
+	 * Start the image store, called when a generation starts. When images are
+	 * shared, each image of the descriptions is written once in the
+	 * {@value #SHARED_IMAGES_FOLDER} folder, named after the hash of its content,
+	 * and all the pages link to this file.
+	 * 
+	 * @param shared whether identical images are shared
+	 */
+	public void startImageStore(boolean shared) {
+		sharedImageFiles.clear();
+		sharedImages = shared;
+	}
+
+	/**
+	 * Release the image store, called when a generation ends.
+	 */
+	public void disposeImageStore() {
+		sharedImages = false;
+		sharedImageFiles.clear();
+	}
+
+	/**
+	 * Start the store of the linked files, called when a generation starts. When
+	 * files are shared, a file linked by several elements is copied once in the
+	 * {@value #SHARED_FILES_FOLDER} folder and all the pages link to this copy.
+	 * The copy is in a folder named after the path, the modification time and the
+	 * size of the file, so a file changed since a previous generation gets a new
+	 * copy.
+	 * 
+	 * @param shared whether linked files are shared
+	 */
+	public void startFileStore(boolean shared) {
+		sharedFilePaths.clear();
+		sharedFiles.clear();
+		sharedFileStore = shared;
+	}
+
+	/**
+	 * Release the store of the linked files, called when a generation ends.
+	 */
+	public void disposeFileStore() {
+		sharedFileStore = false;
+		sharedFilePaths.clear();
+		sharedFiles.clear();
+	}
+
+	/**
+	 * @return true when the linked files are shared during the current
+	 *         generation
+	 */
+	public boolean isSharedFiles() {
+		return sharedFileStore;
+	}
+
+	/**
+	 * @param srcFile path of the linked file
+	 * @return the path of the shared copy of the file, relative to the files
+	 *         folder, null if the file can not be read
+	 */
+	public String getSharedFilePath(String srcFile) {
+		final File inputFile = new File(srcFile);
+		if (!inputFile.isFile()) {
+			return null;
+		}
+		String key;
+		try {
+			key = inputFile.getCanonicalPath() + '\n' + inputFile.lastModified() + '\n' + inputFile.length();
+		} catch (IOException e) {
+			return null;
+		}
+		return sharedFilePaths.computeIfAbsent(key,
+				k -> SHARED_FILES_FOLDER
+						+ getContentHash(k.getBytes(StandardCharsets.UTF_8)).substring(0, SHARED_FILE_HASH_LENGTH) + "/"
+						+ inputFile.getName());
+	}
+
+	/**
+	 * @param sharedFilePath path of the shared copy of a file
+	 * @return true the first time the copy is requested during the generation,
+	 *         the caller then copies the file
+	 */
+	public boolean addSharedFile(String sharedFilePath) {
+		return sharedFiles.add(sharedFilePath);
+	}
+
+	/**
+	 * Start copying the attached files, called when a generation starts. The
+	 * files of the companion folders are copied by a thread per processor, at
+	 * least two. When files are linked, a file is hard linked to its source if
+	 * both are on the same file system and copied otherwise.
+	 * 
+	 * @param link whether the files are hard linked instead of copied
+	 */
+	public synchronized void startFileCopy(boolean link) {
+		shutdownCopyExecutor();
+		final AtomicInteger count = new AtomicInteger();
+		copyExecutor = Executors.newFixedThreadPool(COPY_THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "Capella docgen file copy " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		linkFiles = link;
+		copiedFiles.set(0);
+		linkedFiles.set(0);
+		copiedBytes.set(0);
+		firstCopyStart.set(0);
+		lastCopyEnd.set(0);
+	}
+
+	/**
+	 * Log the files copied and release the copy threads, called when a generation
+	 * ends.
+	 */
+	public synchronized void disposeFileCopy() {
+		if (copiedFiles.get() + linkedFiles.get() > 0) {
+			Logger.logInfo("File copy: " + copiedFiles.get() + " files copied (" + copiedBytes.get() + " bytes), " //$NON-NLS-1$ //$NON-NLS-2$
+					+ linkedFiles.get() + " files linked in " + (lastCopyEnd.get() - firstCopyStart.get()) / 1000000 //$NON-NLS-1$
+					+ " ms", null); //$NON-NLS-1$
+		}
+		linkFiles = false;
+		shutdownCopyExecutor();
+	}
+
+	private void shutdownCopyExecutor() {
+		ExecutorService current = copyExecutor;
+		copyExecutor = null;
+		if (current != null) {
+			current.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return number of files copied since the start of the generation
+	 */
+	public long getCopiedFiles() {
+		return copiedFiles.get();
+	}
+
+	/**
+	 * @return number of files hard linked since the start of the generation
+	 */
+	public long getLinkedFiles() {
+		return linkedFiles.get();
+	}
+
+	/**
+	 * @return number of bytes copied since the start of the generation
+	 */
+	public long getCopiedBytes() {
+		return copiedBytes.get();
+	}
+
+	/**
+	 * @return true when the images of the descriptions are shared during the
+	 *         current generation
+	 */
+	public boolean isSharedImages() {
+		return sharedImages;
+	}
+
+	/**
+	 * Copy the image to the shared images of the target folder, unless an image
+	 * with the same content is already there.
+	 * 
+	 * @param srcFile          path of the image
+	 * @param targetFolderPath path of the images folder
+	 * @return the path of the shared image, relative to the images folder, null
+	 *         if the image can not be read
+	 */
+	public String copyProjectImageToSharedLocation(String srcFile, String targetFolderPath) throws IOException {
+		File inputFile = new File(srcFile);
+		if (!inputFile.isFile()) {
+			return null;
+		}
+		String extension = srcFile.substring(srcFile.lastIndexOf('.') + 1).toLowerCase();
+		return writeSharedImage(Files.readAllBytes(inputFile.toPath()), extension, targetFolderPath);
+	}
+
+	/**
+	 * Write the image content once in the shared images of the target folder.
+	 * 
+	 * @return the path of the shared image, relative to the images folder
+	 */
+	private String writeSharedImage(byte[] content, String extension, String targetFolderPath) throws IOException {
+		String sharedImageFileName = SHARED_IMAGES_FOLDER + getContentHash(content) + "." + extension;
+		String targetFilePath = targetFolderPath + sharedImageFileName;
+		if (sharedImageFiles.add(targetFilePath)) {
+			final File imageFile = new File(targetFilePath);
+			// The name is given by the content, a file of a previous generation is kept
+			if (!imageFile.isFile()) {
+				try {
+					submitImage(imageFile, content);
+				} catch (IOException e) {
+					sharedImageFiles.remove(targetFilePath);
+					throw e;
+				}
+			}
+		}
+		return sharedImageFileName;
+	}
+
+	/**
+	 * Create the image file and write its content, in the background during a
+	 * generation. The file is created by the calling thread so the page gets the
+	 * failures to create it, only the writing of the content is deferred.
+	 */
+	private void submitImage(final File imageFile, final byte[] content) throws IOException {
+		createFoldersHierarchy(imageFile);
+		final OutputStream outputStream = new FileOutputStream(imageFile);
+		try {
+			AssetWriteStage.INSTANCE.submit(imageFile.getPath(),
+					() -> MessageFormat.format(ERROR_IMAGE_DATA_WRITE, imageFile.getPath()), () -> {
+						try (OutputStream bufferedStream = new BufferedOutputStream(outputStream)) {
+							bufferedStream.write(content);
+						} catch (IOException e) {
+							imageFile.delete();
+							throw e;
+						}
+					});
+		} catch (IOException e) {
+			outputStream.close();
+			imageFile.delete();
+			throw e;
+		}
+	}
+
+	private static String getContentHash(byte[] content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance(SHARED_IMAGES_ALGORITHM);
+			return DatatypeConverter.printHexBinary(digest.digest(content)).toLowerCase();
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
 	public void copyProjectImageToSystemLocation(String srcFile, String targetFile) throws IOException {
 
 		File inputFile = new File(srcFile);
@@ -72,8 +416,13 @@ public class ImageHelper {
 		createFoldersHierarchy(outputFile);
 
 		if (inputFile.exists()) {
-			copyFile(inputFile, outputFile);
-			manageSpecialFiles(inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), ".html", ".htm"); //$NON-NLS-1$ //$NON-NLS-2$
+			copyStarted();
+			try {
+				copyFile(inputFile.toPath(), outputFile.toPath());
+				manageSpecialFiles(inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), ".html", ".htm"); //$NON-NLS-1$ //$NON-NLS-2$
+			} finally {
+				copyEnded();
+			}
 		} else {
 			org.polarsys.capella.docgen.Activator.getDefault().getLog().log(new Status(IStatus.ERROR,
 					Activator.PLUGIN_ID, FILE_NOT_FOUND + ": \"" + inputFile.getAbsolutePath() + "\""));
@@ -102,7 +451,7 @@ public class ImageHelper {
 
 	private void doCopy(String targetFile, File companionFolder, String suffix) throws IOException {
 		File destFolder = new File(targetFile.substring(0, targetFile.lastIndexOf('.')) + suffix);
-		doCopy(companionFolder, destFolder);
+		copyTree(companionFolder, destFolder);
 	}
 
 	private void createFoldersHierarchy(File outputFile) {
@@ -114,16 +463,58 @@ public class ImageHelper {
 		}
 	}
 
-	private void copyFile(File sourceFile, File destFile) throws IOException {
-		try (
-				InputStream inputStr = new FileInputStream(sourceFile);
-				OutputStream outputStr = new FileOutputStream(destFile);
-			) {
-			byte[] buf = new byte[1024];
-			int bytesRead;
-			while ((bytesRead = inputStr.read(buf)) > 0) {
-				outputStr.write(buf, 0, bytesRead);
+	/**
+	 * Copy the file with a channel transfer, which the operating system does
+	 * without going through the Java heap. When files are linked, the target is
+	 * a hard link to the source if the file system allows it.
+	 */
+	private void copyFile(java.nio.file.Path source, java.nio.file.Path target) throws IOException {
+		if (linkFiles && linkFile(source, target)) {
+			linkedFiles.incrementAndGet();
+			return;
+		}
+		if (Files.exists(target)) {
+			if (source.toRealPath().equals(target.toRealPath())) {
+				return;
+			}
+			// The target may be linked by a previous generation, it is replaced so
+			// the file it is linked to is not overwritten
+			Files.deleteIfExists(target);
+		}
+		try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel output = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			long size = input.size();
+			long position = 0;
+			while (position < size) {
+				long transferred = input.transferTo(position, size - position, output);
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
 			}
+			copiedBytes.addAndGet(position);
+		}
+		copiedFiles.incrementAndGet();
+	}
+
+	/**
+	 * Hard link the target to the source, replacing the target if it exists.
+	 * 
+	 * @return false if the file system can not link them
+	 */
+	private static boolean linkFile(java.nio.file.Path source, java.nio.file.Path target) {
+		try {
+			if (Files.exists(target)) {
+				if (Files.isSameFile(source, target)) {
+					return true;
+				}
+				Files.delete(target);
+			}
+			Files.createLink(target, source);
+			return true;
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			return false;
 		}
 	}
 
@@ -135,52 +526,161 @@ public class ImageHelper {
 	 * @throws IOException
 	 */
 	public void doCopy(File src, File dest) throws IOException {
-		if (src.isDirectory()) {
-			if (!dest.exists()) {
-				dest.mkdir();
+		copyStarted();
+		try {
+			copyTree(src, dest);
+		} finally {
+			copyEnded();
+		}
+	}
+
+	/**
+	 * Record the start of the first copy of the generation
+	 */
+	private void copyStarted() {
+		if (firstCopyStart.get() == 0) {
+			firstCopyStart.compareAndSet(0, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Record the end of a copy, the last one ends the copy time of the
+	 * generation
+	 */
+	private void copyEnded() {
+		lastCopyEnd.accumulateAndGet(System.nanoTime(), Math::max);
+	}
+
+	/**
+	 * Copy the file or the directory tree. During a generation the files of the
+	 * tree are copied by the copy threads while the tree is walked, the method
+	 * returns once they are all copied.
+	 */
+	private void copyTree(File src, File dest) throws IOException {
+		if (!src.isDirectory()) {
+			copyFile(src.toPath(), dest.toPath());
+			return;
+		}
+		final java.nio.file.Path source = src.toPath();
+		final java.nio.file.Path target = dest.toPath();
+		final ExecutorService executor = copyExecutor;
+		final List<Future<?>> copies = new ArrayList<Future<?>>();
+		IOException failure = null;
+		try {
+			Files.walkFileTree(source, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+					new SimpleFileVisitor<java.nio.file.Path>() {
+
+						@Override
+						public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs)
+								throws IOException {
+							Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+							return FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult visitFile(final java.nio.file.Path file, BasicFileAttributes attrs)
+								throws IOException {
+							final java.nio.file.Path targetFile = target.resolve(source.relativize(file).toString());
+							if (executor == null) {
+								copyFile(file, targetFile);
+							} else {
+								copies.add(executor.submit(() -> {
+									copyFile(file, targetFile);
+									return null;
+								}));
+							}
+							return FileVisitResult.CONTINUE;
+						}
+					});
+		} catch (IOException e) {
+			failure = e;
+		}
+		failure = awaitCopies(copies, failure);
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Wait for the copies of a tree.
+	 * 
+	 * @return the first failure, the other failures are added as suppressed
+	 *         exceptions
+	 */
+	private static IOException awaitCopies(List<Future<?>> copies, IOException failure) throws IOException {
+		try {
+			for (Future<?> copy : copies) {
+				try {
+					copy.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (failure == null) {
+						failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+					} else {
+						failure.addSuppressed(cause);
+					}
+				}
 			}
-			String files[] = src.list();
-			for (String file : files) {
-				// construct the src and dest file structure
-				File srcFile = new File(src, file);
-				File destFile = new File(dest, file);
-				// recursive copy
-				doCopy(srcFile, destFile);
+		} catch (InterruptedException e) {
+			for (Future<?> copy : copies) {
+				copy.cancel(true);
 			}
-		} else {
-			copyFile(src, dest);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
 		}
+		return failure;
 	}
 
 	public static String getTypePng(EObject eObject, String projectName, String folderName) {
-		final ImageDescriptor imageDescriptor = CapellaUIResourcesPlugin.getDefault().getPNGImage(eObject);
-		Image image = null;
-		if (imageDescriptor != null) {
-			image = imageDescriptor.createImage(true);
+		final String simpleFileName = CapellaUIResourcesPlugin.getDefault().getCustomizedImageName(eObject);
+		if (!INSTANCE.iconRegistryActive) {
+			return writeIcon(eObject, simpleFileName, projectName, folderName, true);
 		}
-		String simpleFileName = CapellaUIResourcesPlugin.getDefault().getCustomizedImageName(eObject);
+		return INSTANCE.iconFileNames.computeIfAbsent(projectName + '/' + folderName + '/' + simpleFileName,
+				key -> writeIcon(eObject, simpleFileName, projectName, folderName, false));
+	}
+
+	/**
+	 * Write the icon of the element in the icon folder if it does not exist yet.
+	 * The image data is read from the descriptor, no display is needed.
+	 * 
+	 * @return the name of the icon file
+	 */
+	private static String writeIcon(EObject eObject, String simpleFileName, String projectName, String folderName,
+			boolean refresh) {
 		final IFolder iconFolder = getIconFolder(projectName, folderName);
 		IFile iconFile = iconFolder.getFile(simpleFileName + ".png");
 		if (!iconFile.exists()) {
+			final ImageDescriptor imageDescriptor = CapellaUIResourcesPlugin.getDefault().getPNGImage(eObject);
+			ImageData imageData = null;
+			if (imageDescriptor != null) {
+				imageData = imageDescriptor.getImageData(100);
+			}
 			String withoutFileExtension = iconFile.getLocation().toString()
 					.replace(iconFile.getLocation().getFileExtension(), "");
 
-			IFile iconFileTemp = createNewIconFile(image, withoutFileExtension);
+			IFile iconFileTemp = createNewIconFile(imageData, withoutFileExtension);
 			if (iconFileTemp != null) {
 				iconFile = iconFileTemp;
 			}
-			try {
-				iconFolder.refreshLocal(IResource.DEPTH_ONE, MONITOR);
-			} catch (CoreException e) {
-				org.polarsys.capella.docgen.Activator.getDefault().getLog()
-						.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID, folderName + " can not be refreshed.", e));
+			if (refresh) {
+				refreshIconFolder(iconFolder);
+			} else {
+				INSTANCE.iconFoldersToRefresh.add(iconFolder);
 			}
 		}
-		if (image != null)
-			image.dispose();
 		return iconFile.getName();
 	}
 
+	private static void refreshIconFolder(IFolder iconFolder) {
+		try {
+			iconFolder.refreshLocal(IResource.DEPTH_ONE, MONITOR);
+		} catch (CoreException e) {
+			org.polarsys.capella.docgen.Activator.getDefault().getLog().log(new Status(IStatus.ERROR,
+					Activator.PLUGIN_ID, iconFolder.getFullPath() + " can not be refreshed.", e));
+		}
+	}
+
 	private static IFolder getIconFolder(String projectName, String folderName) {
 		final IPath path = new Path(projectName).append(folderName);
 		final IContainer parent = ResourcesPlugin.getWorkspace().getRoot().getFolder(path).getParent();
@@ -200,10 +700,10 @@ public class ImageHelper {
 		return iconFolder;
 	}
 
-	private static IFile createNewIconFile(Image iconImage, String fileName) {
-		if (iconImage != null) {
+	private static IFile createNewIconFile(ImageData iconImageData, String fileName) {
+		if (iconImageData != null) {
 			final ImageLoader loader = new ImageLoader();
-			loader.data = new ImageData[] { iconImage.getImageData() };
+			loader.data = new ImageData[] { iconImageData };
 			try {
 				// if image is encoded as more than 8-bits, then we save it into
 				// png format.
@@ -222,10 +722,11 @@ public class ImageHelper {
 
 	public String serializeImageInTargetFolder(String imageData, String targetFolderPath, String pageObjectId,
 			List<String> imageFileNames, ILog logger) {
-		// Compute image file name
-		String outputImageFileName = pageObjectId + "/gen/";
-		String uniqueFileName = getUniqueFileName(pageObjectId, imageFileNames);
-		outputImageFileName += uniqueFileName;
+		// Compute image file name, shared images are named after their content
+		String outputImageFileName = null;
+		if (!sharedImages) {
+			outputImageFileName = pageObjectId + "/gen/" + getUniqueFileName(pageObjectId, imageFileNames);
+		}
 
 		// Compute image extension
 		String extension = "";
@@ -237,7 +738,6 @@ public class ImageHelper {
 		case DATA_IMAGE_PREFIX + "bmp" + BASE64_POSTFIX:
 			int endIndex = imageDatas[0].length() - BASE64_POSTFIX.length();
 			extension = imageDatas[0].substring(DATA_IMAGE_PREFIX.length(), endIndex);
-			outputImageFileName = outputImageFileName + "." + extension;
 			break;
 		default:
 			logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
@@ -245,13 +745,24 @@ public class ImageHelper {
 			return null;
 		}
 
-		// Serialize image
+		if (sharedImages) {
+			try {
+				return writeSharedImage(DatatypeConverter.parseBase64Binary(imageDatas[1]), extension,
+						targetFolderPath);
+			} catch (IOException e) {
+				logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+						MessageFormat.format(ERROR_IMAGE_DATA_WRITE, targetFolderPath + SHARED_IMAGES_FOLDER), e));
+				return null;
+			}
+		}
+
+		// Serialize image, the page keeps the image data when the file can not be
+		// created
+		outputImageFileName += "." + extension;
 		byte[] parseBase64Binary = DatatypeConverter.parseBase64Binary(imageDatas[1]);
 		String targetFilePath = targetFolderPath + outputImageFileName;
-		File imageFile = new File(targetFilePath);
-		createFoldersHierarchy(imageFile);
-		try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(imageFile))) {
-			outputStream.write(parseBase64Binary);
+		try {
+			submitImage(new File(targetFilePath), parseBase64Binary);
 		} catch (IOException e) {
 			logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
 					MessageFormat.format(ERROR_IMAGE_DATA_WRITE, targetFilePath), e));
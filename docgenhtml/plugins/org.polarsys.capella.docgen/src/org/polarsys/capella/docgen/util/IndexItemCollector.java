@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EObject;
+import org.polarsys.kitalpha.doc.gen.business.core.helper.IConceptsHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.services.ExtensionService;
+import org.polarsys.kitalpha.doc.gen.business.core.services.IndexItem;
+import org.polarsys.kitalpha.doc.gen.business.core.services.IndexerService;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DefaultFileNameService;
+
+/**
+ * Collects the index items of the elements, it may be called by several page
+ * workers at once. The concepts helpers are read once per generation and the
+ * items are built with the file name of the page computed once.
+ * <p>
+ * The items are collected in a map of the collector and merged in the items of
+ * the {@link IndexerService} by {@link #merge()}, on a single thread once the
+ * elements are visited: the other writers of the indexer do not lock its map.
+ * An element indexed by the default indexer is replaced by its Capella item.
+ * The default file name of an element is only computed when the indexer has
+ * items which were not merged here.
+ */
+public class IndexItemCollector {
+
+	public static final IndexItemCollector INSTANCE = new IndexItemCollector();
+
+	/**
+	 * Concepts helpers of the generation, null outside of a generation
+	 */
+	private volatile List<IConceptsHelper> conceptsHelpers;
+
+	/**
+	 * Items collected since the last merge, by file name
+	 */
+	private final Map<String, CollectedItem> collected = new ConcurrentHashMap<String, CollectedItem>();
+
+	/**
+	 * Keys of the items put in the indexer, only used by {@link #merge()}
+	 */
+	private final Set<String> mergedKeys = new HashSet<String>();
+
+	private IndexItemCollector() {
+	}
+
+	/**
+	 * Read the concepts helpers, called when a generation starts.
+	 */
+	public synchronized void start() {
+		conceptsHelpers = new ArrayList<IConceptsHelper>(ExtensionService.INSTANCE.getConceptsHelpersList());
+		collected.clear();
+		mergedKeys.clear();
+	}
+
+	/**
+	 * Merge the remaining items and release the state, called when a generation
+	 * ends.
+	 */
+	public synchronized void dispose() {
+		merge();
+		conceptsHelpers = null;
+		mergedKeys.clear();
+	}
+
+	/**
+	 * Collect the index item of an element and add it to the search index, the
+	 * element is ignored when no concepts helper accepts it. Outside of a
+	 * generation the item is merged in the indexer at once.
+	 *
+	 * @param element
+	 *            the element
+	 * @param projectName
+	 *            project wherein documentation is generated
+	 * @param outputFolder
+	 *            folder wherein documentation is generated
+	 */
+	public void collect(EObject element, String projectName, String outputFolder) {
+		List<IConceptsHelper> helpers = conceptsHelpers;
+		IConceptsHelper conceptsHelper = getConceptsHelper(element,
+				helpers != null ? helpers : ExtensionService.INSTANCE.getConceptsHelpersList());
+		if (conceptsHelper == null) {
+			return;
+		}
+		String conceptLabel = conceptsHelper.getConceptLabel(element);
+		String fileName = DocGenHtmlCapellaUtil.SERVICE.getFileName(element);
+		IndexItem item = new IndexItem(conceptLabel, element.eClass().getName(),
+				CapellaServices.getIndexImageLinkFromElement(element, projectName, outputFolder),
+				CapellaServices.getIndexHyperlinkFromElement(element), fileName);
+		collected.put(fileName, new CollectedItem(element, item));
+		SearchIndexWriter.INSTANCE.add(projectName, outputFolder, element, conceptLabel);
+		if (helpers == null) {
+			merge();
+		}
+	}
+
+	/**
+	 * Put the items collected since the last merge in the items of the
+	 * {@link IndexerService}. Called on the generation thread once the page
+	 * workers are done, no item shall be collected meanwhile.
+	 */
+	public synchronized void merge() {
+		if (collected.isEmpty()) {
+			return;
+		}
+		Map<String, IndexItem> items = IndexerService.INSTANCE.getElementsToIndexItems();
+		for (Iterator<Map.Entry<String, CollectedItem>> iterator = collected.entrySet().iterator(); iterator
+				.hasNext();) {
+			Map.Entry<String, CollectedItem> entry = iterator.next();
+			iterator.remove();
+			String fileName = entry.getKey();
+			// Check if the default indexer have already indexed the element
+			if (items.size() > mergedKeys.size()) {
+				String defaultFileName = DefaultFileNameService.INSTANCE.getFileName(entry.getValue().element);
+				if (!fileName.equals(defaultFileName) && !mergedKeys.contains(defaultFileName)) {
+					items.remove(defaultFileName);
+				}
+			}
+			items.put(fileName, entry.getValue().item);
+			mergedKeys.add(fileName);
+		}
+	}
+
+	/**
+	 * @return the first concepts helper accepting the element, null if none
+	 */
+	private IConceptsHelper getConceptsHelper(EObject element, List<IConceptsHelper> helpers) {
+		for (IConceptsHelper conceptsHelper : helpers) {
+			if (conceptsHelper.accept(element)) {
+				return conceptsHelper;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Item of an element, the element is kept to compute its default file name
+	 * when the item is merged.
+	 */
+	private static final class CollectedItem {
+		private final EObject element;
+		private final IndexItem item;
+
+		CollectedItem(EObject element, IndexItem item) {
+			this.element = element;
+			this.item = item;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Results of {@link CapellaServices#isLinkable(EObject)} and
+ * {@link DocGenHtmlCapellaControl#isPageCandidate(org.polarsys.capella.core.data.capellacore.CapellaElement)}
+ * for the current generation. The part of the page candidate resolution only
+ * depending on the type of the element (and the preferences) is kept per
+ * {@link EClass}, the results depending on the element (scope, page
+ * extensions) are kept per element. Outside of a generation nothing is kept.
+ */
+public class LinkabilityTable {
+
+	public static final LinkabilityTable INSTANCE = new LinkabilityTable();
+
+	private volatile boolean active;
+
+	private final Map<EClass, Boolean> pageCandidateTypes = new ConcurrentHashMap<EClass, Boolean>();
+
+	private final Map<EObject, Boolean> pageCandidates = new ConcurrentHashMap<EObject, Boolean>();
+
+	private final Map<EObject, Integer> linkables = new ConcurrentHashMap<EObject, Integer>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private LinkabilityTable() {
+	}
+
+	/**
+	 * Start keeping the results, called when a generation starts.
+	 */
+	public void start() {
+		clear();
+		active = true;
+	}
+
+	/**
+	 * Stop keeping the results and release them, called when a generation ends.
+	 */
+	public void dispose() {
+		if (active && hits.get() + misses.get() > 0) {
+			Logger.logInfo("Linkability table: " + hits.get() + " lookups saved, " + misses.get() + " computed", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					null);
+		}
+		active = false;
+		clear();
+	}
+
+	/**
+	 * @return number of results given by the table
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of results computed
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	int getLinkable(EObject element, Function<EObject, Integer> computation) {
+		return get(linkables, element, computation).intValue();
+	}
+
+	boolean isPageCandidateType(EClass eClass, Function<EClass, Boolean> computation) {
+		return get(pageCandidateTypes, eClass, computation).booleanValue();
+	}
+
+	boolean isPageCandidate(EObject element, Function<EObject, Boolean> computation) {
+		return get(pageCandidates, element, computation).booleanValue();
+	}
+
+	/**
+	 * The computation is done outside of the map, it may itself use the table.
+	 */
+	private <K, V> V get(Map<K, V> table, K key, Function<K, V> computation) {
+		if (!active || key == null) {
+			return computation.apply(key);
+		}
+		V value = table.get(key);
+		if (value != null) {
+			hits.incrementAndGet();
+			return value;
+		}
+		misses.incrementAndGet();
+		value = computation.apply(key);
+		table.put(key, value);
+		return value;
+	}
+
+	private void clear() {
+		pageCandidateTypes.clear();
+		pageCandidates.clear();
+		linkables.clear();
+		hits.set(0);
+		misses.set(0);
+	}
+}
@@ -45,7 +45,7 @@ public class NamedElementServices {
 					// Typing the element
 					Constraint constraint = (Constraint) cons;
 					// Initialize a string buffer
-					StringBuffer buffer = new StringBuffer();
+					StringBuilder buffer = new StringBuilder();
 					// Add the name to the buffer
 					buffer.append(constraint.getName());
 					buffer.append(CapellaServices.VALUE_PRESENTER);
@@ -0,0 +1,512 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.ecore.EObject;
+import org.polarsys.capella.core.data.capellacore.CapellaElement;
+
+/**
+ * Writes the search index of the documentation while the index items are
+ * collected. The index is an inverted index of the words of the name, the
+ * concept and the summary of the elements, split in shards by the first two
+ * characters of the words, so the search page loads only the shards of the
+ * words searched. The elements are written in chunks of
+ * {@link #DOCUMENTS_PER_CHUNK} as they are added, and the postings are spilled
+ * by shard in temporary files, the memory used does not depend on the number
+ * of elements. The shards are written one after the other when the generation
+ * ends, the ids of the elements of a word are written as the differences
+ * between consecutive ids.
+ * <p>
+ * The index is written again by every generation, and the files of the
+ * previous index which are not written again are deleted. It is complete for
+ * an incremental generation too, as the index patterns feeding it are executed
+ * for the unchanged elements.
+ * <p>
+ * The files are scripts calling <code>CapellaSearchIndex</code>, loaded by
+ * {@value #INDEX_FOLDER}/search-index.js, as the pages opened from the file
+ * system can not read JSON files.
+ */
+public class SearchIndexWriter {
+
+	public static final SearchIndexWriter INSTANCE = new SearchIndexWriter();
+
+	/**
+	 * Folder of the search index, relative to the output folder
+	 */
+	public static final String INDEX_FOLDER = "scripts/search-index"; //$NON-NLS-1$
+
+	/**
+	 * Number of elements of a file of elements
+	 */
+	public static final int DOCUMENTS_PER_CHUNK = 500;
+
+	/**
+	 * Number of characters of the postings kept before they are spilled
+	 */
+	private static final int SPILL_THRESHOLD = 1024 * 1024;
+
+	private static final int SUMMARY_LENGTH = 160;
+
+	private static final int MIN_TOKEN_LENGTH = 2;
+
+	private static final int MAX_TOKEN_LENGTH = 64;
+
+	private static final String META_FILE = "meta.js"; //$NON-NLS-1$
+
+	private static final String DOCUMENTS_PREFIX = "docs-"; //$NON-NLS-1$
+
+	private static final String SHARD_PREFIX = "shard-"; //$NON-NLS-1$
+
+	private static final String SCRIPT_SUFFIX = ".js"; //$NON-NLS-1$
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+"); //$NON-NLS-1$
+
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+"); //$NON-NLS-1$
+
+	private static final Pattern CAMEL_CASE = Pattern
+			.compile("(?<=\\p{Ll})(?=\\p{Lu})|(?<=\\p{Lu})(?=\\p{Lu}\\p{Ll})"); //$NON-NLS-1$
+
+	/**
+	 * Index of each output folder, by project and output folder
+	 */
+	private final Map<String, Index> indexes = new ConcurrentHashMap<String, Index>();
+
+	private volatile boolean active;
+
+	private SearchIndexWriter() {
+	}
+
+	/**
+	 * Start a generation.
+	 *
+	 * @param enabled
+	 *            whether the search index is written
+	 */
+	public synchronized void start(boolean enabled) {
+		indexes.clear();
+		active = enabled;
+	}
+
+	/**
+	 * Write the search indexes of the generation and release the state.
+	 */
+	public synchronized void dispose() {
+		active = false;
+		for (Index index : indexes.values()) {
+			long start = System.currentTimeMillis();
+			try {
+				index.finish();
+				Logger.logInfo("Search index: " + index.documents + " elements, " + index.tokens + " words in " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						+ index.shards.size() + " shards written in " + (System.currentTimeMillis() - start) + " ms", //$NON-NLS-1$ //$NON-NLS-2$
+						null);
+			} catch (IOException e) {
+				Logger.logError("The search index can not be written in " + index.folder, e); //$NON-NLS-1$
+			} finally {
+				index.deleteSpillFolder();
+			}
+		}
+		indexes.clear();
+	}
+
+	/**
+	 * @return whether the search index is written by the current generation
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Add an element to the search index of an output folder, the element is
+	 * ignored when it has no page.
+	 *
+	 * @param projectName
+	 *            project wherein documentation is generated
+	 * @param outputFolder
+	 *            folder wherein documentation is generated
+	 * @param element
+	 *            the element
+	 * @param concept
+	 *            label of the concept of the element
+	 */
+	public void add(String projectName, String outputFolder, EObject element, String concept) {
+		if (!active) {
+			return;
+		}
+		int linkable = CapellaServices.isLinkable(element);
+		if (linkable == -1) {
+			return;
+		}
+		String href = linkable == 1
+				? CapellaServices.getIndexPathFromElement(element.eContainer()) + "#" //$NON-NLS-1$
+						+ CapellaServices.getAnchorId(element)
+				: CapellaServices.getIndexPathFromElement(element);
+		String summary = element instanceof CapellaElement ? ((CapellaElement) element).getSummary() : null;
+		Index index = indexes.computeIfAbsent(projectName + "/" + outputFolder, key -> { //$NON-NLS-1$
+			File outputLocation = ResourcesPlugin.getWorkspace().getRoot()
+					.getFolder(new Path(projectName).append(outputFolder)).getLocation().toFile();
+			return new Index(new File(outputLocation, INDEX_FOLDER));
+		});
+		try {
+			index.add(CapellaLabelProviderHelper.getText(element), concept, href, summary);
+		} catch (IOException e) {
+			Logger.logError("The element " + href + " can not be added to the search index", e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Add an element to the search index of a folder, the index is written when
+	 * the generation ends.
+	 *
+	 * @param folder
+	 *            folder of the search index
+	 * @param name
+	 *            name of the element
+	 * @param concept
+	 *            label of the concept of the element
+	 * @param href
+	 *            link to the element, relative to the folder of the index
+	 * @param summary
+	 *            summary of the element, may be null
+	 * @throws IOException
+	 *             if the element or the postings can not be written
+	 */
+	public void add(File folder, String name, String concept, String href, String summary) throws IOException {
+		if (active) {
+			indexes.computeIfAbsent(folder.getAbsolutePath(), key -> new Index(folder)).add(name, concept, href,
+					summary);
+		}
+	}
+
+	/**
+	 * The words of a text searched in the index: the text is lower-cased, the
+	 * accents are removed and it is split on the characters other than letters
+	 * and digits. The parts of camel case words are searched as well.
+	 *
+	 * @param text
+	 *            the text, may be null
+	 * @return the words of the text, in their order
+	 */
+	public static Set<String> getTokens(String text) {
+		Set<String> tokens = new LinkedHashSet<String>();
+		if (text != null) {
+			addTokens(text, tokens);
+		}
+		return tokens;
+	}
+
+	/**
+	 * @param token
+	 *            a word of the index
+	 * @return the key of the shard of the word, its first two characters where
+	 *         the characters other than ASCII letters and digits are replaced by
+	 *         '_'
+	 */
+	public static String getShardKey(String token) {
+		StringBuilder key = new StringBuilder(MIN_TOKEN_LENGTH);
+		for (int i = 0; i < MIN_TOKEN_LENGTH; i++) {
+			char c = token.charAt(i);
+			key.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') ? c : '_');
+		}
+		return key.toString();
+	}
+
+	private static void addTokens(String text, Set<String> tokens) {
+		String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll(""); //$NON-NLS-1$
+		for (String word : SEPARATORS.split(normalized)) {
+			addToken(word, tokens);
+			String[] parts = CAMEL_CASE.split(word);
+			if (parts.length > 1) {
+				for (String part : parts) {
+					addToken(part, tokens);
+				}
+			}
+		}
+	}
+
+	private static void addToken(String word, Set<String> tokens) {
+		if (word.length() >= MIN_TOKEN_LENGTH && word.length() <= MAX_TOKEN_LENGTH) {
+			tokens.add(word.toLowerCase(Locale.ROOT));
+		}
+	}
+
+	private static void writeJsonString(String value, Writer writer) throws IOException {
+		if (value == null) {
+			writer.write("null"); //$NON-NLS-1$
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				writer.write("\\\""); //$NON-NLS-1$
+				break;
+			case '\\':
+				writer.write("\\\\"); //$NON-NLS-1$
+				break;
+			case '\n':
+				writer.write("\\n"); //$NON-NLS-1$
+				break;
+			case '\r':
+				writer.write("\\r"); //$NON-NLS-1$
+				break;
+			case '\t':
+				writer.write("\\t"); //$NON-NLS-1$
+				break;
+			default:
+				if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+					writer.write(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+				} else {
+					writer.write(c);
+				}
+			}
+		}
+		writer.write('"');
+	}
+
+	/**
+	 * The search index of an output folder.
+	 */
+	private static class Index {
+
+		private final File folder;
+
+		/**
+		 * Postings not spilled yet, lines "word TAB id" by shard
+		 */
+		private final Map<String, StringBuilder> postings = new HashMap<String, StringBuilder>();
+
+		private final Set<String> shards = new TreeSet<String>();
+
+		private final Set<String> writtenFiles = new HashSet<String>();
+
+		private File spillFolder;
+
+		private StreamingFileWriter chunk;
+
+		private int documents;
+
+		private long tokens;
+
+		private int pendingCharacters;
+
+		Index(File folder) {
+			this.folder = folder;
+		}
+
+		synchronized void add(String name, String concept, String href, String summary) throws IOException {
+			int id = documents++;
+			if (id % DOCUMENTS_PER_CHUNK == 0) {
+				closeChunk();
+				int chunkNumber = id / DOCUMENTS_PER_CHUNK;
+				chunk = new StreamingFileWriter(createFile(DOCUMENTS_PREFIX + chunkNumber + SCRIPT_SUFFIX));
+				chunk.write("CapellaSearchIndex.docs(" + chunkNumber + ",[\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			} else {
+				chunk.write(",\n"); //$NON-NLS-1$
+			}
+			String shortSummary = summary == null || summary.length() <= SUMMARY_LENGTH ? summary
+					: summary.substring(0, SUMMARY_LENGTH) + "\u2026"; //$NON-NLS-1$
+			chunk.write('[');
+			writeJsonString(name, chunk);
+			chunk.write(',');
+			writeJsonString(concept, chunk);
+			chunk.write(',');
+			writeJsonString(href, chunk);
+			chunk.write(',');
+			writeJsonString(shortSummary, chunk);
+			chunk.write(']');
+
+			Set<String> documentTokens = new LinkedHashSet<String>();
+			for (String text : new String[] { name, concept, summary }) {
+				if (text != null) {
+					addTokens(text, documentTokens);
+				}
+			}
+			String posting = "\t" + id + "\n"; //$NON-NLS-1$ //$NON-NLS-2$
+			for (String token : documentTokens) {
+				postings.computeIfAbsent(getShardKey(token), key -> new StringBuilder()).append(token).append(posting);
+				pendingCharacters += token.length() + posting.length();
+			}
+			if (pendingCharacters > SPILL_THRESHOLD) {
+				spill();
+			}
+		}
+
+		/**
+		 * Append the postings kept to the temporary file of their shard
+		 */
+		private void spill() throws IOException {
+			if (spillFolder == null) {
+				spillFolder = Files.createTempDirectory("docgen-search-index").toFile(); //$NON-NLS-1$
+			}
+			for (Map.Entry<String, StringBuilder> entry : postings.entrySet()) {
+				Files.write(new File(spillFolder, entry.getKey()).toPath(),
+						entry.getValue().toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND);
+				shards.add(entry.getKey());
+			}
+			postings.clear();
+			pendingCharacters = 0;
+		}
+
+		synchronized void finish() throws IOException {
+			closeChunk();
+			spill();
+			for (String shard : shards) {
+				writeShard(shard);
+			}
+			try (StreamingFileWriter writer = new StreamingFileWriter(createFile(META_FILE))) {
+				writer.write("CapellaSearchIndex.meta({\"documents\":" + documents + ",\"chunk\":" //$NON-NLS-1$ //$NON-NLS-2$
+						+ DOCUMENTS_PER_CHUNK + ",\"shards\":["); //$NON-NLS-1$
+				String separator = ""; //$NON-NLS-1$
+				for (String shard : shards) {
+					writer.write(separator);
+					writeJsonString(shard, writer);
+					separator = ","; //$NON-NLS-1$
+				}
+				writer.write("]});\n"); //$NON-NLS-1$
+			}
+			deleteStaleFiles();
+		}
+
+		/**
+		 * Group the postings of a shard by word. The ids of a word are increasing as
+		 * they were spilled in the order of the elements, each id is written as the
+		 * difference with the previous one
+		 */
+		private void writeShard(String shard) throws IOException {
+			File postingsFile = new File(spillFolder, shard);
+			Map<String, StringBuilder> ids = new TreeMap<String, StringBuilder>();
+			Map<String, Integer> lastIds = new HashMap<String, Integer>();
+			try (BufferedReader reader = Files.newBufferedReader(postingsFile.toPath(), StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int tab = line.indexOf('\t');
+					String token = line.substring(0, tab);
+					int id = Integer.parseInt(line.substring(tab + 1));
+					Integer lastId = lastIds.put(token, Integer.valueOf(id));
+					if (lastId == null) {
+						ids.put(token, new StringBuilder().append(id));
+					} else {
+						ids.get(token).append(',').append(id - lastId.intValue());
+					}
+				}
+			}
+			try (StreamingFileWriter writer = new StreamingFileWriter(
+					createFile(SHARD_PREFIX + shard + SCRIPT_SUFFIX))) {
+				writer.write("CapellaSearchIndex.shard("); //$NON-NLS-1$
+				writeJsonString(shard, writer);
+				writer.write(",{"); //$NON-NLS-1$
+				String separator = ""; //$NON-NLS-1$
+				for (Map.Entry<String, StringBuilder> entry : ids.entrySet()) {
+					writer.write(separator);
+					writeJsonString(entry.getKey(), writer);
+					writer.write(":["); //$NON-NLS-1$
+					writer.append(entry.getValue());
+					writer.write(']');
+					separator = ",\n"; //$NON-NLS-1$
+				}
+				writer.write("});\n"); //$NON-NLS-1$
+			}
+			tokens += ids.size();
+			Files.delete(postingsFile.toPath());
+		}
+
+		private void closeChunk() throws IOException {
+			if (chunk != null) {
+				chunk.write("]);\n"); //$NON-NLS-1$
+				chunk.close();
+				chunk = null;
+			}
+		}
+
+		private File createFile(String name) {
+			writtenFiles.add(name);
+			return new File(folder, name);
+		}
+
+		/**
+		 * Delete the files of a previous index which are not part of this one
+		 */
+		private void deleteStaleFiles() {
+			File[] files = folder.listFiles((dir, name) -> (name.startsWith(DOCUMENTS_PREFIX)
+					|| name.startsWith(SHARD_PREFIX)) && name.endsWith(SCRIPT_SUFFIX));
+			List<File> staleFiles = new ArrayList<File>();
+			if (files != null) {
+				for (File file : files) {
+					if (!writtenFiles.contains(file.getName())) {
+						staleFiles.add(file);
+					}
+				}
+			}
+			if (staleFiles.isEmpty()) {
+				return;
+			}
+			for (File file : staleFiles) {
+				file.delete();
+			}
+			IContainer container = ResourcesPlugin.getWorkspace().getRoot()
+					.getContainerForLocation(new Path(folder.getAbsolutePath()));
+			if (container != null) {
+				try {
+					container.refreshLocal(IResource.DEPTH_ONE, new NullProgressMonitor());
+				} catch (CoreException e) {
+					Logger.logWarning("Folder " + folder + " can not be refreshed", e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+
+		void deleteSpillFolder() {
+			if (chunk != null) {
+				chunk.abort();
+				chunk = null;
+			}
+			if (spillFolder != null) {
+				File[] files = spillFolder.listFiles();
+				if (files != null) {
+					for (File file : files) {
+						file.delete();
+					}
+				}
+				spillFolder.delete();
+				spillFolder = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Writes a text file in UTF-8 through a file channel, the text is encoded and
+ * flushed by chunks of {@link #BUFFER_SIZE} bytes as it is written so the
+ * memory used does not depend on the size of the file. The text is written in
+ * a temporary file which replaces the target file when the writer is closed,
+ * readers never see a partial file. When the target file is in the workspace it
+ * is refreshed.
+ */
+public class StreamingFileWriter extends Writer {
+
+	/**
+	 * Size of the buffers, in bytes and in characters
+	 */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String TEMPORARY_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	private final File target;
+
+	private final File temporary;
+
+	private final FileChannel channel;
+
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+	private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+	private long written;
+
+	private boolean closed;
+
+	/**
+	 * @param target
+	 *            file to write, its folder is created if needed
+	 * @throws IOException
+	 *             if the temporary file can not be created
+	 */
+	public StreamingFileWriter(File target) throws IOException {
+		this.target = target;
+		File folder = target.getAbsoluteFile().getParentFile();
+		if (folder != null) {
+			Files.createDirectories(folder.toPath());
+		}
+		this.temporary = new File(folder, target.getName() + TEMPORARY_SUFFIX);
+		this.channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	@Override
+	public void write(char[] buffer, int offset, int length) throws IOException {
+		ensureOpen();
+		int end = offset + length;
+		while (offset < end) {
+			int count = Math.min(chars.remaining(), end - offset);
+			chars.put(buffer, offset, count);
+			offset += count;
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+		}
+	}
+
+	@Override
+	public void write(String text, int offset, int length) throws IOException {
+		append(text, offset, offset + length);
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		chars.put((char) c);
+		if (!chars.hasRemaining()) {
+			encode(false);
+		}
+	}
+
+	@Override
+	public Writer append(CharSequence text) throws IOException {
+		if (text == null) {
+			return append("null", 0, 4); //$NON-NLS-1$
+		}
+		return append(text, 0, text.length());
+	}
+
+	@Override
+	public Writer append(CharSequence text, int start, int end) throws IOException {
+		ensureOpen();
+		if (text == null) {
+			return append("null", start, end); //$NON-NLS-1$
+		}
+		while (start < end) {
+			int count = Math.min(chars.remaining(), end - start);
+			chars.append(text, start, start + count);
+			start += count;
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Encode the buffered characters and write the bytes to the channel. A high
+	 * surrogate ending the buffer is kept until its low surrogate is written.
+	 */
+	private void encode(boolean endOfInput) throws IOException {
+		chars.flip();
+		while (true) {
+			CoderResult result = encoder.encode(chars, bytes, endOfInput);
+			if (result.isOverflow()) {
+				writeBytes();
+			} else {
+				break;
+			}
+		}
+		if (endOfInput) {
+			while (encoder.flush(bytes).isOverflow()) {
+				writeBytes();
+			}
+		}
+		writeBytes();
+		chars.compact();
+	}
+
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			written += channel.write(bytes);
+		}
+		bytes.clear();
+	}
+
+	/**
+	 * Encoded characters are written to the channel, the file is only replaced
+	 * when the writer is closed.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		encode(false);
+	}
+
+	/**
+	 * @return the number of bytes written so far in the file
+	 */
+	public long getWrittenBytes() {
+		return written;
+	}
+
+	/**
+	 * Write the remaining text and replace the target file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			encode(true);
+		} catch (IOException e) {
+			channel.close();
+			temporary.delete();
+			throw e;
+		}
+		channel.close();
+		try {
+			Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		refresh(target);
+	}
+
+	/**
+	 * Discard the text written, the target file is unchanged.
+	 */
+	public void abort() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// The temporary file is deleted below
+		}
+		temporary.delete();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Writer closed: " + target); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Refresh the workspace file written at <code>location</code>, if any
+	 */
+	private static void refresh(File location) {
+		IFile file = ResourcesPlugin.getWorkspace().getRoot().getFileForLocation(new Path(location.getAbsolutePath()));
+		if (file != null) {
+			try {
+				file.refreshLocal(IResource.DEPTH_ZERO, new NullProgressMonitor());
+			} catch (CoreException e) {
+				Logger.logWarning("File " + location + " can not be refreshed", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+}
@@ -11,23 +11,18 @@
  ******************************************************************************/
 package org.polarsys.capella.docgen.util;
 
-import java.io.IOException;
-import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.swing.text.BadLocationException;
-import javax.swing.text.html.HTMLDocument;
-import javax.swing.text.html.HTMLEditorKit;
-
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -40,16 +35,10 @@ import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
-import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
 import org.eclipse.sirius.business.api.image.ImageManager;
-import org.eclipse.sirius.business.api.session.resource.AirdResource;
 import org.eclipse.sirius.diagram.DSemanticDiagram;
 import org.polarsys.capella.common.data.modellingcore.AbstractNamedElement;
-import org.polarsys.capella.core.data.capellamodeller.util.CapellamodellerResourceImpl;
 import org.polarsys.capella.docgen.Activator;
-import org.polarsys.capella.shared.id.handler.IScope;
-import org.polarsys.capella.shared.id.handler.IdManager;
 import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlConstants;
 import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlUtil;
 import org.polarsys.kitalpha.doc.gen.business.core.util.EObjectLabelProviderHelper;
@@ -61,14 +50,24 @@ public class StringUtil {
 	private static final String REGEX_FILEPATH = "<[aA][\\s]+href=\"(.+?)\">";
 	private static final String ERROR_CPY = "Error during project relative file copy: {0}";
 	private static final String ERROR_COPY_PART_2 = " referenced in the description of the element: {0} "; //$NON-NLS-1$
-	private static final String ERROR_DECODE_FILE_LOCATION = "Error while decoding file location: {0}";
-	private static final String ERROR_READ_FILE_LOCATION = "Error while reading decoded file location: {0}";
 	private static final String WARNING_IMAGE_SERIALIZATION_FAILED = "Image serialization failed, default to keep img serialized value for element if id: {0}";
 	private static final String WARNING_NETWORK_IMAGE_NO_TREATMENT = "Network images are left as is and not copied to the generated documentation: {0}. Element id: {1}";
 	private static final String ERROR_STRING_PATH_URI_UNENCODE = "String to URI unencode failed with string: {0}";
 	private static final String IMAGES_FOLDER = "/images/";
 	private static final String ERROR_HYPERLINK_OBJECT_UNREACHABLE = "Hyperlink to object {0} in {1} cannot be reached";
 
+	private static final Pattern ELEMENT_LINK_PATTERN = Pattern.compile(ELEMENT_LINK_REGEX);
+	private static final Pattern LINK_PATTERN = Pattern.compile(REGEX, Pattern.DOTALL);
+	private static final Pattern IMAGE_PATTERN = Pattern.compile(ImageManager.HTML_IMAGE_PATH_PATTERN, Pattern.DOTALL);
+	private static final Pattern FILE_LINK_PATTERN = Pattern.compile(REGEX_FILEPATH, Pattern.DOTALL);
+
+	/**
+	 * Links with their closing tag, images and links to files, whichever comes
+	 * first in the description
+	 */
+	private static final Pattern REFERENCE_PATTERN = Pattern.compile("(?<link>" + REGEX + ")|(?<image>" //$NON-NLS-1$ //$NON-NLS-2$
+			+ ImageManager.HTML_IMAGE_PATH_PATTERN + ")|(?<file>" + REGEX_FILEPATH + ")", Pattern.DOTALL); //$NON-NLS-1$ //$NON-NLS-2$
+
 	/**
 	 * Transform all links added in an model element description to Html links
 	 * 
@@ -86,287 +85,332 @@ public class StringUtil {
 
 		if (input != null) {
 			/**
-			 * Manage Links to Capella model element and Sirius diagrams Links are
-			 * translated to HTML link to generated HTML page
+			 * The description is read once, links to Capella model elements and Sirius
+			 * diagrams are translated to HTML links to generated HTML pages, images are
+			 * copied in a sub folder of output folder and links to files are translated
+			 * to links to copies of the files
 			 **/
-			input = manageModelAndDiagramElementsLinks(input, eObject);
+			StringBuilder output = new StringBuilder(input.length() + 64);
+			new DescriptionRewriter(eObject, projectName, outputFolder).rewrite(input, output);
+			return output.toString();
+		}
+		return "";
+	}
 
-			/**
-			 * Manage Links to relative image path. Image is copied in a sub folder of
-			 * output folder and link copy is used
-			 **/
-			input = manageImages(eObject, input, projectName, outputFolder);
+	/**
+	 * Rewrites the references of one description. The images referenced several
+	 * times are copied once.
+	 */
+	private static class DescriptionRewriter {
 
-			/**
-			 * Manage links to relative files path Relative path will be translated to
-			 * absolute path.
-			 */
-			input = manageFileLinks(eObject, input, projectName, outputFolder);
+		private final EObject eObject;
+
+		private final String projectName;
+
+		private final String outputFolder;
+
+		/**
+		 * Replacement of each image source, null when the source is kept
+		 */
+		private final Map<String, String> imageSources = new HashMap<String, String>();
+
+		/**
+		 * List used to store unique file names in the generation folder
+		 */
+		private final List<String> imageFileNames = new ArrayList<String>();
 
-			return input;
+		private IPath parentSrcFolder;
+
+		private IPath parentTargetFolderPath;
+
+		private DescriptionRewriter(EObject eObject, String projectName, String outputFolder) {
+			this.eObject = eObject;
+			this.projectName = projectName;
+			this.outputFolder = outputFolder;
 		}
-		return "";
-	}
 
-	protected static String getResourceCopyError(EObject element, String resourcePath) {
-		StringBuilder result = new StringBuilder();
-		if (element != null) {
-			StringBuilder elementFQN = getElementFQN(element);
-			String part1 = MessageFormat.format(ERROR_CPY, resourcePath);
-			String part2 = MessageFormat.format(ERROR_COPY_PART_2, elementFQN);
-			result.append(part1);
-			result.append(part2);
-		} else {
-			result.insert(0, ERROR_CPY);
+		private void rewrite(CharSequence input, StringBuilder output) {
+			Matcher matcher = REFERENCE_PATTERN.matcher(input);
+			int last = 0;
+			while (matcher.find()) {
+				output.append(input, last, matcher.start());
+				if (matcher.start("link") >= 0) { //$NON-NLS-1$
+					rewriteLink(matcher.group("link"), output); //$NON-NLS-1$
+				} else if (matcher.start("image") >= 0) { //$NON-NLS-1$
+					rewriteImage(matcher.group("image"), output); //$NON-NLS-1$
+				} else {
+					rewriteFileLink(matcher.group("file"), output); //$NON-NLS-1$
+				}
+				last = matcher.end();
+			}
+			output.append(input, last, input.length());
 		}
-		return result.toString();
-	}
 
-	private static StringBuilder getElementFQN(EObject element) {
-		StringBuilder elementFQN = new StringBuilder();
-		String elementLabel = LabelProviderHelper.getText(element);
-		if (!EObjectLabelProviderHelper.EMPTY_STRING.equals(elementLabel)) {
-			elementFQN.append(elementLabel);
-			EObject currentElement = element;
-			while (currentElement.eContainer() != null) {
-				currentElement = currentElement.eContainer();
-				elementFQN.insert(0, "::"); //$NON-NLS-1$
-				elementFQN.insert(0, LabelProviderHelper.getText(currentElement));
+		/**
+		 * Links to model elements or diagrams (<code>hlink://Target ID/</code>) are
+		 * transformed to html links, the content of the link is rewritten too
+		 */
+		private void rewriteLink(String link, StringBuilder output) {
+			Matcher matcher = LINK_PATTERN.matcher(link);
+			matcher.matches();
+			String href = switchToDocPath(matcher.group(1), eObject);
+			if (href.startsWith("file://") || href.startsWith("local://")) { //$NON-NLS-1$ //$NON-NLS-2$
+				String fileHref = getFileLinkReplacement(href);
+				if (fileHref != null) {
+					href = fileHref;
+				}
 			}
+			output.append("<a href=\"").append(href).append("\">"); //$NON-NLS-1$ //$NON-NLS-2$
+			rewrite(matcher.group(2), output);
+			output.append("</a>"); //$NON-NLS-1$
 		}
-		return elementFQN;
-	}
 
-	/**
-	 * Transforms links to model elements or diagrams to html links. This links
-	 * format is <code>hlink://Target ID/</code>.
-	 * 
-	 * @param input
-	 *            <code> eObject </code> description
-	 * @param eObject
-	 *            model element for which documentation is about to be generated
-	 * @return model element description (<code>input</code>) with links to model or
-	 *         diagram elements are transformed to html links
-	 */
-	private static String manageModelAndDiagramElementsLinks(String input, EObject eObject) {
-		Pattern pattern = Pattern.compile(REGEX, Pattern.DOTALL);
-		Matcher matcher = pattern.matcher(input);
-
-		while (matcher.find()) {
-			if (matcher.groupCount() == 2) {
-				final String akB = "<a href=\"";
-				final String akE = "</a>";
-				final String link = akB + switchToDocPath(matcher.group(1), eObject) + "\">"
-						+ matcher.group(2) + akE;
-				input = input.replace(matcher.group(0), link);
+		private void rewriteImage(String image, StringBuilder output) {
+			Matcher matcher = IMAGE_PATTERN.matcher(image);
+			matcher.matches();
+			String source = matcher.group(1);
+			String replacement;
+			if (imageSources.containsKey(source)) {
+				replacement = imageSources.get(source);
+			} else {
+				replacement = getImageReplacement(source);
+				imageSources.put(source, replacement);
+			}
+			if (replacement == null) {
+				output.append(image);
+			} else {
+				output.append(image, 0, matcher.start(1)).append(replacement).append(image, matcher.end(1),
+						image.length());
 			}
 		}
-		return input;
-	}
 
-	/**
-	 * Transform link to file using relative path to absolute path.
-	 * 
-	 * @param eObject
-	 *            model element for which documentation is about to be generated
-	 * @param input
-	 *            <code> eObject </code> description
-	 * @param projectName
-	 *            project name wherein documentation is generated
-	 * @param outputFolder
-	 *            folder name wherein documentation is generated
-	 * @return model element description (<code>input</code>) with file relative
-	 *         paths transformed to file absolute paths
-	 */
-	private static String manageFileLinks(EObject eObject, String input, String projectName, String outputFolder) {
-		if (input.trim().length() == 0) {
-			return input;
+		private void rewriteFileLink(String link, StringBuilder output) {
+			Matcher matcher = FILE_LINK_PATTERN.matcher(link);
+			matcher.matches();
+			String href = matcher.group(1);
+			String replacement = null;
+			if (href.startsWith("file://") || href.startsWith("local://")) { //$NON-NLS-1$ //$NON-NLS-2$
+				replacement = getFileLinkReplacement(href);
+			}
+			if (replacement == null) {
+				output.append(link);
+			} else {
+				output.append(link, 0, matcher.start(1)).append(replacement).append(link, matcher.end(1),
+						link.length());
+			}
 		}
 
-		Pattern pattern = Pattern.compile(REGEX_FILEPATH, Pattern.DOTALL);
-		Matcher matcher = pattern.matcher(input);
-		final IPath parentSrcFolder = new Path(eObject.eResource().getURI().segment(1));
-		final IPath parentTargetFolderPath = new Path(projectName).append(outputFolder);
-		while (matcher.find()) {
-			// we check that we really have a link to a file (absolute or relative) and not
-			// a link to URL, model element, diagram...
-			String firstMatchGroup = matcher.group(1);
-			if (firstMatchGroup.startsWith("file://") || firstMatchGroup.startsWith("local://")) {
-				input = manageFileLink(eObject, input, parentSrcFolder, parentTargetFolderPath, firstMatchGroup);
+		private IPath getParentSrcFolder() {
+			if (parentSrcFolder == null) {
+				parentSrcFolder = new Path(eObject.eResource().getURI().segment(1));
 			}
+			return parentSrcFolder;
 		}
 
-		return input;
-	}
+		private IPath getParentTargetFolderPath() {
+			if (parentTargetFolderPath == null) {
+				parentTargetFolderPath = new Path(projectName).append(outputFolder);
+			}
+			return parentTargetFolderPath;
+		}
 
-	private static String manageFileLink(EObject eObject, String input, final IPath parentSrcFolder,
-			final IPath parentTargetFolderPath, String firstMatchGroup) {
-		final ILog logger = org.polarsys.capella.docgen.Activator.getDefault().getLog();
+		/**
+		 * Copy the file linked by an absolute or relative path to the documentation
+		 * generation folder
+		 * 
+		 * @return the link to the copy, null if the link is kept
+		 */
+		private String getFileLinkReplacement(String href) {
+			final ILog logger = org.polarsys.capella.docgen.Activator.getDefault().getLog();
+
+			String id = eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString();
+			id = id.replace("-", "");
+
+			// Character references are decoded as the page displays them
+			String decodedFirstMatchGroup = HtmlEntityDecoder.decode(href);
+
+			IPath patha = new Path(decodedFirstMatchGroup.replaceAll("%20", " "));
+			String iconName = id + "/" + patha.lastSegment();
+			StringBuilder iconSourcePath = new StringBuilder();
+			// if absolute path
+			if (decodedFirstMatchGroup.startsWith("file://")) {
+				for (String segment : patha.segments()) {
+					iconSourcePath.append("/").append(segment);
+				}
+			} else {
+				// relative path. We need to remove "local://" from matcher.group(1) => we
+				// starts with character n8
+				IPath path = getParentSrcFolder()
+						.append(decodedFirstMatchGroup.substring(8, decodedFirstMatchGroup.length()));
+				IFile iconFile = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
+				if (iconFile.exists()) {
+					iconSourcePath.append(iconFile.getLocationURI().getPath());
+				} else {
+					logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+							getResourceCopyError(eObject, path.toString())));
+					return null;
+				}
+			}
 
-		String id = eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString();
-		id = id.replace("-", "");
-		
-		// Use an inline creation of HTMLDocument to get correct html content
-		String decodedFirstMatchGroup = decodeHtmlFilePath(firstMatchGroup, logger);
-		if (decodedFirstMatchGroup == null) {
-			return input;
+			IFolder parentTargetFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(getParentTargetFolderPath());
+			final String sourcePath = iconSourcePath.toString();
+			try {
+				// A file linked by several elements is copied once
+				boolean copy = true;
+				if (ImageHelper.INSTANCE.isSharedFiles()) {
+					String sharedFilePath = ImageHelper.INSTANCE.getSharedFilePath(sourcePath);
+					if (sharedFilePath != null) {
+						iconName = sharedFilePath;
+						copy = ImageHelper.INSTANCE.addSharedFile(sharedFilePath);
+					}
+				}
+				if (copy) {
+					final String targetPath = parentTargetFolder.getLocationURI().getPath() + "/files/" + iconName;
+					AssetWriteStage.INSTANCE.submit(targetPath, () -> getResourceCopyError(eObject, sourcePath),
+							() -> ImageHelper.INSTANCE.copyProjectImageToSystemLocation(sourcePath, targetPath));
+				}
+			} catch (Exception e) {
+				logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+						getResourceCopyError(eObject, iconSourcePath.toString()), e));
+			}
+			// The quote closing the attribute is added as the former replacement of the
+			// link did, the generated pages are unchanged
+			return "./files/" + iconName + "\"";
 		}
 
-		IPath patha = new Path(decodedFirstMatchGroup.replaceAll("%20", " "));
-		String iconName = id + "/" + patha.lastSegment();
-		StringBuilder iconSourcePath = new StringBuilder();
-		// if absolute path
-		if (decodedFirstMatchGroup.startsWith("file://")) {
-			for (String segment : patha.segments()) {
-				iconSourcePath.append("/").append(segment);
-			}
-		} else {
-			// relative path. We need to remove "local://" from matcher.group(1) => we
-			// starts with character n8
-			IPath path = parentSrcFolder
-					.append(decodedFirstMatchGroup.substring(8, decodedFirstMatchGroup.length()));
-			IFile iconFile = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
-			if (iconFile.exists()) {
-				iconSourcePath.append(iconFile.getLocationURI().getPath());
+		/**
+		 * Copy or serialize the image to the documentation generation folder
+		 * 
+		 * @return the path of the copy, null if the image source is kept
+		 */
+		private String getImageReplacement(String source) {
+			IFolder parentTargetFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(getParentTargetFolderPath());
+			final ILog logger = org.polarsys.capella.docgen.Activator.getDefault().getLog();
+			String id = eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString();
+			id = DocGenHtmlUtil.getValidFileName(id);
+
+			String iconName = "";
+			boolean isDataImage = source.startsWith(ImageHelper.DATA_IMAGE_PREFIX);
+			if (isDataImage) {
+				// Serialize image in target folder: "[dogen_output]/object_id/folder
+				iconName = ImageHelper.INSTANCE.serializeImageInTargetFolder(source,
+						parentTargetFolder.getLocationURI().getPath() + IMAGES_FOLDER, id, imageFileNames, logger);
+				if (iconName == null) {
+					// Image serialization has failed, we will keep current image
+					logger.log(new Status(IStatus.WARNING, Activator.PLUGIN_ID,
+							MessageFormat.format(WARNING_IMAGE_SERIALIZATION_FAILED,
+									eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString()),
+							new Exception()));
+				}
 			} else {
-				logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-						getResourceCopyError(eObject, path.toString())));
-				return input;
+				// Character references are decoded as the page displays them
+				String decodedFirstMatchGroup = HtmlEntityDecoder.decode(source);
+
+				IPath patha = new Path(decodedFirstMatchGroup);
+				String lastSegmentFileName = patha.removeFileExtension().lastSegment();
+				iconName = id + "/" + lastSegmentFileName;
+				String iconSourcePath = "";
+
+				if (decodedFirstMatchGroup.startsWith("http") || decodedFirstMatchGroup.startsWith("https")) {
+					logger.log(new Status(IStatus.WARNING, Activator.PLUGIN_ID,
+							MessageFormat.format(WARNING_NETWORK_IMAGE_NO_TREATMENT, decodedFirstMatchGroup,
+									eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString())));
+					return null;
+				}
+				if (decodedFirstMatchGroup.startsWith("//") || decodedFirstMatchGroup.startsWith("\\\\")) {
+					// Absolute path may be serialized with %20 string for spaces
+					// We should thus decode them for the upcoming copy
+					iconSourcePath = unencodeURIString(decodedFirstMatchGroup, logger);
+					iconName = unencodeURIString(iconName, logger);
+				} else if (patha.isAbsolute()) {
+					for (String segment : patha.removeFileExtension().segments()) {
+						iconSourcePath += "/" + segment;
+					}
+					iconSourcePath += "." + patha.getFileExtension();
+					// Absolute path may be serialized with %20 string for spaces
+					// We should thus decode them for the upcoming copy
+					iconSourcePath = unencodeURIString(iconSourcePath, logger);
+					iconName = unencodeURIString(iconName, logger);
+				} else {
+					IPath path = new Path(decodedFirstMatchGroup);
+					// Check if the path is a workspace path
+					IFile iconFile = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
+					if (!iconFile.exists()) {
+						path = getParentSrcFolder().append(decodedFirstMatchGroup);
+						iconFile = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
+					}
+					if (iconFile.exists()) {
+						iconSourcePath = iconFile.getLocationURI().getPath();
+					} else {
+						logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+								getResourceCopyError(eObject, path.toString())));
+						return null;
+					}
+				}
+				// Identical images are copied once, html files keep their companion folder
+				if (ImageHelper.INSTANCE.isSharedImages() && !isHtmlFile(patha.getFileExtension())) {
+					try {
+						String sharedIconName = ImageHelper.INSTANCE.copyProjectImageToSharedLocation(iconSourcePath,
+								parentTargetFolder.getLocationURI().getPath() + IMAGES_FOLDER);
+						if (sharedIconName != null) {
+							return "." + IMAGES_FOLDER + sharedIconName;
+						}
+					} catch (Exception e) {
+						logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+								getResourceCopyError(eObject, iconSourcePath), e));
+					}
+				}
+				// Ensure unique file name
+				iconName = ImageHelper.INSTANCE.getUniqueFileName(iconName, imageFileNames);
+				iconName += "." + patha.getFileExtension();
+
+				final String sourcePath = iconSourcePath;
+				final String targetPath = parentTargetFolder.getLocationURI().getPath() + IMAGES_FOLDER + iconName;
+				try {
+					// Copy file
+					AssetWriteStage.INSTANCE.submit(targetPath, () -> getResourceCopyError(eObject, sourcePath),
+							() -> ImageHelper.INSTANCE.copyProjectImageToSystemLocation(sourcePath, targetPath));
+				} catch (Exception e) {
+					logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+							getResourceCopyError(eObject, iconSourcePath), e));
+				}
 			}
+
+			return "." + IMAGES_FOLDER + iconName;
 		}
 
-		IFolder parentTargetFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(parentTargetFolderPath);
-		input = input.replace(firstMatchGroup, "./files/" + iconName + "\"");
-		try {
-			ImageHelper.INSTANCE.copyProjectImageToSystemLocation(iconSourcePath.toString(),
-					parentTargetFolder.getLocationURI().getPath() + "/files/" + iconName);
-		} catch (Exception e) {
-			logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-					getResourceCopyError(eObject, iconSourcePath.toString()), e));
+		private boolean isHtmlFile(String extension) {
+			return "html".equalsIgnoreCase(extension) || "htm".equalsIgnoreCase(extension);
 		}
-		return input;
 	}
 
-	/**
-	 * Copy image linked by relative path to documentation generation folder and
-	 * change it relative path to the new copy path
-	 * 
-	 * @param eObject
-	 *            model element for which documentation is about to be generated
-	 * @param input
-	 *            <code> eObject </code> description
-	 * @param projectName
-	 *            project name wherein documentation is generated
-	 * @param outputFolder
-	 *            folder name wherein documentation is generated
-	 * @return model element description (<code>input</code>) with image relative
-	 *         paths transformed to local copy absolute paths
-	 */
-	private static String manageImages(EObject eObject, String input, String projectName, String outputFolder) {
-		if (input.trim().isEmpty()) {
-			return input;
+	protected static String getResourceCopyError(EObject element, String resourcePath) {
+		StringBuilder result = new StringBuilder();
+		if (element != null) {
+			StringBuilder elementFQN = getElementFQN(element);
+			String part1 = MessageFormat.format(ERROR_CPY, resourcePath);
+			String part2 = MessageFormat.format(ERROR_COPY_PART_2, elementFQN);
+			result.append(part1);
+			result.append(part2);
+		} else {
+			result.insert(0, ERROR_CPY);
 		}
-		// Pattern to match <img[...]> html content
-		Pattern pattern = Pattern.compile(ImageManager.HTML_IMAGE_PATH_PATTERN, Pattern.DOTALL);
-		Matcher matcher = pattern.matcher(input);
-
-		final IPath parentSrcFolder = new Path(eObject.eResource().getURI().segment(1));
-		final IPath parentTargetFolderPath = new Path(projectName).append(outputFolder);
-		IFolder parentTargetFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(parentTargetFolderPath);
-
-		// List used to store unique file names in the generation folder
-		List<String> imageFileNames = new ArrayList<String>();
-		final ILog logger = org.polarsys.capella.docgen.Activator.getDefault().getLog();
-		String id = eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString();
-		id = DocGenHtmlUtil.getValidFileName(id);
-
-		while (matcher.find()) {
-			if (matcher.groupCount() == 1) {
-				String firstMatchGroup = matcher.group(1);
-				// As we do a replace all, we may have already serialized/copied some files so
-				// we check to avoid work duplication
-				if (input.contains(firstMatchGroup)) {
-					String iconName = "";
-					boolean isDataImage = firstMatchGroup.startsWith(ImageHelper.DATA_IMAGE_PREFIX);
-					if (isDataImage) {
-						// Serialize image in target folder: "[dogen_output]/object_id/folder
-						iconName = ImageHelper.INSTANCE.serializeImageInTargetFolder(firstMatchGroup,
-								parentTargetFolder.getLocationURI().getPath() + IMAGES_FOLDER, id, imageFileNames,
-								logger);
-						if (iconName == null) {
-							// Image serialization has failed, we will keep current image
-							logger.log(new Status(IStatus.WARNING, Activator.PLUGIN_ID,
-									MessageFormat.format(WARNING_IMAGE_SERIALIZATION_FAILED,
-											eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString()),
-									new Exception()));
-						}
-					} else {
-						// Use an inline creation of HTMLDocument to get correct html content
-						String decodedFirstMatchGroup = decodeHtmlFilePath(firstMatchGroup, logger);
-						if (decodedFirstMatchGroup == null) {
-							continue;
-						}
-						
-						IPath patha = new Path(decodedFirstMatchGroup);
-						String lastSegmentFileName = patha.removeFileExtension().lastSegment();
-						iconName = id + "/" + lastSegmentFileName;
-						String iconSourcePath = "";
-
-						if (decodedFirstMatchGroup.startsWith("http") || decodedFirstMatchGroup.startsWith("https")) {
-							logger.log(new Status(IStatus.WARNING, Activator.PLUGIN_ID,
-									MessageFormat.format(WARNING_NETWORK_IMAGE_NO_TREATMENT, decodedFirstMatchGroup,
-											eObject.eGet(eObject.eClass().getEStructuralFeature("id")).toString())));
-							continue;
-						}
-						if (decodedFirstMatchGroup.startsWith("//") || decodedFirstMatchGroup.startsWith("\\\\")) {
-							// Absolute path may be serialized with %20 string for spaces
-							// We should thus decode them for the upcoming copy
-							iconSourcePath = unencodeURIString(decodedFirstMatchGroup, logger);
-							iconName = unencodeURIString(iconName, logger);
-						} else if (patha.isAbsolute()) {
-							for (String segment : patha.removeFileExtension().segments()) {
-								iconSourcePath += "/" + segment;
-							}
-							iconSourcePath += "." + patha.getFileExtension();
-							// Absolute path may be serialized with %20 string for spaces
-							// We should thus decode them for the upcoming copy
-							iconSourcePath = unencodeURIString(iconSourcePath, logger);
-							iconName = unencodeURIString(iconName, logger);
-						} else {
-						    IPath path = new Path(decodedFirstMatchGroup);
-						    // Check if the path is a workspace path
-                            IFile iconFile = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
-						    if (!iconFile.exists()) {
-						        path = parentSrcFolder.append(decodedFirstMatchGroup);
-						        iconFile = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
-						    }
-							if (iconFile.exists()) {
-								iconSourcePath = iconFile.getLocationURI().getPath();
-							} else {
-								logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-										getResourceCopyError(eObject, path.toString())));
-								continue;
-							}
-						}
-						// Ensure unique file name
-						iconName = ImageHelper.INSTANCE.getUniqueFileName(iconName, imageFileNames);
-						iconName += "." + patha.getFileExtension();
-
-						try {
-							// Copy file
-							ImageHelper.INSTANCE.copyProjectImageToSystemLocation(iconSourcePath,
-									parentTargetFolder.getLocationURI().getPath() + IMAGES_FOLDER + iconName);
-						} catch (Exception e) {
-							logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-									getResourceCopyError(eObject, iconSourcePath), e));
-						}
-					}
+		return result.toString();
+	}
 
-					input = input.replace(firstMatchGroup, "." + IMAGES_FOLDER + iconName);
-				}
+	private static StringBuilder getElementFQN(EObject element) {
+		StringBuilder elementFQN = new StringBuilder();
+		String elementLabel = LabelProviderHelper.getText(element);
+		if (!EObjectLabelProviderHelper.EMPTY_STRING.equals(elementLabel)) {
+			elementFQN.append(elementLabel);
+			EObject currentElement = element;
+			while (currentElement.eContainer() != null) {
+				currentElement = currentElement.eContainer();
+				elementFQN.insert(0, "::"); //$NON-NLS-1$
+				elementFQN.insert(0, LabelProviderHelper.getText(currentElement));
 			}
 		}
-		return input;
+		return elementFQN;
 	}
 
 	/**
@@ -389,33 +433,6 @@ public class StringUtil {
 		return stringToUnencode;
 	}
 
-	/**
-	 * File path being taken from an HTML document may be encoded. It may thus be
-	 * necessary to decode this content if we need to get real file paths for
-	 * examples.
-	 * 
-	 * @param filePath
-	 *            The file path to decode.
-	 * @param loger
-	 *            An ILog instance for exceptions management.
-	 * @return A decoded String.
-	 */
-	private static String decodeHtmlFilePath(String filePath, ILog logger) {
-		try {
-			HTMLDocument doc = new HTMLDocument();
-			new HTMLEditorKit().read(new StringReader("<html><body>" + filePath), doc, 0);
-			String decodedFirstMatchGroup = doc.getText(1, doc.getLength()).trim();
-			return decodedFirstMatchGroup;
-		} catch (BadLocationException e) {
-			logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-					MessageFormat.format(ERROR_DECODE_FILE_LOCATION, filePath), e));
-		} catch (IOException e) {
-			logger.log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-					MessageFormat.format(ERROR_READ_FILE_LOCATION, filePath), e));
-		}
-		return null;
-	}
-
 	/**
 	 * Manage a link to a Model element or a diagram
 	 * 
@@ -430,8 +447,7 @@ public class StringUtil {
 		/**
 		 * Handle links to model or diagram elements
 		 */
-		Pattern pattern = Pattern.compile(ELEMENT_LINK_REGEX);
-		Matcher matcher = pattern.matcher(group);
+		Matcher matcher = ELEMENT_LINK_PATTERN.matcher(group);
 		String id = null; 
 		
 		if (matcher.find() && matcher.groupCount() == 1) {
@@ -450,32 +466,7 @@ public class StringUtil {
 
 	private static String buildResourceRepresentationString(EObject object, String id) {
 		StringBuilder stringBuilder = new StringBuilder();
-		Resource resource = object.eResource();
-		EObject eObject = resource.getEObject(id);
-		// If the object is not found in the current resource, we look for
-		// it in all loaded resources of the ResourceSet
-		if (eObject == null) {
-			ResourceSet rs = resource.getResourceSet();
-			final String searchId = id;
-			eObject = rs.getResources().stream().filter(iResource -> {
-				EObject eObj = null;
-				if (iResource instanceof CapellamodellerResourceImpl || iResource instanceof AirdResource) {
-					eObj = iResource.getEObject(searchId);
-				}
-				return eObj != null;
-			}).findAny().orElse(new ResourceImpl()).getEObject(id);
-		}
-
-		// If the object is still not found, so we use the Capella API.
-		if (eObject == null) {
-			final ResourceSet rs = resource.getResourceSet();
-			eObject = IdManager.getInstance().getEObject(id, new IScope() {
-				@Override
-				public List<Resource> getResources() {
-					return rs.getResources();
-				}
-			});
-		}
+		EObject eObject = ElementIdIndex.INSTANCE.resolve(object, id);
 
 		if (eObject != null) {
     		if (eObject instanceof DSemanticDiagram) {
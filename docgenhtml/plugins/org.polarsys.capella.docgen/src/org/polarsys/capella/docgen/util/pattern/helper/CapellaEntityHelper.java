@@ -51,7 +51,7 @@ public class CapellaEntityHelper {
 	}
 
 	private static String communicationMeanToTableLine(String projectName, String outputFolder, CommunicationMean communicationMean, boolean isOut) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append("<tr>");
 		buffer.append("<td id=\"" + CapellaServices.getAnchorId(communicationMean) + "\">");
 		buffer.append(CapellaServices.getImageLinkFromElement(communicationMean, projectName, outputFolder));
@@ -85,7 +85,7 @@ public class CapellaEntityHelper {
 		Collection<String> ret = new ArrayList<String>();
 
 		for (FunctionalExchange functionalExchange : communicationMean.getAllocatedFunctionalExchanges()) {
-			StringBuffer buffer = new StringBuffer();
+			StringBuilder buffer = new StringBuilder();
 			buffer.append(CapellaServices.getImageLinkFromElement(functionalExchange, projectName, outputFolder));
 			buffer.append("&nbsp;");
 			buffer.append(CapellaServices.getHyperlinkFromElement(functionalExchange));
@@ -21,7 +21,7 @@ import org.polarsys.capella.docgen.util.StringUtil;
 public class CapellaExchangeItemElementHelper {
 
 	public static String exchangeItemElementToString(ExchangeItemElement exItemElt, String projectName, String outputFolder) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append(CapellaServices.getImageLinkFromElement(exItemElt, projectName, outputFolder));
 		buffer.append(CapellaServices.SPACE);
 		buffer.append(CapellaServices.BOLD_BEGIN);
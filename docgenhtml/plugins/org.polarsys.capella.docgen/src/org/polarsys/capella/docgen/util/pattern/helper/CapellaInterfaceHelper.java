@@ -33,7 +33,7 @@ import org.polarsys.capella.docgen.util.StringUtil;
 public class CapellaInterfaceHelper {
 
 	private static String exchangeItemToString(String projectName, String outputFolder, ExchangeItem exchangeItem) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 
 		// exchange title
 		buffer.append("<table style=\"border:0px;\"><tr><td style=\"border:0px; vertical-align:top; max-width:none; white-space: nowrap;\">");
@@ -193,7 +193,7 @@ public class CapellaInterfaceHelper {
 	}
 
 	private static String componentToString(String projectName, String outputFolder, ComponentPort componentPort, EObject componentEObject) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append(CapellaServices.getImageLinkFromElement(componentEObject, projectName, outputFolder));
 		buffer.append(" ");
 		buffer.append(CapellaServices.getHyperlinkFromElement(componentEObject));
@@ -24,7 +24,7 @@ public class CapellaMissionHelper {
 	public static Collection<String> getCapabilities(String projectName, String outputFolder, Mission mission) {
 		Collection<String> ret = new ArrayList<String>();
 		for (Capability currentCapability : mission.getExploitedCapabilities()) {
-			StringBuffer buffer = new StringBuffer();
+			StringBuilder buffer = new StringBuilder();
 			buffer.append(CapellaServices.getImageLinkFromElement(currentCapability, projectName, outputFolder));
 			buffer.append(" ");
 			buffer.append(CapellaServices.getHyperlinkFromElement(currentCapability));
@@ -36,7 +36,7 @@ public class CapellaMissionHelper {
 	public static Collection<String> getInvolvedActors(String projectName, String outputFolder, Mission mission) {
 		Collection<String> ret = new ArrayList<String>();
 		for (SystemComponent involvedElement : mission.getInvolvedSystemComponents()) {
-			StringBuffer buffer = new StringBuffer();
+			StringBuilder buffer = new StringBuilder();
 			buffer.append(CapellaServices.getImageLinkFromElement(involvedElement, projectName, outputFolder));
 			buffer.append(" ");
 			buffer.append(CapellaServices.getHyperlinkFromElement(involvedElement));
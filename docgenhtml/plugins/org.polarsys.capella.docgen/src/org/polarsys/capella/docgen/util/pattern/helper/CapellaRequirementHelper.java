@@ -27,7 +27,7 @@ public class CapellaRequirementHelper {
 		for (AbstractTrace trace : requirement.getIncomingTraces()) {
 			EObject element = trace.getSourceElement();
 			if (element != null) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement(element, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement(element));
@@ -37,12 +37,12 @@ import org.polarsys.capella.docgen.util.StringUtil;
 public class CapellaStateHelper {
 
 	public static String getDoActivity(String projectName, String outputFolder, State state) {
-		StringBuffer ret = new StringBuffer();
+		StringBuilder ret = new StringBuilder();
 		EList<AbstractEvent> abstractEvents = state.getDoActivity();
 		for (AbstractEvent event : abstractEvents) 
 		{
 			if (event != null) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement(event, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement(event));
@@ -74,13 +74,13 @@ public class CapellaStateHelper {
 			}
 		}
 		for (Region currentRegion : orderedByRegion.keySet()) {
-			StringBuffer buffer = new StringBuffer();
+			StringBuilder buffer = new StringBuilder();
 			buffer.append(CapellaServices.getImageLinkFromElement(currentRegion, projectName, outputFolder));
 			buffer.append(" ");
 			buffer.append(CapellaServices.getHyperlinkFromElement(currentRegion));
 			Collection<String> subRet = new ArrayList<String>();
 			for (IState regionState : orderedByRegion.get(currentRegion)) {
-				StringBuffer buffer2 = new StringBuffer();
+				StringBuilder buffer2 = new StringBuilder();
 				buffer2.append(CapellaServices.getImageLinkFromElement(regionState, projectName, outputFolder));
 				buffer2.append(" ");
 				buffer2.append(CapellaServices.getHyperlinkFromElement(regionState));
@@ -97,7 +97,7 @@ public class CapellaStateHelper {
 		Collection<String> ret = new ArrayList<String>();
 		for (IState currentStateMode : state.getReferencedStates()) {
 			if (!getEObjectPathFromStateMachine(currentStateMode).contains(state)) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement(currentStateMode, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement(currentStateMode));
@@ -115,7 +115,7 @@ public class CapellaStateHelper {
 		for (StateTransition currentAbstractStateTransition : state.getIncoming()) {
 			IState source = currentAbstractStateTransition.getSource();
 			if (source != null) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement(source, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement(source));
@@ -130,7 +130,7 @@ public class CapellaStateHelper {
 		for (StateTransition currentAbstractStateTransition : state.getOutgoing()) {
 			IState target = currentAbstractStateTransition.getTarget();
 			if (target != null) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement(target, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement(target));
@@ -146,7 +146,7 @@ public class CapellaStateHelper {
 		List<Object> list = query.compute(state);
 		for (Object currentObject : list) {
 			if (currentObject instanceof AbstractFunction) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement((AbstractFunction) currentObject, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement((AbstractFunction) currentObject));
@@ -162,7 +162,7 @@ public class CapellaStateHelper {
 		List<Object> list = query.compute(state);
 		for (Object currentObject : list) {
 			if (currentObject instanceof FunctionalChain) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement((FunctionalChain) currentObject, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement((FunctionalChain) currentObject));
@@ -178,7 +178,7 @@ public class CapellaStateHelper {
 		List<Object> list = query.compute(state);
 		for (Object currentObject : list) {
 			if (currentObject instanceof Capability) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement((Capability) currentObject, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement((Capability) currentObject));
@@ -189,7 +189,7 @@ public class CapellaStateHelper {
 	}
 
 	public static String getPathFromStateMachine(IState state) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		Iterator<EObject> iterator = getEObjectPathFromStateMachine(state).iterator();
 		while (iterator.hasNext()) {
 			buffer.append(CapellaServices.getHyperlinkFromElement(iterator.next()));
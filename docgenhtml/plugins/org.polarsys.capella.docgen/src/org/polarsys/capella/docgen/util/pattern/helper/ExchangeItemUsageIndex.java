@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.util.pattern.helper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.polarsys.capella.core.data.capellacore.Involvement;
+import org.polarsys.capella.core.data.fa.FunctionalChain;
+import org.polarsys.capella.core.data.fa.FunctionalChainInvolvementLink;
+import org.polarsys.capella.core.data.fa.FunctionalExchange;
+import org.polarsys.capella.core.data.information.ExchangeItem;
+import org.polarsys.capella.docgen.util.Logger;
+
+/**
+ * Functional exchanges and functional chains using each exchange item, built
+ * in one traversal of the model the first time an exchange item of the model
+ * is looked up during a generation. The elements are kept in the order of the
+ * traversal. Outside of a generation the model is traversed on each lookup.
+ */
+public class ExchangeItemUsageIndex {
+
+	public static final ExchangeItemUsageIndex INSTANCE = new ExchangeItemUsageIndex();
+
+	/**
+	 * Usages of the exchange items of one model
+	 */
+	private static class Usages {
+
+		private final Map<ExchangeItem, Collection<FunctionalExchange>> exchanges = new HashMap<ExchangeItem, Collection<FunctionalExchange>>();
+
+		private final Map<ExchangeItem, Collection<FunctionalChain>> chains = new HashMap<ExchangeItem, Collection<FunctionalChain>>();
+
+		private Usages(EObject root) {
+			TreeIterator<EObject> it = root.eAllContents();
+			while (it.hasNext()) {
+				EObject object = it.next();
+				if (object instanceof FunctionalExchange) {
+					FunctionalExchange exchange = (FunctionalExchange) object;
+					for (ExchangeItem item : exchange.getExchangedItems()) {
+						exchanges.computeIfAbsent(item, key -> new LinkedHashSet<FunctionalExchange>()).add(exchange);
+					}
+				} else if (object instanceof FunctionalChain) {
+					FunctionalChain functionalChain = (FunctionalChain) object;
+					for (Involvement involvement : functionalChain.getInvolvedInvolvements()) {
+						if (involvement instanceof FunctionalChainInvolvementLink) {
+							for (ExchangeItem item : ((FunctionalChainInvolvementLink) involvement).getExchangedItems()) {
+								chains.computeIfAbsent(item, key -> new LinkedHashSet<FunctionalChain>())
+										.add(functionalChain);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private volatile boolean active;
+
+	private final Map<EObject, Usages> usages = new ConcurrentHashMap<EObject, Usages>();
+
+	private ExchangeItemUsageIndex() {
+	}
+
+	/**
+	 * Start keeping the index, called when a generation starts.
+	 */
+	public void start() {
+		usages.clear();
+		active = true;
+	}
+
+	/**
+	 * Release the index, called when a generation ends.
+	 */
+	public void dispose() {
+		if (active && !usages.isEmpty()) {
+			Logger.logInfo("Exchange item usage index built for " + usages.size() + " model(s)", null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		active = false;
+		usages.clear();
+	}
+
+	/**
+	 * @param exchangeItem
+	 *            an exchange item
+	 * @return the functional exchanges exchanging the item, in model order
+	 */
+	public Collection<FunctionalExchange> getReferencingFunctionalExchanges(ExchangeItem exchangeItem) {
+		Collection<FunctionalExchange> result = getUsages(exchangeItem).exchanges.get(exchangeItem);
+		return result == null ? Collections.<FunctionalExchange> emptyList() : Collections.unmodifiableCollection(result);
+	}
+
+	/**
+	 * @param exchangeItem
+	 *            an exchange item
+	 * @return the functional chains involving a link exchanging the item, in
+	 *         model order
+	 */
+	public Collection<FunctionalChain> getInvolvingFunctionalChains(ExchangeItem exchangeItem) {
+		Collection<FunctionalChain> result = getUsages(exchangeItem).chains.get(exchangeItem);
+		return result == null ? Collections.<FunctionalChain> emptyList() : Collections.unmodifiableCollection(result);
+	}
+
+	private Usages getUsages(ExchangeItem exchangeItem) {
+		EObject root = EcoreUtil.getRootContainer(exchangeItem);
+		if (!active) {
+			return new Usages(root);
+		}
+		return usages.computeIfAbsent(root, Usages::new);
+	}
+}
@@ -32,11 +32,7 @@ public class FunctionalChainHelper {
 	public static Collection<String> getAvailableModeAndState(String projectName, String outputFolder, FunctionalChain functionalChain) {
 		Collection<String> ret = new ArrayList<String>();
 		for (State currentStateMode : functionalChain.getAvailableInStates()) {
-			StringBuffer buffer = new StringBuffer();
-			buffer.append(CapellaServices.getImageLinkFromElement(currentStateMode, projectName, outputFolder));
-			buffer.append(" ");
-			buffer.append(CapellaServices.getHyperlinkFromElement(currentStateMode));
-			ret.add(buffer.toString());
+			ret.add(CapellaServices.buildHyperlinkWithIcon(projectName, outputFolder, currentStateMode));
 		}
 		return ret;
 	}
@@ -44,11 +40,7 @@ public class FunctionalChainHelper {
 	public static Collection<String> getAvailableFunctions(String projectName, String outputFolder, FunctionalChain functionalChain) {
 		Collection<String> ret = new ArrayList<String>();
 		for (AbstractFunction function : functionalChain.getInvolvedFunctions()) {
-			StringBuffer buffer = new StringBuffer();
-			buffer.append(CapellaServices.getImageLinkFromElement(function, projectName, outputFolder));
-			buffer.append(" ");
-			buffer.append(CapellaServices.getHyperlinkFromElement(function));
-			ret.add(buffer.toString());
+			ret.add(CapellaServices.buildHyperlinkWithIcon(projectName, outputFolder, function));
 		}
 		return ret;
 	}
@@ -79,29 +71,23 @@ public class FunctionalChainHelper {
 	 */
 	private static void addHyperLinkAndInvolvementFunction(String projectName, String outputFolder,
 			Map<String, String> result, InvolvedElement function, CapellaElement functionalChain) {
-		StringBuffer hyperLinkBuffer = new StringBuffer();
-		StringBuffer involvementDescriptionBuffer = new StringBuffer();
-		
 		//Build the hyperlink of the function
-		hyperLinkBuffer.append(CapellaServices.getImageLinkFromElement(function, projectName, outputFolder));
-		hyperLinkBuffer.append(" "); //$NON-NLS-1$
-		hyperLinkBuffer.append(CapellaServices.getHyperlinkFromElement(function));
+		String hyperLink = CapellaServices.buildHyperlinkWithIcon(projectName, outputFolder, function);
 		
 		//Retrieve the function involvement description from involvment
+		String involvementDescription = ""; //$NON-NLS-1$
 		EList<Involvement> involvements = function.getInvolvingInvolvements();
 		for (Involvement involvement : involvements) {
 			if (involvement.eContainer() != null && involvement.eContainer().equals(functionalChain)){
 				String description = StringUtil.transformAREFString(involvement, involvement.getDescription(), projectName, outputFolder);
 				if (description != null && !description.isEmpty()){
-					involvementDescriptionBuffer.append(description);
-				} else {
-					involvementDescriptionBuffer.append(""); //$NON-NLS-1$
+					involvementDescription = description;
 				}
 				break;
 			}
 		}
 		
-		result.put(hyperLinkBuffer.toString(), involvementDescriptionBuffer.toString());
+		result.put(hyperLink, involvementDescription);
 	}
 	
 	
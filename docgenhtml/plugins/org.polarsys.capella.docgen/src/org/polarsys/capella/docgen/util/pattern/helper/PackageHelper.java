@@ -26,7 +26,7 @@ public class PackageHelper {
 		Collection<String> ret = new ArrayList<String>();
 		for (EObject current : structure.eContents()) {
 			if (current instanceof CapellaElement && DocGenHtmlCapellaControl.isPageCandidate((CapellaElement) current)) {
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				buffer.append(CapellaServices.getImageLinkFromElement(current, projectName, outputFolder));
 				buffer.append(" ");
 				buffer.append(CapellaServices.getHyperlinkFromElement(current));
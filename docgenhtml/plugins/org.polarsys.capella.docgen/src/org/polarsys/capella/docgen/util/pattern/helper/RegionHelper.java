@@ -23,7 +23,7 @@ public class RegionHelper {
 	public static Collection<String> getState(String projectName, String outputFolder, Region region) {
 		Collection<String> ret = new ArrayList<String>();
 		for (IState currentState : region.getInvolvedStates()) {
-			StringBuffer buffer = new StringBuffer();
+			StringBuilder buffer = new StringBuilder();
 			buffer.append(CapellaServices.getImageLinkFromElement(currentState, projectName, outputFolder));
 			buffer.append(" ");
 			buffer.append(CapellaServices.getHyperlinkFromElement(currentState));
@@ -22,7 +22,7 @@ public class StateMachineHelper {
 	public static Collection<String> getRegions(String projectName, String outputFolder, StateMachine stateMachine) {
 		Collection<String> ret = new ArrayList<String>();
 		for (Region currentRegion : stateMachine.getOwnedRegions()) {
-			StringBuffer buffer = new StringBuffer();
+			StringBuilder buffer = new StringBuilder();
 			buffer.append(CapellaServices.getImageLinkFromElement(currentRegion, projectName, outputFolder));
 			buffer.append(" ");
 			buffer.append(CapellaServices.getHyperlinkFromElement(currentRegion));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2020 THALES GLOBAL SERVICES.
+ * Copyright (c) 2006, 2022 THALES GLOBAL SERVICES.
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
  * http://www.eclipse.org/legal/epl-2.0
@@ -12,18 +12,39 @@
 package org.polarsys.capella.docgen.visitor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.egf.model.pattern.Node;
 import org.eclipse.egf.model.pattern.Pattern;
 import org.eclipse.egf.model.pattern.PatternContext;
 import org.eclipse.egf.model.pattern.PatternException;
+import org.eclipse.egf.model.pattern.PatternExecutionReporter;
 import org.eclipse.egf.model.pattern.PatternParameter;
 import org.eclipse.egf.pattern.engine.PatternEngine;
+import org.eclipse.egf.pattern.execution.ExecutionContext;
+import org.eclipse.egf.pattern.execution.InternalPatternContext;
 import org.eclipse.egf.pattern.extension.ExtensionHelper;
 import org.eclipse.egf.pattern.extension.PatternExtension;
 import org.eclipse.egf.pattern.extension.ExtensionHelper.MissingExtensionException;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.util.TransactionUtil;
+import org.polarsys.capella.docgen.incremental.IncrementalGeneration;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
+import org.polarsys.capella.docgen.util.IndexItemCollector;
+import org.polarsys.capella.docgen.util.Logger;
 import org.polarsys.kitalpha.doc.gen.business.core.visitor.DocgenCommonSubClassEmfModelVisitor;
 
 /**
@@ -31,14 +52,140 @@ import org.polarsys.kitalpha.doc.gen.business.core.visitor.DocgenCommonSubClassE
  */
 public class CapellaDomainVisitor extends DocgenCommonSubClassEmfModelVisitor {
 
-	private PatternContext context;
+	/**
+	 * Patterns of HTMLDocGenCapella.fcore whose condition depends on the element
+	 * itself and not only on its type and the preferences.
+	 */
+	private static final Set<String> DYNAMIC_CONDITION_PATTERNS = new HashSet<String>(Arrays.asList(
+			"_hW854N47Ed-Qav1YnqlO9A", // AnyNamedElementDocGen //$NON-NLS-1$
+			"_sJuJMN6ZEd-ZSZ6AN4Dlrg" // AnyNamedElementSideBar //$NON-NLS-1$
+	));
+
+	/**
+	 * Patterns writing the page and the sidebar of an element, with their sub
+	 * patterns they are the only ones skipped for an unchanged element during an
+	 * incremental generation. The index patterns are always executed.
+	 */
+	private static final Set<String> PAGE_PATTERNS = new HashSet<String>(Arrays.asList(
+			"_hW854N47Ed-Qav1YnqlO9A", // AnyNamedElementDocGen //$NON-NLS-1$
+			"_sJuJMN6ZEd-ZSZ6AN4Dlrg" // AnyNamedElementSideBar //$NON-NLS-1$
+	));
+
+	private static final String CAPELLA_PATTERNS_RESOURCE = "org.polarsys.capella.docgen/egf/HTMLDocGenCapella.fcore"; //$NON-NLS-1$
+
+	private final ThreadLocal<PatternContext> context = new ThreadLocal<PatternContext>();
+
+	/**
+	 * Engine and first parameter of each pattern, created once per generation.
+	 */
+	private final Map<Pattern, PatternCondition> conditions = new ConcurrentHashMap<Pattern, PatternCondition>();
+
+	/**
+	 * Applicable patterns of an {@link EClass}, filled only when the condition
+	 * of every candidate pattern does not depend on the element itself.
+	 */
+	private final Map<EClass, List<Pattern>> patternsByEClass = new ConcurrentHashMap<EClass, List<Pattern>>();
+
+	private final AtomicLong engineHits = new AtomicLong();
+	private final AtomicLong engineMisses = new AtomicLong();
+	private final AtomicLong patternListHits = new AtomicLong();
+	private final AtomicLong patternListMisses = new AtomicLong();
+
+	/**
+	 * Executor of the pages when the generation uses more than one thread,
+	 * created on the first visited element.
+	 */
+	private PageGenerationExecutor executor;
+
+	private PatternExecutionReporter reporter;
 
 	@Override
 	protected List<Pattern> findPatterns(PatternContext context, Object model) throws PatternException {
-		this.context = context;
+		this.context.set(context);
 		return super.findPatterns(context, model);
 	}
 
+	/**
+	 * When {@link CapellaDocgenPreferenceHelper#getGenerationThreads()} is greater
+	 * than 1, the patterns of the element are executed by a worker thread. Each
+	 * job has its own execution context so the values set by the patterns (file
+	 * name, current element...) and the output nodes are not shared, and the
+	 * reporter writing the pages is serialized. The jobs run inside a read-only
+	 * transaction of the editing domain of the model.
+	 * <p>
+	 * When {@link CapellaDocgenPreferenceHelper#isStreamingOutput()} is checked
+	 * in a sequential generation, the patterns of each element write in their
+	 * own output node, which is released once the page has been reported instead
+	 * of being kept until the end of the generation.
+	 */
+	@Override
+	public void visit(PatternContext context, Object model) throws PatternException {
+		if (executor == null) {
+			int threads = CapellaDocgenPreferenceHelper.getGenerationThreads();
+			if (threads < 2) {
+				if (CapellaDocgenPreferenceHelper.isStreamingOutput()) {
+					ExecutionContext pageContext = new ExecutionContext((InternalPatternContext) context);
+					pageContext.setNode(new Node.Container(null, getClass()));
+					super.visit(pageContext, model);
+				} else {
+					super.visit(context, model);
+				}
+				return;
+			}
+			executor = new PageGenerationExecutor(threads, prepareParallelGeneration(context, model));
+		}
+		final ExecutionContext jobContext = new ExecutionContext((InternalPatternContext) context);
+		jobContext.setNode(new Node.Container(null, getClass()));
+		if (reporter != null) {
+			jobContext.setValue(PatternContext.PATTERN_REPORTER, reporter);
+		}
+		executor.submit(() -> super.visit(jobContext, model));
+	}
+
+	/**
+	 * Model proxies are resolved before starting the workers, EMF lazy
+	 * resolution is not thread safe.
+	 *
+	 * @return the editing domain of the model, whose read-only transaction is
+	 *         held while the workers run, null if the model has none
+	 */
+	private TransactionalEditingDomain prepareParallelGeneration(PatternContext context, Object model) {
+		TransactionalEditingDomain domain = null;
+		if (model instanceof EObject) {
+			Resource resource = ((EObject) model).eResource();
+			if (resource != null && resource.getResourceSet() != null) {
+				EcoreUtil.resolveAll(resource.getResourceSet());
+			}
+			domain = TransactionUtil.getEditingDomain((EObject) model);
+		}
+		Object value = context.getValue(PatternContext.PATTERN_REPORTER);
+		if (value instanceof PatternExecutionReporter) {
+			reporter = new SynchronizedPatternExecutionReporter((PatternExecutionReporter) value);
+		}
+		return domain;
+	}
+
+	/**
+	 * Wait for the pages generated in parallel before ending the visit, then
+	 * merge the index items collected by the pages.
+	 */
+	@Override
+	public void dispose() {
+		try {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		} catch (PatternException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			executor = null;
+			reporter = null;
+			IndexItemCollector.INSTANCE.merge();
+			clearPatternCaches();
+			super.dispose();
+		}
+	}
+
 	/**
 	 * @see org.eclipse.egf.pattern.strategy.domaindriven.SubClassEmfModelVisitor
 	 *      #findPatterns(java.lang.Object) This override operation add a
@@ -47,6 +194,33 @@ public class CapellaDomainVisitor extends DocgenCommonSubClassEmfModelVisitor {
 	 */
 	@Override
 	protected List<Pattern> findPatterns(Object model) {
+		List<Pattern> result = findApplicablePatterns(model);
+		// The page of an unchanged element is kept during an incremental generation
+		if (model instanceof EObject && hasPagePattern(result)
+				&& IncrementalGeneration.INSTANCE.isUpToDate((EObject) model)) {
+			for (Iterator<Pattern> iterator = result.iterator(); iterator.hasNext();) {
+				if (isPagePattern(iterator.next())) {
+					iterator.remove();
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new list of the patterns applicable to the element, without the
+	 *         super patterns of the applicable ones
+	 */
+	private List<Pattern> findApplicablePatterns(Object model) {
+		EClass eClass = model instanceof EObject ? ((EObject) model).eClass() : null;
+		if (eClass != null) {
+			List<Pattern> memo = patternsByEClass.get(eClass);
+			if (memo != null) {
+				patternListHits.incrementAndGet();
+				return new ArrayList<Pattern>(memo);
+			}
+		}
+		patternListMisses.incrementAndGet();
 		// Get the List of applicable patterns to check
 		List<Pattern> patternFind = super.findPatterns(model);
 		// Get the list of applicable patterns to return
@@ -73,11 +247,64 @@ public class CapellaDomainVisitor extends DocgenCommonSubClassEmfModelVisitor {
 					e.printStackTrace();
 				}
 			}
+			if (eClass != null && hasStaticConditions(patternFind)) {
+				patternsByEClass.put(eClass, Collections.unmodifiableList(new ArrayList<Pattern>(result)));
+			}
 		}
 		return result;
 	}
 
+	private boolean hasPagePattern(List<Pattern> patterns) {
+		for (Pattern pattern : patterns) {
+			if (isPagePattern(pattern)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the pattern is a page or sidebar pattern, or one of their
+	 *         sub patterns
+	 */
+	private boolean isPagePattern(Pattern pattern) {
+		for (Pattern current = pattern; current != null; current = current.getSuperPattern()) {
+			if (PAGE_PATTERNS.contains(current.getID())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the result of the condition of each pattern only depends
+	 *         on the type of the element, patterns contributed by other plug-ins
+	 *         are considered as dynamic
+	 */
+	private boolean hasStaticConditions(List<Pattern> patterns) {
+		for (Pattern pattern : patterns) {
+			if (DYNAMIC_CONDITION_PATTERNS.contains(pattern.getID()) || pattern.eResource() == null
+					|| !pattern.eResource().getURI().toString().endsWith(CAPELLA_PATTERNS_RESOURCE)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private boolean checkCondition(Pattern pattern, Object model) throws PatternException {
+		PatternCondition condition = getCondition(pattern);
+		Map<PatternParameter, Object> parameters = new HashMap<PatternParameter, Object>();
+		parameters.put(condition.parameter, model);
+		return condition.engine.checkCondition(context.get(), parameters);
+	}
+
+	private PatternCondition getCondition(Pattern pattern) throws PatternException {
+		PatternCondition condition = conditions.get(pattern);
+		if (condition != null) {
+			engineHits.incrementAndGet();
+			return condition;
+		}
+		engineMisses.incrementAndGet();
 		PatternExtension extension;
 		try {
 			extension = ExtensionHelper.getExtension(pattern.getNature());
@@ -85,17 +312,67 @@ public class CapellaDomainVisitor extends DocgenCommonSubClassEmfModelVisitor {
 			String canExecute = extension.canExecute(pattern);
 			if (canExecute != null)
 				throw new PatternException(canExecute);
-			PatternEngine engine = extension.createEngine(pattern);
-			return engine.checkCondition(context, createParameterMap(pattern, model));
+			condition = new PatternCondition(extension.createEngine(pattern), pattern.getAllParameters().get(0));
 		} catch (MissingExtensionException e) {
 			throw new PatternException(e);
 		}
+		PatternCondition previous = conditions.putIfAbsent(pattern, condition);
+		return previous != null ? previous : condition;
 	}
 
-	private Map<PatternParameter, Object> createParameterMap(Pattern pattern, Object model) {
-		Map<PatternParameter, Object> parameters = new HashMap<PatternParameter, Object>();
-		parameters.put(pattern.getAllParameters().get(0), model);
-		return parameters;
+	/**
+	 * @return number of pattern conditions checked with an already created engine
+	 */
+	public long getEngineCacheHits() {
+		return engineHits.get();
+	}
+
+	/**
+	 * @return number of pattern engines created
+	 */
+	public long getEngineCacheMisses() {
+		return engineMisses.get();
+	}
+
+	/**
+	 * @return number of elements whose patterns came from the {@link EClass} memo
+	 */
+	public long getPatternListHits() {
+		return patternListHits.get();
+	}
+
+	/**
+	 * @return number of elements whose patterns were computed
+	 */
+	public long getPatternListMisses() {
+		return patternListMisses.get();
+	}
+
+	private void clearPatternCaches() {
+		if (engineHits.get() + engineMisses.get() > 0) {
+			Logger.logInfo("Pattern applicability cache: engines " + engineHits.get() + " hits / " + engineMisses.get() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " misses, pattern lists " + patternListHits.get() + " hits / " + patternListMisses.get() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " misses", null); //$NON-NLS-1$
+		}
+		conditions.clear();
+		patternsByEClass.clear();
+		engineHits.set(0);
+		engineMisses.set(0);
+		patternListHits.set(0);
+		patternListMisses.set(0);
+	}
+
+	/**
+	 * Engine of a pattern and the parameter receiving the visited element.
+	 */
+	private static final class PatternCondition {
+		private final PatternEngine engine;
+		private final PatternParameter parameter;
+
+		PatternCondition(PatternEngine engine, PatternParameter parameter) {
+			this.engine = engine;
+			this.parameter = parameter;
+		}
 	}
 
 }
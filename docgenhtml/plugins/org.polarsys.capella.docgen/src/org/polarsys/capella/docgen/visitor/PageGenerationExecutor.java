@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.visitor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.egf.model.pattern.PatternException;
+import org.eclipse.emf.transaction.RollbackException;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.impl.InternalTransaction;
+import org.eclipse.emf.transaction.impl.InternalTransactionalEditingDomain;
+
+/**
+ * Runs page generation jobs on a fixed number of threads. The number of pending
+ * jobs is bounded so the model traversal does not get too far ahead of the
+ * workers.
+ * <p>
+ * The jobs run inside a read-only transaction of the editing domain of the
+ * model, started by the thread creating the executor and committed by
+ * {@link #shutdown()}: the model can not be modified while the pages are
+ * generated. EMF transactions are owned by one thread, so each job is a
+ * privileged runnable of the transaction: the worker owns the transaction while
+ * the job runs, and the exclusive sections of Sirius and GMF called by the job
+ * (diagram rendering) run in it instead of waiting for the creating thread. The
+ * transaction is lent to one job at a time, so the jobs reading the model are
+ * serialized; the workers overlap the traversal of the model and the background
+ * stages of the generation. A job trying to modify the model fails instead of
+ * waiting for the commit of the transaction.
+ * <p>
+ * While no job runs, the creating thread yields the transaction when it waits
+ * for the workers, so the read-only transactions of other threads can run.
+ */
+public class PageGenerationExecutor {
+
+	/**
+	 * Interval between two yields of the read-only transaction while waiting for
+	 * the workers
+	 */
+	private static final long YIELD_INTERVAL_MS = 50;
+
+	/**
+	 * A page generation job.
+	 */
+	public interface PageJob {
+		void run() throws Exception;
+	}
+
+	private final ExecutorService executor;
+
+	private final Semaphore pendingJobs;
+
+	private final Queue<Exception> failures = new ConcurrentLinkedQueue<Exception>();
+
+	private final TransactionalEditingDomain domain;
+
+	private InternalTransaction transaction;
+
+	/**
+	 * Held by the job owning the transaction, and by the creating thread while it
+	 * creates a privileged runnable or yields the transaction
+	 */
+	private final Lock transactionLock = new ReentrantLock(true);
+
+	/**
+	 * @param threads
+	 *            number of worker threads
+	 * @param domain
+	 *            editing domain of the model, the jobs run inside one of its
+	 *            read-only transactions, may be null
+	 * @throws PatternException
+	 *             if the calling thread is interrupted while starting the
+	 *             transaction
+	 */
+	public PageGenerationExecutor(int threads, TransactionalEditingDomain domain) throws PatternException {
+		this.domain = domain;
+		if (domain instanceof InternalTransactionalEditingDomain) {
+			try {
+				transaction = ((InternalTransactionalEditingDomain) domain).startTransaction(true, null);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PatternException(e);
+			}
+		}
+		final AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "Capella docgen page generation " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.pendingJobs = new Semaphore(threads * 4);
+	}
+
+	/**
+	 * Submit a job, blocks while too many jobs are pending.
+	 *
+	 * @param job
+	 *            the job to run
+	 * @throws PatternException
+	 *             if the calling thread is interrupted while waiting
+	 */
+	public void submit(final PageJob job) throws PatternException {
+		try {
+			while (!pendingJobs.tryAcquire(YIELD_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				yieldTransaction();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PatternException(e);
+		}
+		final Runnable run = () -> {
+			try {
+				job.run();
+			} catch (Exception e) {
+				failures.add(e);
+			}
+		};
+		if (transaction == null) {
+			executor.execute(() -> {
+				try {
+					run.run();
+				} finally {
+					pendingJobs.release();
+				}
+			});
+			return;
+		}
+		final Runnable privileged;
+		transactionLock.lock();
+		try {
+			privileged = domain.createPrivilegedRunnable(run);
+		} finally {
+			transactionLock.unlock();
+		}
+		executor.execute(() -> {
+			transactionLock.lock();
+			try {
+				privileged.run();
+			} catch (RuntimeException e) {
+				failures.add(e);
+			} finally {
+				transactionLock.unlock();
+				pendingJobs.release();
+			}
+		});
+	}
+
+	/**
+	 * Wait for all submitted jobs, release the worker threads and commit the
+	 * read-only transaction.
+	 *
+	 * @throws PatternException
+	 *             wrapping the first failure of a job, the other failures are
+	 *             added as suppressed exceptions
+	 */
+	public void shutdown() throws PatternException {
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(YIELD_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				// Wait for the remaining pages
+				yieldTransaction();
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new PatternException(e);
+		} finally {
+			commitTransaction();
+		}
+		Exception first = failures.poll();
+		if (first != null) {
+			PatternException exception = first instanceof PatternException ? (PatternException) first
+					: new PatternException(first);
+			for (Exception other : failures) {
+				exception.addSuppressed(other);
+			}
+			failures.clear();
+			throw exception;
+		}
+	}
+
+	private void yieldTransaction() {
+		if (transaction != null && transactionLock.tryLock()) {
+			try {
+				domain.yield();
+			} finally {
+				transactionLock.unlock();
+			}
+		}
+	}
+
+	private void commitTransaction() throws PatternException {
+		if (transaction != null) {
+			try {
+				transaction.commit();
+			} catch (RollbackException e) {
+				// A read-only transaction is not rolled back
+				throw new PatternException(e);
+			} finally {
+				transaction = null;
+			}
+		}
+	}
+}
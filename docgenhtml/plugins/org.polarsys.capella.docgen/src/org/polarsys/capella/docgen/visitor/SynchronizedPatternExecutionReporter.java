@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Thales - initial API and implementation
+ ******************************************************************************/
+package org.polarsys.capella.docgen.visitor;
+
+import java.util.Map;
+
+import org.eclipse.egf.model.pattern.PatternContext;
+import org.eclipse.egf.model.pattern.PatternExecutionReporter;
+
+/**
+ * Reporter delegating to the reporter of the generation, calls are serialized
+ * so the delegate (which writes the pages) is never called concurrently.
+ */
+public class SynchronizedPatternExecutionReporter implements PatternExecutionReporter {
+
+	private final PatternExecutionReporter delegate;
+
+	/**
+	 * @param delegate
+	 *            the reporter of the generation
+	 */
+	public SynchronizedPatternExecutionReporter(PatternExecutionReporter delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void executionFinished(String output, PatternContext context) {
+		synchronized (delegate) {
+			delegate.executionFinished(output, context);
+		}
+	}
+
+	@Override
+	public void loopFinished(String output, String outputWithCallBack, PatternContext context,
+			Map<String, Object> parameterValues) {
+		synchronized (delegate) {
+			delegate.loopFinished(output, outputWithCallBack, context, parameterValues);
+		}
+	}
+
+	/**
+	 * @return the reporter of the generation
+	 */
+	public PatternExecutionReporter getDelegate() {
+		return delegate;
+	}
+}
@@ -57,6 +57,7 @@ public abstract class AbstractCapellaDocGenTest extends BasicTestCase {
 
 	private static CapellaDocGenHtmlDomainElementReporter reporter;
 	private static Session sessionForTestModel;
+	private static Class<?> generatedTestClass;
 
 	protected String getProjectName() {
 		throw new NotImplementedException("Method \"getProjectName\" should be implemented for this test case.");
@@ -87,6 +88,13 @@ public abstract class AbstractCapellaDocGenTest extends BasicTestCase {
 		return Arrays.asList(getModelName());
 	}
 
+	/**
+	 * @return number of threads generating the pages, 1 for a sequential generation
+	 */
+	protected int getGenerationThreads() {
+		return 1;
+	}
+
 	@SuppressWarnings("unchecked")
 	protected static Collection<Object[]> getTestParameters(Path path, List<String> evaluatedModelElementIDs) {
 		Bundle bundle = Platform.getBundle("org.polarsys.capella.docgen.test.ju");
@@ -133,8 +141,9 @@ public abstract class AbstractCapellaDocGenTest extends BasicTestCase {
 	@Before
 	public void setUp() throws Exception {
 
-		// This is the first launch so we generate documentation
-		if (getReporter() == null) {
+		// This is the first launch of this test class so we generate documentation
+		if (getReporter() == null || generatedTestClass != getClass()) {
+			generatedTestClass = getClass();
 	        super.setUp();
 
 			getAirdFileForLoadedModel(getModelName());
@@ -153,6 +162,7 @@ public abstract class AbstractCapellaDocGenTest extends BasicTestCase {
 			docgenPref.put(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__PHYSICAL_LINK, "true");
 			docgenPref.put(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__FUNCTIONAL_EXCHANGE, "true");
             docgenPref.put(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__ASSOCIATION, "true");
+            docgenPref.putInt(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS, getGenerationThreads());
 //            docgenPref.put(CapellaDocgenPreferenceConstant.DOCGEN_EXPORT__STATUS_AND_REVIEW, "true");
 			docgenPref.flush();
 
@@ -180,5 +190,8 @@ public abstract class AbstractCapellaDocGenTest extends BasicTestCase {
 	@AfterClass
 	public static void afterTestExecution() {
 		getReporter().afterTestExecution();
+		// The next generations are sequential
+		InstanceScope.INSTANCE.getNode("org.polarsys.capella.docgen.preference")
+				.remove(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS);
 	}
 }
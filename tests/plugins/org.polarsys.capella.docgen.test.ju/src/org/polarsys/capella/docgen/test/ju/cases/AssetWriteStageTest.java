@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.ILog;
+import org.polarsys.capella.docgen.Activator;
+import org.polarsys.capella.docgen.util.AssetWriteStage;
+import org.polarsys.capella.docgen.util.ImageHelper;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Writes description images in the background: the names given to the pages
+ * are the ones given without the stage and the images are written once the
+ * stage is awaited. An image file which can not be created is reported to the
+ * page, which keeps the image data. A page submitting more files than the capacity of the stage
+ * waits, and the failures are kept until the end of the generation.
+ */
+public class AssetWriteStageTest extends BasicTestCase {
+
+  private static final String IMAGE = ImageHelper.DATA_IMAGE_PREFIX + "png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNk+M9QDwADhgGAWjR9awAAAABJRU5ErkJggg==";
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    ILog logger = Activator.getDefault().getLog();
+    File folder = Files.createTempDirectory("images").toFile();
+    String folderPath = folder.getAbsolutePath() + "/";
+    AssetWriteStage stage = AssetWriteStage.INSTANCE;
+    ExecutorService page = Executors.newSingleThreadExecutor();
+    try {
+      stage.start();
+      List<String> imageFileNames = new ArrayList<String>();
+      assertEquals("page1/gen/page1_gen_1.png",
+          ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, folderPath, "page1", imageFileNames, logger));
+      assertEquals("page1/gen/page1_gen_2.png",
+          ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, folderPath, "page1", imageFileNames, logger));
+      stage.awaitWritten();
+      assertTrue(new File(folder, "page1/gen/page1_gen_1.png").isFile());
+      assertTrue(new File(folder, "page1/gen/page1_gen_2.png").isFile());
+      assertEquals(2, stage.getWrittenFiles());
+
+      // The page keeps the image data when the file can not be created
+      File notAFolder = new File(folder, "notAFolder");
+      assertTrue(notAFolder.createNewFile());
+      assertNull(ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, notAFolder.getAbsolutePath() + "/",
+          "page1", imageFileNames, logger));
+      stage.awaitWritten();
+      assertEquals(2, stage.getWrittenFiles());
+      assertTrue(stage.getFailures().isEmpty());
+
+      // The page waits once the capacity of the stage is reached
+      final CountDownLatch release = new CountDownLatch(1);
+      final AtomicInteger submitted = new AtomicInteger();
+      Future<?> pageGeneration = page.submit(() -> {
+        for (int i = 0; i <= AssetWriteStage.CAPACITY; i++) {
+          stage.submit("file" + i, () -> "file", () -> {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+          });
+          submitted.incrementAndGet();
+        }
+        return null;
+      });
+      try {
+        pageGeneration.get(1, TimeUnit.SECONDS);
+        fail("The page shall wait for the stage");
+      } catch (TimeoutException e) {
+        assertEquals(AssetWriteStage.CAPACITY, submitted.get());
+      }
+      release.countDown();
+      pageGeneration.get(60, TimeUnit.SECONDS);
+      stage.awaitWritten();
+      assertEquals(AssetWriteStage.CAPACITY + 3, stage.getWrittenFiles());
+
+      // The failures are kept, not thrown to the page
+      stage.submit("failure", () -> "failure", () -> {
+        throw new IOException("failure");
+      });
+      stage.awaitWritten();
+      assertEquals(1, stage.getFailures().size());
+      assertEquals("failure", stage.getFailures().get(0).getMessage());
+      stage.dispose();
+
+      // Outside of a generation the failure is thrown to the caller
+      try {
+        stage.submit("failure", () -> "failure", () -> {
+          throw new IOException("failure");
+        });
+        fail("The failure shall be thrown");
+      } catch (IOException e) {
+        assertEquals("failure", e.getMessage());
+      }
+    } finally {
+      page.shutdownNow();
+      stage.dispose();
+      deleteFolder(folder);
+    }
+  }
+
+  private void deleteFolder(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteFolder(child);
+      }
+    }
+    file.delete();
+  }
+}
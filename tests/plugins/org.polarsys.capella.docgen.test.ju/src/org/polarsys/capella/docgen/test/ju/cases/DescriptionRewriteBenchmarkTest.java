@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.sirius.business.api.image.ImageManager;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.core.data.capellacore.CapellaElement;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.capella.docgen.util.StringUtil;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Rewrites descriptions of 1 KB to 1 MB holding links to the elements of the
+ * In-Flight Entertainment System model and to web pages. Every model element
+ * link must be rewritten, the durations are logged.
+ * <p>
+ * The descriptions of the model and the smaller generated ones shall be
+ * rewritten as the former rewrite did: the links, then the images, then the links to files
+ * replaced in the whole description, one pass each.
+ */
+public class DescriptionRewriteBenchmarkTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final int[] SIZES = { 1024, 16 * 1024, 256 * 1024, 1024 * 1024 };
+
+  private static final int ROUNDS = 5;
+
+  /**
+   * Size of the largest generated description compared to the former rewrite,
+   * which is quadratic
+   */
+  private static final int FORMER_REWRITE_MAX_SIZE = 16 * 1024;
+
+  private static final String OUTPUT_FOLDER = "doc";
+
+  private static final Pattern LINK_PATTERN = Pattern.compile(
+      "<[\\s]*[aA][\\s]+href[\\s]*=[\\s]*\"([^>]+)\"[\\s]*>(.*?)<[\\s]*/[\\s]*[aA][\\s]*>", Pattern.DOTALL);
+
+  private static final Pattern IMAGE_PATTERN = Pattern.compile(ImageManager.HTML_IMAGE_PATH_PATTERN, Pattern.DOTALL);
+
+  private static final Pattern FILE_LINK_PATTERN = Pattern.compile("<[aA][\\s]+href=\"(.+?)\">", Pattern.DOTALL);
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<CapellaElement> elements = new ArrayList<CapellaElement>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        EObject element = iterator.next();
+        if (element instanceof CapellaElement) {
+          elements.add((CapellaElement) element);
+        }
+      }
+    }
+    assertFalse("The test model shall contain elements", elements.isEmpty());
+    CapellaElement owner = elements.get(0);
+
+    int descriptions = 0;
+    for (CapellaElement element : elements) {
+      String description = element.getDescription();
+      if (description != null && !description.isEmpty()) {
+        assertEquals("The description of " + element.getId() + " shall be rewritten as before",
+            rewriteInThreePasses(element, description),
+            StringUtil.transformAREFString(element, description, NAME, OUTPUT_FOLDER));
+        descriptions++;
+      }
+    }
+    assertTrue("The test model shall contain descriptions", descriptions > 0);
+
+    for (int size : SIZES) {
+      String description = createDescription(elements, size);
+      String result = null;
+      long start = System.nanoTime();
+      for (int i = 0; i < ROUNDS; i++) {
+        result = StringUtil.transformAREFString(owner, description, NAME, OUTPUT_FOLDER);
+      }
+      long duration = (System.nanoTime() - start) / ROUNDS;
+
+      if (size <= FORMER_REWRITE_MAX_SIZE) {
+        assertEquals("The description shall be rewritten as before", rewriteInThreePasses(owner, description),
+            result);
+      }
+      assertFalse("Every model element link shall be rewritten", result.contains("hlink://"));
+      assertTrue("Web links shall be kept", result.contains("<a href=\"https://www.eclipse.org/capella/\">"));
+      Logger.logInfo("[" + getName() + "] " + size / 1024 + " KB description: " + duration / 1000 + " us", null);
+    }
+  }
+
+  /**
+   * The former rewrite: each reference is replaced in the whole description,
+   * the links first, then the images and then the links to files. The
+   * replacement of a reference is the rewrite of the reference alone.
+   */
+  private String rewriteInThreePasses(CapellaElement owner, String input) {
+    // Links to model elements and diagrams
+    String output = input;
+    Matcher matcher = LINK_PATTERN.matcher(input);
+    while (matcher.find()) {
+      String href = rewriteAlone(owner, "<a href=\"" + matcher.group(1) + "\"></a>", LINK_PATTERN);
+      output = output.replace(matcher.group(0), "<a href=\"" + href + "\">" + matcher.group(2) + "</a>");
+    }
+
+    // Images, the images of a description are numbered in the order they are
+    // found
+    input = output;
+    StringBuilder images = new StringBuilder();
+    matcher = IMAGE_PATTERN.matcher(input);
+    while (matcher.find()) {
+      String source = matcher.group(1);
+      if (output.contains(source)) {
+        images.append("<img src=\"").append(source).append("\"/>");
+        output = output.replace(source, rewriteAlone(owner, images.toString(), IMAGE_PATTERN));
+      }
+    }
+
+    // Links to files
+    input = output;
+    matcher = FILE_LINK_PATTERN.matcher(input);
+    while (matcher.find()) {
+      String href = matcher.group(1);
+      if (href.startsWith("file://") || href.startsWith("local://")) {
+        output = output.replace(href, rewriteAlone(owner, "<a href=\"" + href + "\">", FILE_LINK_PATTERN));
+      }
+    }
+    return output;
+  }
+
+  /**
+   * @return the first group of the last reference of the rewritten
+   *         <code>references</code>
+   */
+  private String rewriteAlone(CapellaElement owner, String references, Pattern pattern) {
+    Matcher matcher = pattern.matcher(StringUtil.transformAREFString(owner, references, NAME, OUTPUT_FOLDER));
+    String group = null;
+    while (matcher.find()) {
+      group = matcher.group(1);
+    }
+    assertNotNull(references + " shall be rewritten", group);
+    return group;
+  }
+
+  private String createDescription(List<CapellaElement> elements, int size) {
+    StringBuilder description = new StringBuilder(size + 256);
+    int index = 0;
+    while (description.length() < size) {
+      CapellaElement target = elements.get(index++ % elements.size());
+      description.append("<p>The element <a href=\"hlink://").append(EcoreUtil.getURI(target).fragment())
+          .append("\">").append(index).append("</a> is described on ")
+          .append("<a href=\"https://www.eclipse.org/capella/\">the Capella site</a>.</p>\n");
+    }
+    return description.toString();
+  }
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.sirius.business.api.dialect.DialectManager;
+import org.eclipse.sirius.business.api.session.Session;
+import org.eclipse.sirius.diagram.DDiagramElement;
+import org.eclipse.sirius.diagram.DSemanticDiagram;
+import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
+import org.polarsys.capella.docgen.diagram.DiagramExportCache;
+import org.polarsys.capella.docgen.util.CapellaDiagramHelper;
+import org.polarsys.capella.docgen.util.DocGenHtmlCapellaUtil;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlUtil;
+
+/**
+ * Computes the cache entries of the diagrams of the In-Flight Entertainment
+ * System model. The entry of a diagram shall not change between two
+ * computations, shall change with the diagram, and the diagrams shall have
+ * different entries. No entry is given when the cache is not used.
+ * <p>
+ * An entry stored with its fragment and image shall restore the same ones, in
+ * the same output folder and in another one, and the entries used the least
+ * recently shall be removed once the cache exceeds its size.
+ */
+public class DiagramExportCacheTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final String OUTPUT_FOLDER = "output";
+
+  private static final String OTHER_OUTPUT_FOLDER = "diagram-cache-test/output";
+
+  private static final String IMAGES_FOLDER = "diagram-cache-test";
+
+  private static final byte[] IMAGE = Base64.getDecoder().decode(
+      "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNk+M9QDwADhgGAWjR9awAAAABJRU5ErkJggg==");
+
+  private static final int EVICTED_DIAGRAMS = 4;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<DSemanticDiagram> diagrams = new ArrayList<DSemanticDiagram>();
+    for (DRepresentationDescriptor descriptor : DialectManager.INSTANCE.getAllRepresentationDescriptors(session)) {
+      if (descriptor.getRepresentation() instanceof DSemanticDiagram
+          && !((DSemanticDiagram) descriptor.getRepresentation()).getDiagramElements().isEmpty()) {
+        diagrams.add((DSemanticDiagram) descriptor.getRepresentation());
+      }
+    }
+    assertTrue("The test model shall contain diagrams", diagrams.size() >= EVICTED_DIAGRAMS);
+
+    DiagramExportCache cache = DiagramExportCache.INSTANCE;
+    Path folder = Files.createTempDirectory("diagram-cache");
+    try {
+      cache.start(false, 0, folder);
+      assertNull("The cache shall not be used", cache.getEntry(diagrams.get(0).getTarget(), diagrams.get(0),
+          getParameters(diagrams.get(0), OUTPUT_FOLDER)));
+      cache.dispose();
+
+      checkKeys(session, diagrams, folder.resolve("keys"));
+      checkRoundTrip(diagrams.get(0), folder.resolve("round-trip"));
+      checkEviction(diagrams.subList(0, EVICTED_DIAGRAMS), folder.resolve("eviction"));
+    } finally {
+      cache.dispose();
+      delete(folder.toFile());
+      for (DSemanticDiagram diagram : diagrams) {
+        delete(getPageFolder(diagram, OUTPUT_FOLDER).resolve(IMAGES_FOLDER).toFile());
+      }
+      delete(ResourcesPlugin.getWorkspace().getRoot().getProject(NAME).getFolder(IMAGES_FOLDER).getLocation()
+          .toFile());
+    }
+  }
+
+  private void checkKeys(Session session, List<DSemanticDiagram> diagrams, Path folder) {
+    DiagramExportCache cache = DiagramExportCache.INSTANCE;
+    cache.start(true, Long.MAX_VALUE, folder);
+    Set<String> keys = new HashSet<String>();
+    for (DSemanticDiagram diagram : diagrams) {
+      DiagramExportCache.Entry entry = getEntry(diagram);
+      assertNotNull("The entry of " + diagram.getName() + " shall be computed", entry);
+      DiagramExportCache.Entry again = getEntry(diagram);
+      assertEquals("The entry of " + diagram.getName() + " shall not change", entry.getKey(), again.getKey());
+      assertTrue("The entry of " + diagram.getName() + " shall be its own", keys.add(entry.getKey()));
+      assertEquals("The entry of " + diagram.getName() + " shall not depend on the output folder", entry.getKey(),
+          getEntry(diagram, OTHER_OUTPUT_FOLDER).getKey());
+    }
+
+    // The entry changes with the diagram
+    DSemanticDiagram diagram = diagrams.get(0);
+    String key = getEntry(diagram).getKey();
+    final DDiagramElement diagramElement = diagram.getDiagramElements().get(0);
+    TransactionalEditingDomain domain = session.getTransactionalEditingDomain();
+    domain.getCommandStack().execute(new RecordingCommand(domain) {
+      @Override
+      protected void doExecute() {
+        diagramElement.setVisible(!diagramElement.isVisible());
+      }
+    });
+    try {
+      assertFalse("The entry of " + diagram.getName() + " shall change with the diagram",
+          key.equals(getEntry(diagram).getKey()));
+    } finally {
+      domain.getCommandStack().undo();
+    }
+    assertEquals(key, getEntry(diagram).getKey());
+    cache.dispose();
+  }
+
+  private void checkRoundTrip(DSemanticDiagram diagram, Path folder) throws Exception {
+    DiagramExportCache cache = DiagramExportCache.INSTANCE;
+    cache.start(true, Long.MAX_VALUE, folder);
+    DiagramExportCache.Entry entry = getEntry(diagram);
+    assertNull("The diagram shall not be in the cache yet", entry.restore());
+
+    String fragment = writeImage(diagram, "round-trip.png");
+    entry.store(fragment);
+    Path image = getPageFolder(diagram, OUTPUT_FOLDER).resolve(IMAGES_FOLDER).resolve("round-trip.png");
+    Files.delete(image);
+
+    assertEquals("The fragment shall be restored with the dimensions of the image", fragment,
+        getEntry(diagram).restore());
+    assertTrue("The image shall be restored", Arrays.equals(IMAGE, Files.readAllBytes(image)));
+
+    // A generation in another output folder reuses the entry
+    Path otherImage = getPageFolder(diagram, OTHER_OUTPUT_FOLDER).resolve(IMAGES_FOLDER).resolve("round-trip.png");
+    assertEquals("The fragment shall be restored in another output folder", fragment,
+        getEntry(diagram, OTHER_OUTPUT_FOLDER).restore());
+    assertTrue("The image shall be restored in another output folder",
+        Arrays.equals(IMAGE, Files.readAllBytes(otherImage)));
+    cache.dispose();
+  }
+
+  private void checkEviction(List<DSemanticDiagram> diagrams, Path folder) throws Exception {
+    DiagramExportCache cache = DiagramExportCache.INSTANCE;
+    List<String> keys = new ArrayList<String>();
+    long entrySize = 0;
+
+    cache.start(true, Long.MAX_VALUE, folder);
+    for (int i = 0; i < diagrams.size(); i++) {
+      DiagramExportCache.Entry entry = getEntry(diagrams.get(i));
+      String fragment = writeImage(diagrams.get(i), "eviction.png");
+      entry.store(fragment);
+      keys.add(entry.getKey());
+      entrySize = fragment.getBytes(StandardCharsets.UTF_8).length + IMAGE.length;
+    }
+    cache.dispose();
+
+    // The cache does not exceed its size, nothing is removed
+    cache.start(true, keys.size() * entrySize, folder);
+    cache.dispose();
+    for (String key : keys) {
+      assertTrue("The entry " + key + " shall be kept", Files.isDirectory(folder.resolve(key)));
+    }
+
+    // The entries used the least recently are removed down to the size
+    cache.start(true, 2 * entrySize, folder);
+    for (int i = 0; i < keys.size(); i++) {
+      Files.setLastModifiedTime(folder.resolve(keys.get(i)).resolve("fragment.html"),
+          FileTime.fromMillis(1000L * (i + 1)));
+    }
+    assertNotNull(getEntry(diagrams.get(0)).restore());
+    cache.dispose();
+    assertTrue("The entry used last shall be kept", Files.isDirectory(folder.resolve(keys.get(0))));
+    assertTrue("The entry stored last shall be kept", Files.isDirectory(folder.resolve(keys.get(keys.size() - 1))));
+    for (int i = 1; i < keys.size() - 1; i++) {
+      assertFalse("The entry " + keys.get(i) + " shall be removed", Files.exists(folder.resolve(keys.get(i))));
+    }
+  }
+
+  /**
+   * Write an image in the page folder of the diagram
+   *
+   * @return the page fragment referencing the image
+   */
+  private String writeImage(DSemanticDiagram diagram, String name) throws Exception {
+    Path image = getPageFolder(diagram, OUTPUT_FOLDER).resolve(IMAGES_FOLDER).resolve(name);
+    Files.createDirectories(image.getParent());
+    Files.write(image, IMAGE);
+    return "<img src=\"" + IMAGES_FOLDER + "/" + name + "\" width=\"1\" height=\"1\"/>";
+  }
+
+  private Path getPageFolder(DSemanticDiagram diagram, String outputFolder) {
+    return ResourcesPlugin.getWorkspace().getRoot()
+        .getFolder(new org.eclipse.core.runtime.Path(NAME).append(outputFolder)
+            .append(DocGenHtmlUtil.getModelName(diagram.getTarget())))
+        .getLocation().toFile().toPath().toAbsolutePath().normalize();
+  }
+
+  private DiagramExportCache.Entry getEntry(DSemanticDiagram diagram) {
+    return getEntry(diagram, OUTPUT_FOLDER);
+  }
+
+  private DiagramExportCache.Entry getEntry(DSemanticDiagram diagram, String outputFolder) {
+    return DiagramExportCache.INSTANCE.getEntry(diagram.getTarget(), diagram, getParameters(diagram, outputFolder));
+  }
+
+  private Map<String, Object> getParameters(DSemanticDiagram diagram, String outputFolder) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("projectName", NAME);
+    parameters.put("outputFolder", outputFolder);
+    parameters.put("generatedFolder", DocGenHtmlCapellaUtil.SERVICE.getFileName(diagram.getTarget()));
+    parameters.put("fileNameService", DocGenHtmlCapellaUtil.SERVICE);
+    parameters.put("helper", new CapellaDiagramHelper());
+    return parameters;
+  }
+
+  private void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
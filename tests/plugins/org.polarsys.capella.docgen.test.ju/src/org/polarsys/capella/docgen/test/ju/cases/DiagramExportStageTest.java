@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.polarsys.capella.docgen.diagram.DiagramExportStage;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Submits batches of exports to the {@link DiagramExportStage} from a thread
+ * generating pages. The exports are run by the workers when the stage has more
+ * than one thread, by the page otherwise, and the failures of a batch are
+ * reported when the page waits for it.
+ */
+public class DiagramExportStageTest extends BasicTestCase {
+
+  private static final int DIAGRAMS = 40;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    // The pages are not generated by the UI thread
+    ExecutorService page = Executors.newSingleThreadExecutor();
+    try {
+      page.submit(() -> {
+        checkExports(4, true);
+        checkExports(1, false);
+        checkFailures();
+        return null;
+      }).get(60, TimeUnit.SECONDS);
+    } finally {
+      page.shutdownNow();
+      DiagramExportStage.INSTANCE.dispose();
+    }
+  }
+
+  private void checkExports(int threads, boolean workers) throws Exception {
+    DiagramExportStage stage = DiagramExportStage.INSTANCE;
+    stage.start(threads);
+    final AtomicInteger exported = new AtomicInteger();
+    final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+    DiagramExportStage.Batch batch = stage.newBatch();
+    for (int i = 0; i < DIAGRAMS; i++) {
+      batch.submit(null, () -> {
+        threadNames.add(Thread.currentThread().getName());
+        Thread.sleep(5);
+        exported.incrementAndGet();
+      });
+    }
+    batch.await();
+    assertEquals("All the diagrams of the batch shall be exported", DIAGRAMS, exported.get());
+    assertEquals(DIAGRAMS, stage.getExportedDiagrams());
+    assertEquals("Diagrams exported by the page", !workers, threadNames.contains(Thread.currentThread().getName()));
+    if (workers) {
+      assertTrue("The diagrams shall be exported by several workers", threadNames.size() > 1);
+    }
+    stage.dispose();
+  }
+
+  private void checkFailures() throws Exception {
+    DiagramExportStage stage = DiagramExportStage.INSTANCE;
+    stage.start(4);
+    DiagramExportStage.Batch batch = stage.newBatch();
+    final AtomicInteger exported = new AtomicInteger();
+    for (int i = 0; i < DIAGRAMS; i++) {
+      final int index = i;
+      batch.submit(null, () -> {
+        if (index % 10 == 0) {
+          throw new IllegalStateException("Diagram " + index);
+        }
+        exported.incrementAndGet();
+      });
+    }
+    try {
+      batch.await();
+      fail("The failures of the batch shall be reported");
+    } catch (Exception e) {
+      assertEquals(DIAGRAMS / 10 - 1, e.getSuppressed().length);
+    }
+    assertEquals("The other diagrams shall be exported", DIAGRAMS - DIAGRAMS / 10, exported.get());
+
+    // The batch can be awaited again once its failures are reported
+    batch.await();
+    stage.dispose();
+  }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.docgen.util.ElementIdIndex;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Resolves the ids of the In-Flight Entertainment System elements from the
+ * aird resource, with and without the index of a generation: the same
+ * elements shall be found and the unresolved ids counted each time they are
+ * resolved.
+ */
+public class ElementIdIndexTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    EObject context = session.getSessionResource().getContents().get(0);
+    List<String> ids = new ArrayList<String>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        String id = EcoreUtil.getID(iterator.next());
+        if (id != null) {
+          ids.add(id);
+        }
+      }
+    }
+    assertFalse("The test model shall contain elements", ids.isEmpty());
+
+    List<EObject> expected = new ArrayList<EObject>();
+    for (String id : ids) {
+      expected.add(ElementIdIndex.INSTANCE.resolve(context, id));
+    }
+
+    ElementIdIndex.INSTANCE.start();
+    try {
+      for (int i = 0; i < ids.size(); i++) {
+        EObject element = ElementIdIndex.INSTANCE.resolve(context, ids.get(i));
+        assertNotNull("Element " + ids.get(i) + " shall be found", element);
+        assertSame("Element " + ids.get(i) + " does not match", expected.get(i), element);
+      }
+      assertNull(ElementIdIndex.INSTANCE.resolve(context, "unknown-id"));
+      // An unresolved id is remembered, not searched again
+      assertNull(ElementIdIndex.INSTANCE.resolve(context, "unknown-id"));
+      assertEquals(ids.size() + 2, ElementIdIndex.INSTANCE.getResolutions());
+      assertEquals(2, ElementIdIndex.INSTANCE.getUnresolved());
+    } finally {
+      ElementIdIndex.INSTANCE.dispose();
+    }
+  }
+}
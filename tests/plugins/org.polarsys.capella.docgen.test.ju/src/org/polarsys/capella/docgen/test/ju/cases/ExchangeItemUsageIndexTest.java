@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.core.data.capellacore.Involvement;
+import org.polarsys.capella.core.data.fa.FunctionalChain;
+import org.polarsys.capella.core.data.fa.FunctionalChainInvolvementLink;
+import org.polarsys.capella.core.data.fa.FunctionalExchange;
+import org.polarsys.capella.core.data.information.ExchangeItem;
+import org.polarsys.capella.docgen.util.pattern.helper.ExchangeItemUsageIndex;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Checks that the {@link ExchangeItemUsageIndex} gives, for every exchange item
+ * of the In-Flight Entertainment System model, the functional exchanges and
+ * functional chains found by traversing the whole model.
+ */
+public class ExchangeItemUsageIndexTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<ExchangeItem> exchangeItems = new ArrayList<ExchangeItem>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        EObject element = iterator.next();
+        if (element instanceof ExchangeItem) {
+          exchangeItems.add((ExchangeItem) element);
+        }
+      }
+    }
+    assertFalse("The test model shall contain exchange items", exchangeItems.isEmpty());
+
+    ExchangeItemUsageIndex.INSTANCE.start();
+    try {
+      boolean used = false;
+      for (ExchangeItem exchangeItem : exchangeItems) {
+        List<FunctionalExchange> exchanges = getReferencingFunctionalExchanges(exchangeItem);
+        List<FunctionalChain> chains = getInvolvingFunctionalChains(exchangeItem);
+        assertEquals("Functional exchanges of " + exchangeItem.getName() + " do not match", exchanges,
+            new ArrayList<FunctionalExchange>(
+                ExchangeItemUsageIndex.INSTANCE.getReferencingFunctionalExchanges(exchangeItem)));
+        assertEquals("Functional chains of " + exchangeItem.getName() + " do not match", chains,
+            new ArrayList<FunctionalChain>(ExchangeItemUsageIndex.INSTANCE.getInvolvingFunctionalChains(exchangeItem)));
+        used |= !exchanges.isEmpty();
+      }
+      assertTrue("The test model shall contain exchanged items", used);
+    } finally {
+      ExchangeItemUsageIndex.INSTANCE.dispose();
+    }
+  }
+
+  /**
+   * Traversal formerly done for each exchange item page
+   */
+  private List<FunctionalExchange> getReferencingFunctionalExchanges(ExchangeItem exchangeItem) {
+    List<FunctionalExchange> result = new ArrayList<FunctionalExchange>();
+    TreeIterator<EObject> it = EcoreUtil.getRootContainer(exchangeItem).eAllContents();
+    while (it.hasNext()) {
+      EObject object = it.next();
+      if (object instanceof FunctionalExchange
+          && ((FunctionalExchange) object).getExchangedItems().contains(exchangeItem)) {
+        result.add((FunctionalExchange) object);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Traversal formerly done for each exchange item page
+   */
+  private List<FunctionalChain> getInvolvingFunctionalChains(ExchangeItem exchangeItem) {
+    List<FunctionalChain> result = new ArrayList<FunctionalChain>();
+    TreeIterator<EObject> it = EcoreUtil.getRootContainer(exchangeItem).eAllContents();
+    while (it.hasNext()) {
+      EObject object = it.next();
+      if (object instanceof FunctionalChain) {
+        FunctionalChain functionalChain = (FunctionalChain) object;
+        for (Involvement involvement : functionalChain.getInvolvedInvolvements()) {
+          if (involvement instanceof FunctionalChainInvolvementLink
+              && ((FunctionalChainInvolvementLink) involvement).getExchangedItems().contains(exchangeItem)
+              && !result.contains(functionalChain)) {
+            result.add(functionalChain);
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.HTMLEditorKit;
+
+import org.polarsys.capella.docgen.util.HtmlEntityDecoder;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Checks that the {@link HtmlEntityDecoder} decodes the file paths found in
+ * descriptions as the Swing HTML parser formerly used did, and decodes the
+ * references of HTML5.
+ */
+public class HtmlEntityDecoderTest extends BasicTestCase {
+
+  private static final String[] PATHS = { "images/diagram.png", "local://images/diagram.png",
+      "file:///C:/Users/me/My%20Documents/spec.pdf", "//server/share/a%20b.jpg", "\\\\server\\share\\picture.bmp",
+      "images/R&amp;D.png", "images/R&D.png", "images/a&lt;b&gt;.png", "images/&quot;quoted&quot;.png",
+      "images/caf&eacute;.png", "images/&Eacute;t&eacute;.png", "images/&#233;t&#233;.png", "images/&#xE9;t&#xe9;.png",
+      "images/a&#32;b.png", "images/a&nbsp;b.png", "images/&copy;2022.png", "  images/padded.png  ",
+      "images/two  spaces.png", "images/line\nbreak.png", "images/tab\there.png", "images/&unknown;.png",
+      "images/&.png", "images/&#;.png", "images/&amp;amp;.png", "data:image/png;base64,iVBORw0KGgo=",
+      "https://www.eclipse.org/capella/images/capella.png?size=1&amp;format=png" };
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    for (String path : PATHS) {
+      assertEquals("Decoding of " + path + " does not match", decodeWithSwing(path), HtmlEntityDecoder.decode(path));
+    }
+
+    // HTML5 references, legacy references without semicolon and invalid code points
+    assertEquals("images/\u2192.png", HtmlEntityDecoder.decode("images/&rarr;.png"));
+    assertEquals("images/\u2A7D.png", HtmlEntityDecoder.decode("images/&les;.png"));
+    assertEquals("images/\uD835\uDD04.png", HtmlEntityDecoder.decode("images/&Afr;.png"));
+    assertEquals("images/\uD83D\uDE00.png", HtmlEntityDecoder.decode("images/&#x1F600;.png"));
+    assertEquals("images/\u00E9t\u00E9.png", HtmlEntityDecoder.decode("images/&eacutet&eacute.png"));
+    assertEquals("images/\uFFFD.png", HtmlEntityDecoder.decode("images/&#0;.png"));
+
+    // Nothing to decode, the path itself is returned
+    String path = "images/diagram.png";
+    assertSame(path, HtmlEntityDecoder.decode(path));
+    assertNull(HtmlEntityDecoder.decode(null));
+  }
+
+  /**
+   * Decoding formerly done for each image and file link
+   */
+  private String decodeWithSwing(String filePath) throws Exception {
+    HTMLDocument doc = new HTMLDocument();
+    new HTMLEditorKit().read(new StringReader("<html><body>" + filePath), doc, 0);
+    return doc.getText(1, doc.getLength()).trim();
+  }
+}
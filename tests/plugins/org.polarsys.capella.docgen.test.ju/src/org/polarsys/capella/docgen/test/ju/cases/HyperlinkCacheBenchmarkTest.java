@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.docgen.util.CapellaServices;
+import org.polarsys.capella.docgen.util.HyperlinkCache;
+import org.polarsys.capella.docgen.util.LinkabilityTable;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Renders the hyperlinks, index hyperlinks and anchors of every element of the
+ * In-Flight Entertainment System model several times, as the pages referencing
+ * an element do, without and with the {@link HyperlinkCache}. The rendered
+ * strings must be the same, the durations are logged.
+ */
+public class HyperlinkCacheBenchmarkTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final int ROUNDS = 20;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<EObject> elements = new ArrayList<EObject>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        elements.add(iterator.next());
+      }
+    }
+    assertFalse("The test model shall contain elements", elements.isEmpty());
+
+    // Linkability is kept in both runs so only the rendering is compared
+    LinkabilityTable.INSTANCE.start();
+    try {
+      long start = System.nanoTime();
+      List<String> expected = render(elements);
+      long withoutCache = System.nanoTime() - start;
+
+      HyperlinkCache.INSTANCE.start();
+      try {
+        start = System.nanoTime();
+        List<String> actual = render(elements);
+        long withCache = System.nanoTime() - start;
+
+        assertEquals("Rendered hyperlinks shall not change with the cache", expected, actual);
+        assertTrue("Hyperlinks shall be reused", HyperlinkCache.INSTANCE.getHits() > 0);
+        Logger.logInfo("[" + getName() + "] " + elements.size() + " elements, " + ROUNDS + " rounds: "
+            + withoutCache / 1000000 + " ms without cache, " + withCache / 1000000 + " ms with cache", null);
+      } finally {
+        HyperlinkCache.INSTANCE.dispose();
+      }
+    } finally {
+      LinkabilityTable.INSTANCE.dispose();
+    }
+  }
+
+  private List<String> render(List<EObject> elements) {
+    List<String> result = new ArrayList<String>();
+    for (int i = 0; i < ROUNDS; i++) {
+      for (EObject element : elements) {
+        String hyperlink = CapellaServices.getHyperlinkFromElement(element);
+        String indexHyperlink = CapellaServices.getIndexHyperlinkFromElement(element);
+        String anchor = CapellaServices.getAnchorId(element);
+        if (i == 0) {
+          result.add(hyperlink);
+          result.add(indexHyperlink);
+          result.add(anchor);
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.polarsys.capella.docgen.util.ImageHelper;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Copies an attached HTML file and its companion folder, then links them. The
+ * copied files shall have the content of their source, the linked files shall
+ * be their source, and copying again over linked files shall not change the
+ * sources.
+ */
+public class ImageHelperCopyTest extends BasicTestCase {
+
+  private static final List<String> FILES = Arrays.asList("page.html", "page_files/style.css",
+      "page_files/images/large.png", "page_files/images/empty.png");
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    Path folder = Files.createTempDirectory("docgen-copy");
+    ImageHelper helper = ImageHelper.INSTANCE;
+    try {
+      Path source = folder.resolve("source");
+      Random random = new Random(0);
+      long bytes = 0;
+      for (String file : FILES) {
+        byte[] content = new byte[file.startsWith("page_files/images/large") ? 3 * 1024 * 1024 + 17
+            : file.contains("empty") ? 0 : 1000];
+        random.nextBytes(content);
+        Files.createDirectories(source.resolve(file).getParent());
+        Files.write(source.resolve(file), content);
+        bytes += content.length;
+      }
+
+      helper.startFileCopy(false);
+      Path copy = folder.resolve("copy");
+      helper.copyProjectImageToSystemLocation(source.resolve("page.html").toString(),
+          copy.resolve("page.html").toString());
+      assertEquals(FILES.size(), helper.getCopiedFiles());
+      assertEquals(bytes, helper.getCopiedBytes());
+      for (String file : FILES) {
+        assertContent(source.resolve(file), copy.resolve(file));
+        assertFalse(file + " shall be copied", Files.isSameFile(source.resolve(file), copy.resolve(file)));
+      }
+      helper.disposeFileCopy();
+
+      helper.startFileCopy(true);
+      Path link = folder.resolve("link");
+      helper.copyProjectImageToSystemLocation(source.resolve("page.html").toString(),
+          link.resolve("page.html").toString());
+      assertEquals(FILES.size(), helper.getCopiedFiles() + helper.getLinkedFiles());
+      for (String file : FILES) {
+        assertContent(source.resolve(file), link.resolve(file));
+        if (helper.getCopiedFiles() == 0) {
+          assertTrue(file + " shall be linked", Files.isSameFile(source.resolve(file), link.resolve(file)));
+        }
+      }
+      helper.disposeFileCopy();
+
+      // Copying over the links shall replace them, not overwrite the sources
+      helper.startFileCopy(false);
+      helper.doCopy(folder.resolve("copy").toFile(), link.toFile());
+      for (String file : FILES) {
+        assertContent(source.resolve(file), link.resolve(file));
+        assertFalse(file + " shall be copied", Files.isSameFile(source.resolve(file), link.resolve(file)));
+      }
+    } finally {
+      helper.disposeFileCopy();
+      try (Stream<Path> paths = Files.walk(folder)) {
+        paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
+
+  private void assertContent(Path expected, Path actual) throws Exception {
+    assertTrue(actual + " shall exist", Files.isRegularFile(actual));
+    assertTrue(actual + " shall have the content of " + expected,
+        Arrays.equals(Files.readAllBytes(expected), Files.readAllBytes(actual)));
+  }
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.egf.model.fcore.Activity;
+import org.eclipse.egf.model.fcore.FactoryComponent;
+import org.eclipse.egf.model.pattern.PatternContext;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.common.data.modellingcore.ModelElement;
+import org.polarsys.capella.core.model.handler.command.CapellaResourceHelper;
+import org.polarsys.capella.docgen.incremental.IncrementalGeneration;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceConstant;
+import org.polarsys.capella.docgen.test.ju.launch.XHTMLDocumentationGenerationLauncher;
+import org.polarsys.capella.docgen.util.DocGenHtmlCapellaUtil;
+import org.polarsys.capella.docgen.util.SearchIndexWriter;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+import org.polarsys.kitalpha.doc.gen.business.core.helper.IConceptsHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.reporter.DocGenHtmlReporter;
+import org.polarsys.kitalpha.doc.gen.business.core.services.ExtensionService;
+import org.polarsys.kitalpha.doc.gen.business.core.services.IndexItem;
+import org.polarsys.kitalpha.doc.gen.business.core.services.IndexerService;
+import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.ui.helper.InvokeActivityHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlConstants;
+
+/**
+ * Generates the documentation of the In-Flight Entertainment System model
+ * twice in incremental mode. The second generation shall not generate the
+ * pages again but shall still index every element, in the index pages and in
+ * the search index. The documentation files shall be copied to the output. The
+ * page of an element of the manifest which is no longer in the model shall be
+ * deleted, with the folder of its diagrams.
+ */
+public class IncrementalGenerationTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final String OUTPUT_FOLDER_PATH = "doc-incremental";
+
+  private static final String REMOVED_ID = "removed-element";
+
+  private static final URI CAPELLA_TEST_LAUNCHER_URI = URI.createURI(
+      "platform:/plugin/org.polarsys.capella.docgen.test.ju/egf/capellatestlauncher.fcore#_zup7kAkdEeCBJtEcjZDVOA",
+      true);
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    URI semanticModelURI = URI.createPlatformResourceURI(
+        "/" + NAME + "/" + NAME + "." + CapellaResourceHelper.CAPELLA_MODEL_FILE_EXTENSION, true);
+    DiagramSessionHelper.setAirdUri(URI.createPlatformResourceURI("/" + NAME + "/" + NAME + ".aird", true));
+    DiagramSessionHelper.initSession();
+    Session session = getSessionForTestModel(NAME);
+
+    Set<String> expected = new TreeSet<String>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        EObject element = iterator.next();
+        if (element instanceof ModelElement) {
+          for (IConceptsHelper conceptsHelper : ExtensionService.INSTANCE.getConceptsHelpersList()) {
+            if (conceptsHelper.accept(element)) {
+              expected.add(DocGenHtmlCapellaUtil.SERVICE.getFileName(element));
+              break;
+            }
+          }
+        }
+      }
+    }
+    assertFalse("The test model shall contain indexed elements", expected.isEmpty());
+
+    IFolder outputFolder = ResourcesPlugin.getWorkspace().getRoot()
+        .getFolder(new Path(NAME).append(OUTPUT_FOLDER_PATH));
+    File searchIndexFolder = new File(outputFolder.getFolder("output").getLocation().toFile(),
+        SearchIndexWriter.INDEX_FOLDER);
+    Map<String, IndexItem> items = IndexerService.INSTANCE.getElementsToIndexItems();
+    IEclipsePreferences docgenPref = InstanceScope.INSTANCE.getNode("org.polarsys.capella.docgen.preference");
+    docgenPref.put(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX, "true");
+    docgenPref.flush();
+    try {
+      items.clear();
+      PageRecorder fullGeneration = generate(semanticModelURI);
+      assertFalse("The first generation shall generate the pages", fullGeneration.pages.isEmpty());
+      assertTrue("The first generation shall write the manifest", outputFolder.getFolder("output")
+          .getFile(IncrementalGeneration.MANIFEST_FILE_NAME).exists());
+      assertEquals("The first generation shall index every element", expected,
+          new TreeSet<String>(items.keySet()));
+      Map<String, String> searchIndex = readSearchIndex(searchIndexFolder);
+      assertTrue("The first generation shall write the search index", searchIndex.containsKey("meta.js"));
+      for (String script : Arrays.asList("search-index/search-index.js", "search-index/search.html",
+          "progress-overview/progress-overview.js", "progress-overview/progress-overview.css")) {
+        assertTrue("The documentation file " + script + " shall be copied",
+            outputFolder.getFolder("output").getFolder("scripts").getFile(script).exists());
+      }
+
+      items.clear();
+      PageRecorder incrementalGeneration = generate(semanticModelURI);
+      assertEquals("The pages of an unchanged model shall be kept", new TreeSet<String>(),
+          incrementalGeneration.pages);
+      assertEquals("The incremental generation shall index every element", expected,
+          new TreeSet<String>(items.keySet()));
+      assertEquals("The incremental generation shall write the same search index", searchIndex,
+          readSearchIndex(searchIndexFolder));
+
+      // An element of the previous generation was removed from the model
+      File output = outputFolder.getFolder("output").getLocation().toFile();
+      File manifestFile = new File(output, IncrementalGeneration.MANIFEST_FILE_NAME);
+      Properties manifest = new Properties();
+      try (InputStream input = new FileInputStream(manifestFile)) {
+        manifest.load(input);
+      }
+      String modelName = null;
+      for (String key : manifest.stringPropertyNames()) {
+        if (key.startsWith("#page:")) {
+          String page = manifest.getProperty(key);
+          modelName = page.substring(0, page.lastIndexOf('/'));
+        }
+      }
+      assertNotNull("The manifest shall record the pages", modelName);
+      File removedPage = new File(output, modelName + "/" + REMOVED_ID + ".html");
+      File removedDiagram = new File(output, modelName + "/" + REMOVED_ID + "/diagram.jpg");
+      removedDiagram.getParentFile().mkdirs();
+      Files.write(removedPage.toPath(), new byte[0]);
+      Files.write(removedDiagram.toPath(), new byte[0]);
+      manifest.setProperty(REMOVED_ID, "fingerprint");
+      manifest.setProperty("#page:" + REMOVED_ID, modelName + "/" + REMOVED_ID + ".html");
+      try (OutputStream stream = new FileOutputStream(manifestFile)) {
+        manifest.store(stream, null);
+      }
+      outputFolder.refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor());
+
+      items.clear();
+      assertEquals("The pages of an unchanged model shall be kept", new TreeSet<String>(),
+          generate(semanticModelURI).pages);
+      assertFalse("The page of the removed element shall be deleted", removedPage.exists());
+      assertFalse("The diagrams of the removed element shall be deleted", removedDiagram.getParentFile().exists());
+      manifest.clear();
+      try (InputStream input = new FileInputStream(manifestFile)) {
+        manifest.load(input);
+      }
+      assertNull("The removed element shall not be in the manifest", manifest.getProperty(REMOVED_ID));
+    } finally {
+      docgenPref.remove(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX);
+      docgenPref.flush();
+      items.clear();
+      if (outputFolder.exists()) {
+        outputFolder.delete(true, new NullProgressMonitor());
+      }
+    }
+  }
+
+  private PageRecorder generate(URI semanticModelURI) {
+    PageRecorder reporter = new PageRecorder();
+    Activity launcher = InvokeActivityHelper.getActivity(CAPELLA_TEST_LAUNCHER_URI);
+    assertTrue(launcher instanceof FactoryComponent);
+    XHTMLDocumentationGenerationLauncher.gen(NAME, OUTPUT_FOLDER_PATH, (FactoryComponent) launcher,
+        semanticModelURI, reporter, true);
+    return reporter;
+  }
+
+  /**
+   * @return the content of the files of the search index, by name
+   */
+  private Map<String, String> readSearchIndex(File folder) throws Exception {
+    Map<String, String> files = new TreeMap<String, String>();
+    File[] children = folder.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        if (child.getName().endsWith(".js") && !"search-index.js".equals(child.getName())) {
+          files.put(child.getName(), new String(Files.readAllBytes(child.toPath()), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Records the file names of the generated pages instead of writing them.
+   */
+  private static class PageRecorder extends DocGenHtmlReporter {
+
+    private final Set<String> pages = new TreeSet<String>();
+
+    @Override
+    public void loopFinished(String output, String outputWithCallBack, PatternContext context,
+        Map<String, Object> parameterValues) {
+      Object fileName = context.getValue(DocGenHtmlConstants.FILE_NAME);
+      if (fileName != null) {
+        pages.add(fileName.toString());
+      }
+    }
+  }
+}
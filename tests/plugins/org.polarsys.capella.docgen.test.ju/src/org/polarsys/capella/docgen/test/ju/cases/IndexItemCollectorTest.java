@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.common.data.modellingcore.ModelElement;
+import org.polarsys.capella.docgen.util.DocGenHtmlCapellaUtil;
+import org.polarsys.capella.docgen.util.IndexItemCollector;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+import org.polarsys.kitalpha.doc.gen.business.core.helper.IConceptsHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.services.ExtensionService;
+import org.polarsys.kitalpha.doc.gen.business.core.services.IndexItem;
+import org.polarsys.kitalpha.doc.gen.business.core.services.IndexerService;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DefaultFileNameService;
+
+/**
+ * Collects the index items of the In-Flight Entertainment System model from
+ * several threads at once. The indexer shall only be updated when the
+ * collected items are merged, it shall then have an item for each element
+ * accepted by a concepts helper, named after its page, and the items of the
+ * default indexer shall be replaced.
+ */
+public class IndexItemCollectorTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final int THREADS = 8;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    final List<EObject> elements = new ArrayList<EObject>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        EObject element = iterator.next();
+        if (element instanceof ModelElement) {
+          elements.add(element);
+        }
+      }
+    }
+    Set<String> expected = new TreeSet<String>();
+    EObject indexedByDefault = null;
+    for (EObject element : elements) {
+      for (IConceptsHelper conceptsHelper : ExtensionService.INSTANCE.getConceptsHelpersList()) {
+        if (conceptsHelper.accept(element)) {
+          expected.add(DocGenHtmlCapellaUtil.SERVICE.getFileName(element));
+          if (indexedByDefault == null && !DocGenHtmlCapellaUtil.SERVICE.getFileName(element)
+              .equals(DefaultFileNameService.INSTANCE.getFileName(element))) {
+            indexedByDefault = element;
+          }
+          break;
+        }
+      }
+    }
+    assertFalse("The test model shall contain indexed elements", expected.isEmpty());
+    assertNotNull("The test model shall contain elements with another default file name", indexedByDefault);
+
+    Map<String, IndexItem> items = IndexerService.INSTANCE.getElementsToIndexItems();
+    items.clear();
+    String defaultFileName = DefaultFileNameService.INSTANCE.getFileName(indexedByDefault);
+    items.put(defaultFileName, new IndexItem("default", "default", "", "", defaultFileName));
+
+    IndexItemCollector.INSTANCE.start();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> workers = new ArrayList<Future<?>>();
+      for (int i = 0; i < THREADS; i++) {
+        final int worker = i;
+        workers.add(executor.submit(() -> {
+          // Each element is collected twice, by two workers
+          for (int j = 0; j < elements.size(); j++) {
+            if (j % THREADS == worker || j % THREADS == (worker + 1) % THREADS) {
+              IndexItemCollector.INSTANCE.collect(elements.get(j), NAME, "output");
+            }
+          }
+        }));
+      }
+      for (Future<?> worker : workers) {
+        worker.get(120, TimeUnit.SECONDS);
+      }
+      assertEquals("The indexer shall not be updated by the workers", Collections.singleton(defaultFileName),
+          items.keySet());
+
+      IndexItemCollector.INSTANCE.merge();
+      assertEquals("The items shall be the ones of the elements accepted by a concepts helper", expected,
+          new TreeSet<String>(items.keySet()));
+      for (String fileName : expected) {
+        assertNotNull(fileName + " shall have an item", items.get(fileName));
+      }
+    } finally {
+      executor.shutdownNow();
+      IndexItemCollector.INSTANCE.dispose();
+      items.clear();
+    }
+  }
+}
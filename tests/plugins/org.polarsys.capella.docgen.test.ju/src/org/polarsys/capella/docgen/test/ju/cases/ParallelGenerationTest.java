@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.egf.model.fcore.Activity;
+import org.eclipse.egf.model.fcore.FactoryComponent;
+import org.eclipse.egf.model.pattern.PatternContext;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.swt.widgets.Display;
+import org.polarsys.capella.core.model.handler.command.CapellaResourceHelper;
+import org.polarsys.capella.docgen.diagram.DiagramExportStage;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
+import org.polarsys.capella.docgen.test.ju.launch.XHTMLDocumentationGenerationLauncher;
+import org.polarsys.capella.docgen.test.ju.util.CapellaDocGenTestUtil;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+import org.polarsys.kitalpha.doc.gen.business.core.reporter.DocGenHtmlReporter;
+import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.ui.helper.InvokeActivityHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlConstants;
+
+/**
+ * Generates the documentation of the In-Flight Entertainment System model with
+ * its diagrams sequentially, then with several threads generating the pages or
+ * exporting the diagrams. The generations are launched from a thread which is
+ * not the UI thread, and shall neither be blocked nor differ: the same pages
+ * and the same files shall be generated. When the pages are generated by one
+ * thread, the diagrams shall be exported by the worker threads of the diagram
+ * export.
+ */
+public class ParallelGenerationTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final String SEQUENTIAL_FOLDER_PATH = "doc-sequential";
+
+  private static final String PARALLEL_FOLDER_PATH = "doc-parallel";
+
+  private static final long TIMEOUT_MINUTES = 10;
+
+  private static final URI CAPELLA_TEST_LAUNCHER_URI = URI.createURI(
+      "platform:/plugin/org.polarsys.capella.docgen.test.ju/egf/capellatestlauncher.fcore#_zup7kAkdEeCBJtEcjZDVOA",
+      true);
+
+  private final int generationThreads;
+
+  private final int diagramExportThreads;
+
+  /**
+   * @param generationThreads
+   *          number of threads generating the pages of the parallel generation
+   * @param diagramExportThreads
+   *          number of threads exporting the diagrams of the parallel generation
+   */
+  public ParallelGenerationTest(int generationThreads, int diagramExportThreads) {
+    this.generationThreads = generationThreads;
+    this.diagramExportThreads = diagramExportThreads;
+  }
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    URI semanticModelURI = URI.createPlatformResourceURI(
+        "/" + NAME + "/" + NAME + "." + CapellaResourceHelper.CAPELLA_MODEL_FILE_EXTENSION, true);
+    DiagramSessionHelper.setAirdUri(URI.createPlatformResourceURI("/" + NAME + "/" + NAME + ".aird", true));
+    DiagramSessionHelper.initSession();
+
+    IFolder sequentialFolder = ResourcesPlugin.getWorkspace().getRoot()
+        .getFolder(new Path(NAME).append(SEQUENTIAL_FOLDER_PATH));
+    IFolder parallelFolder = ResourcesPlugin.getWorkspace().getRoot()
+        .getFolder(new Path(NAME).append(PARALLEL_FOLDER_PATH));
+    // Each generation exports its diagrams
+    CapellaDocgenPreferenceHelper.setDiagramCache(false);
+    try {
+      CapellaDocgenPreferenceHelper.setGenerationThreads(1);
+      CapellaDocgenPreferenceHelper.setDiagramExportThreads(1);
+      PageRecorder sequential = generate(semanticModelURI, SEQUENTIAL_FOLDER_PATH);
+      long sequentialDiagrams = DiagramExportStage.INSTANCE.getExportedDiagrams();
+      assertFalse("The sequential generation shall generate the pages", sequential.pages.isEmpty());
+      assertTrue("The sequential generation shall export diagrams", sequentialDiagrams > 0);
+
+      CapellaDocgenPreferenceHelper.setGenerationThreads(generationThreads);
+      CapellaDocgenPreferenceHelper.setDiagramExportThreads(diagramExportThreads);
+      PageRecorder parallel = generate(semanticModelURI, PARALLEL_FOLDER_PATH);
+      assertEquals("The same diagrams shall be exported", sequentialDiagrams,
+          DiagramExportStage.INSTANCE.getExportedDiagrams());
+      if (generationThreads == 1 && diagramExportThreads > 1) {
+        assertTrue("The diagrams shall be exported by the worker threads",
+            DiagramExportStage.INSTANCE.getWorkerExportedDiagrams() > 0);
+      }
+      assertEquals("The same pages shall be generated", sequential.pages.keySet(), parallel.pages.keySet());
+      for (Map.Entry<String, String> page : sequential.pages.entrySet()) {
+        assertEquals("The page " + page.getKey() + " shall not depend on the threads", page.getValue(),
+            parallel.pages.get(page.getKey()));
+      }
+      assertEquals("The same files shall be written", listFiles(sequentialFolder), listFiles(parallelFolder));
+    } finally {
+      CapellaDocgenPreferenceHelper.clearOverrides();
+      for (IFolder folder : Arrays.asList(sequentialFolder, parallelFolder)) {
+        if (folder.exists()) {
+          folder.delete(true, new NullProgressMonitor());
+        }
+      }
+    }
+  }
+
+  /**
+   * Launch a generation from another thread while the UI thread dispatches the
+   * events, the rendering of the diagrams runs in the UI thread.
+   */
+  private PageRecorder generate(final URI semanticModelURI, final String outputFolder) throws Exception {
+    final PageRecorder reporter = new PageRecorder();
+    Activity launcher = InvokeActivityHelper.getActivity(CAPELLA_TEST_LAUNCHER_URI);
+    assertTrue(launcher instanceof FactoryComponent);
+    Thread generation = new Thread(() -> XHTMLDocumentationGenerationLauncher.gen(NAME, outputFolder,
+        (FactoryComponent) launcher, semanticModelURI, reporter), "Capella docgen test generation");
+    generation.setDaemon(true);
+    generation.start();
+    Display display = Display.getCurrent();
+    long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(TIMEOUT_MINUTES);
+    while (generation.isAlive()) {
+      assertTrue("The generation in " + outputFolder + " shall not be blocked", System.nanoTime() < deadline);
+      if (display == null || !display.readAndDispatch()) {
+        generation.join(10);
+      }
+    }
+    return reporter;
+  }
+
+  /**
+   * @return the paths of the files of the output folder, relative to it
+   */
+  private Set<String> listFiles(IFolder folder) {
+    Set<String> files = new TreeSet<String>();
+    listFiles(folder.getFolder("output").getLocation().toFile(), "", files);
+    return files;
+  }
+
+  private void listFiles(File folder, String prefix, Set<String> files) {
+    File[] children = folder.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        if (child.isDirectory()) {
+          listFiles(child, prefix + child.getName() + "/", files);
+        } else {
+          files.add(prefix + child.getName());
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the generated pages, by file name, instead of writing them.
+   */
+  private static class PageRecorder extends DocGenHtmlReporter {
+
+    private final Map<String, String> pages = new TreeMap<String, String>();
+
+    @Override
+    public synchronized void loopFinished(String output, String outputWithCallBack, PatternContext context,
+        Map<String, Object> parameterValues) {
+      Object fileName = context.getValue(DocGenHtmlConstants.FILE_NAME);
+      if (fileName != null) {
+        pages.put(fileName.toString(), CapellaDocGenTestUtil.formatDocGenOutput(output));
+      }
+    }
+  }
+}
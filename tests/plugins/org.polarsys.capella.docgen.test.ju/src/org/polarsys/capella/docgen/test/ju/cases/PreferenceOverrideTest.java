@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceConstant;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * The values set by the command lines override the preferences for the
+ * current run only: they are not saved in the preference store.
+ */
+public class PreferenceOverrideTest extends BasicTestCase {
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    IEclipsePreferences docgenPref = InstanceScope.INSTANCE.getNode("org.polarsys.capella.docgen.preference");
+    int threads = CapellaDocgenPreferenceHelper.getGenerationThreads();
+    boolean searchIndex = CapellaDocgenPreferenceHelper.isSearchIndex();
+    try {
+      CapellaDocgenPreferenceHelper.setGenerationThreads(threads + 3);
+      CapellaDocgenPreferenceHelper.setSearchIndex(!searchIndex);
+      assertEquals(threads + 3, CapellaDocgenPreferenceHelper.getGenerationThreads());
+      assertEquals(!searchIndex, CapellaDocgenPreferenceHelper.isSearchIndex());
+      assertNull("The number of threads shall not be saved",
+          docgenPref.get(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__THREADS, null));
+      assertNull("The search index option shall not be saved",
+          docgenPref.get(CapellaDocgenPreferenceConstant.DOCGEN_GENERATION__SEARCH_INDEX, null));
+    } finally {
+      CapellaDocgenPreferenceHelper.clearOverrides();
+    }
+    assertEquals(threads, CapellaDocgenPreferenceHelper.getGenerationThreads());
+    assertEquals(searchIndex, CapellaDocgenPreferenceHelper.isSearchIndex());
+  }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.docgen.helper.ProgressHelper;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Generates the progress table bodies of several elements of the In-Flight
+ * Entertainment System model at once, with a shared helper and with a helper
+ * per table. The elements are the roots of distinct subtrees and each table
+ * must be the one generated sequentially for its element.
+ */
+public class ProgressHelperConcurrencyTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final int ROOTS = 8;
+
+  private static final int THREADS = 8;
+
+  private static final int ROUNDS = 10;
+
+  /**
+   * Depth of the roots, under the project and its engineering and
+   * architectures
+   */
+  private static final int ROOT_DEPTH = 3;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<EObject> roots = new ArrayList<EObject>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (TreeIterator<EObject> iterator = resource.getAllContents(); iterator.hasNext() && roots.size() < ROOTS;) {
+        EObject element = iterator.next();
+        if (getDepth(element) == ROOT_DEPTH) {
+          if (!element.eContents().isEmpty()) {
+            roots.add(element);
+          }
+          // The subtree of a root does not contain another root
+          iterator.prune();
+        }
+      }
+    }
+    assertTrue("The test model shall contain distinct subtrees", roots.size() > 1);
+
+    List<String> expected = new ArrayList<String>();
+    for (EObject root : roots) {
+      expected.add(new ProgressHelper(NAME, "output").generateTableBody(root));
+    }
+
+    final ProgressHelper sharedHelper = new ProgressHelper(NAME, "output");
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<String>> tables = new ArrayList<Future<String>>();
+      for (int i = 0; i < ROUNDS; i++) {
+        final boolean shared = i % 2 == 0;
+        for (final EObject root : roots) {
+          tables.add(executor.submit(() -> {
+            ProgressHelper helper = shared ? sharedHelper : new ProgressHelper(NAME, "output");
+            return helper.generateTableBody(root);
+          }));
+        }
+      }
+      for (int i = 0; i < tables.size(); i++) {
+        assertEquals("Progress table of " + roots.get(i % roots.size()) + " does not match",
+            expected.get(i % roots.size()), tables.get(i).get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private int getDepth(EObject element) {
+    int depth = 0;
+    for (EObject container = element.eContainer(); container != null; container = container.eContainer()) {
+      depth++;
+    }
+    return depth;
+  }
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.core.data.capellacore.CapellaElement;
+import org.polarsys.capella.core.data.capellacore.EnumerationPropertyType;
+import org.polarsys.capella.core.model.handler.helpers.CapellaProjectHelper;
+import org.polarsys.capella.docgen.helper.ProgressHelper;
+import org.polarsys.capella.docgen.task.CopyDocumentationFilesTask;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Writes the Progress Overview data of the In-Flight Entertainment System
+ * model with an element whose review contains quotes, backslashes and control
+ * characters. The data shall be a call of <code>ProgressOverview.load</code>
+ * with a row per line, each row referencing a previous row as parent, and the
+ * strings shall be escaped. The script loading the data shall be shipped once,
+ * in the folder of the documentation files and not in their archive.
+ */
+public class ProgressOverviewDataTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final String REVIEW = "Review with \"quotes\", a \\ backslash,\na new line, a\ttab, a \u0001 control and a \u2028 separator";
+
+  private static final String ESCAPED_REVIEW = "\"Review with \\\"quotes\\\", a \\\\ backslash,\\na new line, a\\ttab, a \\u0001 control and a \\u2028 separator\"";
+
+  private static final String DATA_START = "ProgressOverview.load({\"rows\":[";
+
+  private static final String DATA_END = "]});\n";
+
+  private static final String DOCGEN_BUNDLE = "org.polarsys.capella.docgen";
+
+  private static final String SCRIPT = "scripts/progress-overview/progress-overview.js";
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    CapellaElement reviewed = null;
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext() && reviewed == null;) {
+        EObject element = iterator.next();
+        if (element instanceof CapellaElement && element.eContainer() != null
+            && element.eContainer().eContainer() != null) {
+          reviewed = (CapellaElement) element;
+        }
+      }
+    }
+    assertNotNull("The test model shall contain elements", reviewed);
+
+    final CapellaElement element = reviewed;
+    final EnumerationPropertyType progressStatus = CapellaProjectHelper.getEnumerationPropertyType(element,
+        CapellaProjectHelper.PROGRESS_STATUS_KEYWORD);
+    assertFalse("The test model shall define progress statuses", progressStatus.getOwnedLiterals().isEmpty());
+    TransactionalEditingDomain domain = session.getTransactionalEditingDomain();
+    domain.getCommandStack().execute(new RecordingCommand(domain) {
+      @Override
+      protected void doExecute() {
+        element.setStatus(progressStatus.getOwnedLiterals().get(0));
+        element.setReview(REVIEW);
+      }
+    });
+    String data;
+    try {
+      StringWriter writer = new StringWriter();
+      new ProgressHelper(NAME, "output").writeProgressData(element, writer);
+      data = writer.toString();
+    } finally {
+      domain.getCommandStack().undo();
+    }
+
+    assertTrue("The data shall call ProgressOverview.load", data.startsWith(DATA_START));
+    assertTrue("The data shall end the call", data.endsWith(DATA_END));
+    for (int i = 0; i < data.length(); i++) {
+      char c = data.charAt(i);
+      assertFalse("The control characters shall be escaped, found " + (int) c + " at " + i,
+          (c < 0x20 && c != '\n') || c == '\u2028' || c == '\u2029');
+    }
+
+    // The rows are separated by a new line, the new lines of the strings are escaped
+    String[] rows = data.substring(DATA_START.length(), data.length() - DATA_END.length()).split("\n");
+    boolean reviewFound = false;
+    for (int i = 0; i < rows.length; i++) {
+      String row = rows[i];
+      if (i < rows.length - 1) {
+        assertTrue("The row " + i + " shall be followed by a comma", row.endsWith(","));
+        row = row.substring(0, row.length() - 1);
+      }
+      assertTrue("The row " + i + " shall be an array: " + row, row.startsWith("[") && row.endsWith("]"));
+      int parent = Integer.parseInt(row.substring(1, row.indexOf(',')));
+      assertTrue("The parent of the row " + i + " shall be a previous row", parent >= -1 && parent < i);
+      if (i == 0) {
+        assertEquals("The first row shall be a root", -1, parent);
+      }
+      reviewFound |= row.endsWith("," + ESCAPED_REVIEW + "]");
+    }
+    assertTrue("The review of " + element.getId() + " shall be escaped in its row", reviewFound);
+
+    URL source = Platform.getBundle(DOCGEN_BUNDLE).getEntry(CopyDocumentationFilesTask.FILES_FOLDER + "/" + SCRIPT);
+    assertNotNull("The script shall be a documentation file", source);
+    URL archive = Platform.getBundle(DOCGEN_BUNDLE).getEntry("file/misc.zip");
+    assertNotNull("The archive of the documentation files shall be available", archive);
+    try (ZipInputStream zip = new ZipInputStream(archive.openStream())) {
+      for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        assertFalse("The script shall not be shipped in the archive", SCRIPT.equals(entry.getName()));
+      }
+    }
+  }
+}
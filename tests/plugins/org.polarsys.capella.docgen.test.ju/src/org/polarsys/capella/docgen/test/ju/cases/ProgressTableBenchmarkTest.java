@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.sirius.business.api.session.Session;
+import org.polarsys.capella.docgen.helper.ProgressHelper;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Renders a progress table line for every element of the In-Flight
+ * Entertainment System model, once with a string per line appended to the
+ * table and once directly appended to the table buffer. The tables must be the
+ * same, the durations and the bytes allocated by the rendering thread are
+ * logged, and appending to the table buffer shall not allocate more.
+ */
+public class ProgressTableBenchmarkTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final int ROUNDS = 5;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<EObject> elements = new ArrayList<EObject>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        elements.add(iterator.next());
+      }
+    }
+    assertFalse("The test model shall contain elements", elements.isEmpty());
+    ProgressHelper helper = new ProgressHelper(NAME, "output");
+
+    // Warm up, the icons are copied by the first rendering
+    renderLines(helper, elements);
+
+    long allocated = getAllocatedBytes();
+    long start = System.nanoTime();
+    String expected = null;
+    for (int i = 0; i < ROUNDS; i++) {
+      expected = renderLines(helper, elements);
+    }
+    long linesDuration = System.nanoTime() - start;
+    long linesAllocated = getAllocatedBytes() - allocated;
+
+    allocated = getAllocatedBytes();
+    start = System.nanoTime();
+    String actual = null;
+    for (int i = 0; i < ROUNDS; i++) {
+      StringBuilder result = new StringBuilder();
+      for (EObject element : elements) {
+        helper.generateElementHtmlLine(element, null, result);
+      }
+      actual = result.toString();
+    }
+    long sinkDuration = System.nanoTime() - start;
+    long sinkAllocated = getAllocatedBytes() - allocated;
+
+    assertEquals("The progress table shall not depend on the rendering", expected, actual);
+    Logger.logInfo("[" + getName() + "] " + elements.size() + " lines, " + ROUNDS + " rounds: "
+        + linesDuration / 1000000 + " ms and " + linesAllocated / 1024 + " KB with a string per line, "
+        + sinkDuration / 1000000 + " ms and " + sinkAllocated / 1024 + " KB appended to the table", null);
+    assertTrue("Appending the lines to the table shall not allocate a string per line",
+        sinkAllocated <= linesAllocated);
+  }
+
+  private String renderLines(ProgressHelper helper, List<EObject> elements) {
+    StringBuilder result = new StringBuilder();
+    for (EObject element : elements) {
+      result.append(helper.generateElementHtmlLine(element, null));
+    }
+    return result.toString();
+  }
+
+  /**
+   * @return the bytes allocated by the current thread, 0 if the virtual machine
+   *         does not measure them
+   */
+  private long getAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
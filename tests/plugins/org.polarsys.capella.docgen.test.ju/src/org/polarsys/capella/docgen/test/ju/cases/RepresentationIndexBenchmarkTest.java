@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.sirius.business.api.dialect.DialectManager;
+import org.eclipse.sirius.business.api.session.Session;
+import org.eclipse.sirius.viewpoint.DRepresentation;
+import org.eclipse.sirius.viewpoint.DRepresentationDescriptor;
+import org.polarsys.capella.docgen.diagram.RepresentationIndex;
+import org.polarsys.capella.docgen.util.Logger;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+import org.polarsys.kitalpha.doc.gen.business.core.util.SiriusHelper;
+
+/**
+ * Looks up the representations and the element of interest annotations of
+ * every element of the In-Flight Entertainment System model with the Sirius
+ * queries and with the index of a generation. The same representations shall
+ * be found, the durations are logged.
+ * <p>
+ * The test model is far from the thousands of diagrams of large models, the
+ * speed-up on such models is not measured here.
+ */
+public class RepresentationIndexBenchmarkTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    Session session = getSessionForTestModel(NAME);
+    List<EObject> elements = new ArrayList<EObject>();
+    for (Resource resource : session.getSemanticResources()) {
+      for (Iterator<EObject> iterator = resource.getAllContents(); iterator.hasNext();) {
+        elements.add(iterator.next());
+      }
+    }
+    assertFalse("The test model shall contain elements", elements.isEmpty());
+
+    long start = System.nanoTime();
+    List<Collection<DRepresentation>> expectedTargets = new ArrayList<Collection<DRepresentation>>();
+    List<Collection<DRepresentation>> expectedDiagrams = new ArrayList<Collection<DRepresentation>>();
+    for (EObject element : elements) {
+      expectedTargets.add(new HashSet<DRepresentation>(DialectManager.INSTANCE.getRepresentations(element, session)));
+      expectedDiagrams.add(new HashSet<DRepresentation>(SiriusHelper.getDiagramForObject(element, false)));
+    }
+    long siriusDuration = System.nanoTime() - start;
+
+    // Elements of interest annotations, read from the inverse references of each element
+    start = System.nanoTime();
+    List<Collection<DRepresentationDescriptor>> expectedInterested = new ArrayList<Collection<DRepresentationDescriptor>>();
+    for (EObject element : elements) {
+      expectedInterested.add(new ArrayList<DRepresentationDescriptor>(
+          RepresentationIndex.INSTANCE.getInterestedDescriptors(element)));
+    }
+    long interestQueryDuration = System.nanoTime() - start;
+
+    RepresentationIndex.INSTANCE.start();
+    try {
+      start = System.nanoTime();
+      for (int i = 0; i < elements.size(); i++) {
+        EObject element = elements.get(i);
+        assertEquals("Representations of " + element + " do not match", expectedTargets.get(i),
+            new HashSet<DRepresentation>(RepresentationIndex.INSTANCE.getRepresentations(element, session)));
+        assertEquals("Diagrams displaying " + element + " do not match", expectedDiagrams.get(i),
+            new HashSet<DRepresentation>(RepresentationIndex.INSTANCE.getDiagramsDisplaying(element)));
+      }
+      long indexDuration = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < elements.size(); i++) {
+        EObject element = elements.get(i);
+        assertEquals("Elements of interest of " + element + " do not match",
+            new HashSet<DRepresentationDescriptor>(expectedInterested.get(i)),
+            new HashSet<DRepresentationDescriptor>(RepresentationIndex.INSTANCE.getInterestedDescriptors(element)));
+      }
+      long interestIndexDuration = System.nanoTime() - start;
+
+      for (DRepresentationDescriptor descriptor : DialectManager.INSTANCE.getAllRepresentationDescriptors(session)) {
+        assertSame(descriptor, RepresentationIndex.INSTANCE.getDescriptor(descriptor.getRepresentation()));
+      }
+      Logger.logInfo("[" + getName() + "] " + elements.size() + " elements: " + siriusDuration / 1000000
+          + " ms with Sirius queries, " + indexDuration / 1000000 + " ms with the index", null);
+      Logger.logInfo("[" + getName() + "] " + elements.size() + " elements of interest lookups: "
+          + interestQueryDuration / 1000000 + " ms with inverse references, " + interestIndexDuration / 1000000
+          + " ms with the index", null);
+    } finally {
+      RepresentationIndex.INSTANCE.dispose();
+    }
+  }
+}
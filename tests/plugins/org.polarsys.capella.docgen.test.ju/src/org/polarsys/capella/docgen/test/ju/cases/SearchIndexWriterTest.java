@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.polarsys.capella.docgen.util.SearchIndexWriter;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Writes a search index: the words of the names, concepts and summaries are
+ * split in shards by their first two characters, the elements are written by
+ * chunks, and the files of a previous index which are not part of the new one
+ * are deleted.
+ */
+public class SearchIndexWriterTest extends BasicTestCase {
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    assertEquals(Arrays.asList("flightcontroller", "flight", "controller", "cafe", "systeme"),
+        Arrays.asList(SearchIndexWriter.getTokens("FlightController: Caf\u00e9-Syst\u00e8me").toArray()));
+    assertEquals(Arrays.asList("gps", "receiver"),
+        Arrays.asList(SearchIndexWriter.getTokens("GPS receiver 2").toArray()));
+    assertEquals("fl", SearchIndexWriter.getShardKey("flight"));
+    assertEquals("_t", SearchIndexWriter.getShardKey("\u00e9t\u00e9"));
+
+    File folder = Files.createTempDirectory("search-index").toFile();
+    SearchIndexWriter writer = SearchIndexWriter.INSTANCE;
+    try {
+      writer.start(true);
+      writer.add(folder, "FlightController", "Logical Component", "../../model/a.html", "Controls the \"flight\"");
+      for (int i = 1; i < SearchIndexWriter.DOCUMENTS_PER_CHUNK; i++) {
+        writer.add(folder, "Element", "Logical Function", "../../model/e.html#id" + i, null);
+      }
+      writer.add(folder, "Flight Plan", "Logical Function", "../../model/b.html", null);
+      writer.dispose();
+
+      assertEquals("CapellaSearchIndex.meta({\"documents\":501,\"chunk\":500,\"shards\":[\"co\",\"el\",\"fl\",\"fu\",\"lo\",\"pl\",\"th\"]});\n",
+          read(new File(folder, "meta.js")));
+      assertEquals("CapellaSearchIndex.shard(\"fl\",{\"flight\":[0,500],\n\"flightcontroller\":[0]});\n",
+          read(new File(folder, "shard-fl.js")));
+      assertTrue("The ids shall be written as differences",
+          read(new File(folder, "shard-el.js")).startsWith("CapellaSearchIndex.shard(\"el\",{\"element\":[1,1,1,"));
+      assertTrue(read(new File(folder, "docs-0.js")).startsWith("CapellaSearchIndex.docs(0,[\n"
+          + "[\"FlightController\",\"Logical Component\",\"../../model/a.html\",\"Controls the \\\"flight\\\"\"],\n"));
+      assertEquals("CapellaSearchIndex.docs(1,[\n[\"Flight Plan\",\"Logical Function\",\"../../model/b.html\",null]]);\n",
+          read(new File(folder, "docs-1.js")));
+
+      // The files of the previous index are replaced
+      writer.start(true);
+      writer.add(folder, "Flight Plan", "Logical Function", "../../model/b.html", null);
+      writer.dispose();
+      String[] files = folder.list();
+      Arrays.sort(files);
+      assertEquals(Arrays.asList("docs-0.js", "meta.js", "shard-fl.js", "shard-fu.js", "shard-lo.js", "shard-pl.js"),
+          Arrays.asList(files));
+
+      // Nothing is written when the index is disabled
+      writer.start(false);
+      writer.add(folder, "Other", "Logical Function", "../../model/c.html", null);
+      writer.dispose();
+      assertEquals("CapellaSearchIndex.docs(0,[\n[\"Flight Plan\",\"Logical Function\",\"../../model/b.html\",null]]);\n",
+          read(new File(folder, "docs-0.js")));
+    } finally {
+      writer.dispose();
+      deleteFolder(folder);
+    }
+  }
+
+  private String read(File file) throws Exception {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+
+  private void deleteFolder(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteFolder(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.polarsys.capella.docgen.util.ImageHelper;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Shares linked files: a file linked several times has one shared copy, named
+ * after the file, and is copied once. Files with the same name, or a file
+ * changed since its copy, get another shared copy.
+ */
+public class SharedFileStoreTest extends BasicTestCase {
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    File folder = Files.createTempDirectory("files").toFile();
+    ImageHelper helper = ImageHelper.INSTANCE;
+    try {
+      File icd = new File(folder, "ICD.pdf");
+      Files.write(icd.toPath(), new byte[] { 1, 2, 3 });
+      File otherIcd = new File(new File(folder, "other"), "ICD.pdf");
+      otherIcd.getParentFile().mkdirs();
+      Files.write(otherIcd.toPath(), new byte[] { 1, 2, 3 });
+
+      helper.startFileStore(true);
+      assertTrue(helper.isSharedFiles());
+      String shared = helper.getSharedFilePath(icd.getPath());
+      assertTrue("Shared files shall keep their name", shared.matches("shared/[0-9a-f]{16}/ICD\\.pdf"));
+      assertEquals("A file shall have one shared copy", shared,
+          helper.getSharedFilePath(new File(folder, "other/../ICD.pdf").getPath()));
+      assertTrue("The first link shall copy the file", helper.addSharedFile(shared));
+      assertFalse("The next links shall not copy the file", helper.addSharedFile(shared));
+
+      assertFalse("Files with the same name shall not share their copy",
+          shared.equals(helper.getSharedFilePath(otherIcd.getPath())));
+      assertNull(helper.getSharedFilePath(new File(folder, "missing.pdf").getPath()));
+      helper.disposeFileStore();
+
+      // A file changed since the previous generation gets a new copy
+      Files.write(icd.toPath(), new byte[] { 1, 2, 3, 4 });
+      helper.startFileStore(true);
+      assertFalse("A changed file shall get a new copy", shared.equals(helper.getSharedFilePath(icd.getPath())));
+      helper.disposeFileStore();
+      assertFalse(helper.isSharedFiles());
+    } finally {
+      helper.disposeFileStore();
+      deleteFolder(folder);
+    }
+  }
+
+  private void deleteFolder(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteFolder(child);
+      }
+    }
+    file.delete();
+  }
+}
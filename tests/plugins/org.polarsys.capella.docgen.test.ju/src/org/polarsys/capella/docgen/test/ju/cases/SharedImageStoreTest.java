@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.ILog;
+import org.polarsys.capella.docgen.Activator;
+import org.polarsys.capella.docgen.util.ImageHelper;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Serializes the same description image for several pages, with and without
+ * the shared images: a shared image is written once, named after its content.
+ */
+public class SharedImageStoreTest extends BasicTestCase {
+
+  private static final String IMAGE = ImageHelper.DATA_IMAGE_PREFIX + "png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNk+M9QDwADhgGAWjR9awAAAABJRU5ErkJggg==";
+
+  private static final String OTHER_IMAGE = ImageHelper.DATA_IMAGE_PREFIX + "png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    ILog logger = Activator.getDefault().getLog();
+    File folder = Files.createTempDirectory("images").toFile();
+    String folderPath = folder.getAbsolutePath() + "/";
+    try {
+      ImageHelper.INSTANCE.startImageStore(true);
+      String first = ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, folderPath, "page1",
+          new ArrayList<String>(), logger);
+      String second = ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, folderPath, "page2",
+          new ArrayList<String>(), logger);
+      String other = ImageHelper.INSTANCE.serializeImageInTargetFolder(OTHER_IMAGE, folderPath, "page1",
+          new ArrayList<String>(), logger);
+      ImageHelper.INSTANCE.disposeImageStore();
+
+      assertEquals("Identical images shall share their file", first, second);
+      assertFalse("Different images shall not share their file", first.equals(other));
+      assertTrue("Shared images shall be named after their content", first.matches("sha256/[0-9a-f]{64}\\.png"));
+      assertEquals(2, new File(folder, "sha256").list().length);
+
+      // Without the shared images, each page has its own copy
+      ImageHelper.INSTANCE.startImageStore(false);
+      List<String> imageFileNames = new ArrayList<String>();
+      assertEquals("page1/gen/page1_gen_1.png",
+          ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, folderPath, "page1", imageFileNames, logger));
+      assertEquals("page1/gen/page1_gen_2.png",
+          ImageHelper.INSTANCE.serializeImageInTargetFolder(IMAGE, folderPath, "page1", imageFileNames, logger));
+    } finally {
+      ImageHelper.INSTANCE.disposeImageStore();
+      deleteFolder(folder);
+    }
+  }
+
+  private void deleteFolder(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteFolder(child);
+      }
+    }
+    file.delete();
+  }
+}
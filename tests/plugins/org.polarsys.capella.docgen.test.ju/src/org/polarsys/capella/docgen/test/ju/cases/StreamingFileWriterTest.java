@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.polarsys.capella.docgen.util.StreamingFileWriter;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+
+/**
+ * Writes a text of three buffers with the {@link StreamingFileWriter}. A
+ * surrogate pair and multi-byte characters are split by the ends of the
+ * buffers and of the written chunks, the file shall contain the text encoded in
+ * UTF-8. The target file shall only be replaced when the writer is closed, and
+ * shall be unchanged when the writer is aborted.
+ */
+public class StreamingFileWriterTest extends BasicTestCase {
+
+  private static final String PREVIOUS = "previous content";
+
+  /**
+   * Sizes of the chunks written in turn, none of them divides the buffer size
+   */
+  private static final int[] CHUNKS = { 1, 7, 4093, 1000, 3 };
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void test() throws Exception {
+    File folder = Files.createTempDirectory("streaming").toFile();
+    try {
+      checkRoundTrip(new File(folder, "page.html"));
+      checkAbort(new File(folder, "aborted.html"));
+    } finally {
+      for (File file : folder.listFiles()) {
+        file.delete();
+      }
+      folder.delete();
+    }
+  }
+
+  private void checkRoundTrip(File target) throws Exception {
+    Files.write(target.toPath(), PREVIOUS.getBytes(StandardCharsets.UTF_8));
+    String text = createText();
+    char[] chars = text.toCharArray();
+    StreamingFileWriter writer = new StreamingFileWriter(target);
+    int offset = 0;
+    for (int i = 0; offset < text.length(); i++) {
+      int length = Math.min(CHUNKS[i % CHUNKS.length], text.length() - offset);
+      switch (i % 3) {
+      case 0:
+        writer.write(text, offset, length);
+        break;
+      case 1:
+        writer.write(chars, offset, length);
+        break;
+      default:
+        for (int c = offset; c < offset + length; c++) {
+          writer.write(text.charAt(c));
+        }
+      }
+      offset += length;
+    }
+    writer.flush();
+    assertEquals("The target file shall not be replaced before the writer is closed", PREVIOUS, read(target));
+    writer.close();
+
+    byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+    assertEquals("The text shall be encoded in UTF-8", text, read(target));
+    assertEquals(expected.length, writer.getWrittenBytes());
+    assertEquals(expected.length, target.length());
+    assertEquals("The temporary file shall be moved to the target", 1, target.getParentFile().list().length);
+  }
+
+  private void checkAbort(File target) throws Exception {
+    Files.write(target.toPath(), PREVIOUS.getBytes(StandardCharsets.UTF_8));
+    StreamingFileWriter writer = new StreamingFileWriter(target);
+    writer.write(createText());
+    assertTrue("The text shall be flushed while it is written", writer.getWrittenBytes() > 0);
+    writer.abort();
+    assertEquals("The target file shall be unchanged", PREVIOUS, read(target));
+    assertFalse("The temporary file shall be deleted", new File(target.getPath() + ".tmp").exists());
+    try {
+      writer.write("after abort");
+      fail("An aborted writer shall not be written");
+    } catch (IOException e) {
+      // Expected
+    }
+    // Closing an aborted writer does not replace the target
+    writer.close();
+    assertEquals(PREVIOUS, read(target));
+  }
+
+  /**
+   * @return a text of three buffers, a surrogate pair is split by the end of the
+   *         first buffer, 2-byte and 3-byte characters are split by the ends of
+   *         the encoded buffers
+   */
+  private String createText() {
+    StringBuilder text = new StringBuilder(3 * StreamingFileWriter.BUFFER_SIZE);
+    while (text.length() < StreamingFileWriter.BUFFER_SIZE - 1) {
+      text.append(text.length() % 3 == 0 ? '\u00e9' : 'a');
+    }
+    text.append("\ud83d\ude00");
+    while (text.length() < 3 * StreamingFileWriter.BUFFER_SIZE) {
+      text.append(text.length() % 5 == 0 ? '\u20ac' : 'b');
+    }
+    return text.toString();
+  }
+
+  private String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+}
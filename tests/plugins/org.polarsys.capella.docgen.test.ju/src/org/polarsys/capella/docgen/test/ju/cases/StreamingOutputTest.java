@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.cases;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.egf.model.fcore.Activity;
+import org.eclipse.egf.model.fcore.FactoryComponent;
+import org.eclipse.egf.model.pattern.PatternContext;
+import org.eclipse.egf.pattern.execution.InternalPatternContext;
+import org.eclipse.emf.common.util.URI;
+import org.polarsys.capella.core.model.handler.command.CapellaResourceHelper;
+import org.polarsys.capella.docgen.preference.CapellaDocgenPreferenceHelper;
+import org.polarsys.capella.docgen.test.ju.launch.XHTMLDocumentationGenerationLauncher;
+import org.polarsys.capella.test.framework.api.BasicTestCase;
+import org.polarsys.kitalpha.doc.gen.business.core.reporter.DocGenHtmlReporter;
+import org.polarsys.kitalpha.doc.gen.business.core.sirius.util.session.DiagramSessionHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.ui.helper.InvokeActivityHelper;
+import org.polarsys.kitalpha.doc.gen.business.core.util.DocGenHtmlConstants;
+
+/**
+ * Generates the documentation of the In-Flight Entertainment System model with
+ * the streaming output. The output of a page shall be released once the page
+ * has been reported, while the next pages are generated, instead of being kept
+ * until the end of the generation. Without the streaming output, the output of
+ * every reported page shall still be reachable during the generation.
+ */
+public class StreamingOutputTest extends BasicTestCase {
+
+  private static final String NAME = "In-Flight Entertainment System";
+
+  private static final String OUTPUT_FOLDER_PATH = "doc-streaming";
+
+  private static final URI CAPELLA_TEST_LAUNCHER_URI = URI.createURI(
+      "platform:/plugin/org.polarsys.capella.docgen.test.ju/egf/capellatestlauncher.fcore#_zup7kAkdEeCBJtEcjZDVOA",
+      true);
+
+  /**
+   * Number of pages reported between two checks of the released outputs
+   */
+  private static final int CHECK_INTERVAL = 50;
+
+  @Override
+  public List<String> getRequiredTestModels() {
+    return Arrays.asList(NAME);
+  }
+
+  @Override
+  public void test() throws Exception {
+    URI semanticModelURI = URI.createPlatformResourceURI(
+        "/" + NAME + "/" + NAME + "." + CapellaResourceHelper.CAPELLA_MODEL_FILE_EXTENSION, true);
+    DiagramSessionHelper.setAirdUri(URI.createPlatformResourceURI("/" + NAME + "/" + NAME + ".aird", true));
+    DiagramSessionHelper.initSession();
+    getSessionForTestModel(NAME);
+
+    IFolder outputFolder = ResourcesPlugin.getWorkspace().getRoot()
+        .getFolder(new Path(NAME).append(OUTPUT_FOLDER_PATH));
+    CapellaDocgenPreferenceHelper.setGenerationThreads(1);
+    try {
+      CapellaDocgenPreferenceHelper.setStreamingOutput(false);
+      ReleaseRecorder retained = generate(semanticModelURI);
+      assertTrue("The generation shall report enough pages to be checked",
+          retained.outputs.size() > CHECK_INTERVAL);
+      assertEquals("Without streaming, the output of the reported pages shall be kept", 0, retained.released);
+
+      CapellaDocgenPreferenceHelper.setStreamingOutput(true);
+      ReleaseRecorder streamed = generate(semanticModelURI);
+      assertTrue("The generation shall report enough pages to be checked",
+          streamed.outputs.size() > CHECK_INTERVAL);
+      assertTrue("The output of the reported pages shall be released during the generation",
+          streamed.released > 0);
+    } finally {
+      CapellaDocgenPreferenceHelper.clearOverrides();
+      if (outputFolder.exists()) {
+        outputFolder.delete(true, new NullProgressMonitor());
+      }
+    }
+  }
+
+  private ReleaseRecorder generate(URI semanticModelURI) {
+    ReleaseRecorder reporter = new ReleaseRecorder();
+    Activity launcher = InvokeActivityHelper.getActivity(CAPELLA_TEST_LAUNCHER_URI);
+    assertTrue(launcher instanceof FactoryComponent);
+    XHTMLDocumentationGenerationLauncher.gen(NAME, OUTPUT_FOLDER_PATH, (FactoryComponent) launcher,
+        semanticModelURI, reporter);
+    return reporter;
+  }
+
+  /**
+   * Keeps a weak reference to the output node of each reported page and
+   * counts, while the next pages are generated, the ones which were released.
+   */
+  private static class ReleaseRecorder extends DocGenHtmlReporter {
+
+    private final List<WeakReference<Object>> outputs = new ArrayList<WeakReference<Object>>();
+
+    private int released;
+
+    @Override
+    public void loopFinished(String output, String outputWithCallBack, PatternContext context,
+        Map<String, Object> parameterValues) {
+      if (context.getValue(DocGenHtmlConstants.FILE_NAME) == null || !(context instanceof InternalPatternContext)) {
+        return;
+      }
+      if (outputs.size() % CHECK_INTERVAL == CHECK_INTERVAL - 1) {
+        released = Math.max(released, countReleased());
+      }
+      outputs.add(new WeakReference<Object>(((InternalPatternContext) context).getNode()));
+    }
+
+    /**
+     * @return number of outputs of the previous pages which were released
+     */
+    private int countReleased() {
+      int count = 0;
+      for (int attempt = 0; attempt < 10 && count == 0; attempt++) {
+        System.gc();
+        for (WeakReference<Object> reference : outputs) {
+          if (reference.get() == null) {
+            count++;
+          }
+        }
+      }
+      return count;
+    }
+  }
+}
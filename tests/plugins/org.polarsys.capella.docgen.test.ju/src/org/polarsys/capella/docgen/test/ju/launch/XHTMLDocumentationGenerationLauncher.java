@@ -29,6 +29,7 @@ import org.eclipse.egf.model.fcore.Viewpoint;
 import org.eclipse.egf.model.pattern.PatternExecutionReporter;
 import org.eclipse.egf.model.pattern.TypePatternExecutionReporter;
 import org.eclipse.egf.model.types.Type;
+import org.eclipse.egf.model.types.TypeBoolean;
 import org.eclipse.egf.model.types.TypeString;
 import org.eclipse.egf.pattern.EGFPatternPlugin;
 import org.eclipse.egf.producer.EGFProducerPlugin;
@@ -49,6 +50,11 @@ public class XHTMLDocumentationGenerationLauncher {
 
 	public static void gen(String projectName, String outputFolder, FactoryComponent melodyLauncher, URI uri,
 			PatternExecutionReporter reporter) {
+		gen(projectName, outputFolder, melodyLauncher, uri, reporter, false);
+	}
+
+	public static void gen(String projectName, String outputFolder, FactoryComponent melodyLauncher, URI uri,
+			PatternExecutionReporter reporter, boolean incremental) {
 		IPath path = new Path(projectName + "/" + outputFolder);
 		path = path.append("output");
 		IFolder folder = ResourcesPlugin.getWorkspace().getRoot().getFolder(path);
@@ -73,6 +79,7 @@ public class XHTMLDocumentationGenerationLauncher {
 			setContract(factoryComponent, "copyright", "", false);
 			setContract(factoryComponent, "logo.alt", "", false);
 			setContract(factoryComponent, "logo.path", "", false);
+			setContract(factoryComponent, "incremental", incremental, false);
 
 			try {
 				@SuppressWarnings("rawtypes")
@@ -145,6 +152,23 @@ public class XHTMLDocumentationGenerationLauncher {
 		}
 	}
 
+	private static void setContract(FactoryComponent factoryComponent, String contractName, boolean value,
+			boolean mandatory) {
+		Contract invokedContract = factoryComponent.getContract(contractName);
+		if (invokedContract != null) {
+			Type type = invokedContract.getType();
+			if (type instanceof TypeBoolean) {
+				TypeBoolean typeBoolean = (TypeBoolean) type;
+				typeBoolean.setValue(value);
+			}
+		} else {
+			if (mandatory) {
+				throw new IllegalArgumentException("Can't find the mandatory contract " + contractName
+						+ " in the factory component " + factoryComponent.getName());
+			}
+		}
+	}
+
 	private static void setContract(FactoryComponent factoryComponent, String contractName, String value,
 			boolean mandatory) {
 		Contract invokedContract = factoryComponent.getContract(contractName);
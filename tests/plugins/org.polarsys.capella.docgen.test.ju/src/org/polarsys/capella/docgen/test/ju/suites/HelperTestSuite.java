@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.suites;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.polarsys.capella.docgen.test.ju.cases.AssetWriteStageTest;
+import org.polarsys.capella.docgen.test.ju.cases.DiagramExportCacheTest;
+import org.polarsys.capella.docgen.test.ju.cases.DiagramExportStageTest;
+import org.polarsys.capella.docgen.test.ju.cases.ElementIdIndexTest;
+import org.polarsys.capella.docgen.test.ju.cases.ExchangeItemUsageIndexTest;
+import org.polarsys.capella.docgen.test.ju.cases.HtmlEntityDecoderTest;
+import org.polarsys.capella.docgen.test.ju.cases.ImageHelperCopyTest;
+import org.polarsys.capella.docgen.test.ju.cases.IncrementalGenerationTest;
+import org.polarsys.capella.docgen.test.ju.cases.IndexItemCollectorTest;
+import org.polarsys.capella.docgen.test.ju.cases.ParallelGenerationTest;
+import org.polarsys.capella.docgen.test.ju.cases.PreferenceOverrideTest;
+import org.polarsys.capella.docgen.test.ju.cases.ProgressHelperConcurrencyTest;
+import org.polarsys.capella.docgen.test.ju.cases.ProgressOverviewDataTest;
+import org.polarsys.capella.docgen.test.ju.cases.SearchIndexWriterTest;
+import org.polarsys.capella.docgen.test.ju.cases.SharedFileStoreTest;
+import org.polarsys.capella.docgen.test.ju.cases.SharedImageStoreTest;
+import org.polarsys.capella.docgen.test.ju.cases.StreamingFileWriterTest;
+import org.polarsys.capella.docgen.test.ju.cases.StreamingOutputTest;
+import org.polarsys.capella.test.framework.api.BasicTestArtefact;
+import org.polarsys.capella.test.framework.api.BasicTestSuite;
+
+import junit.framework.Test;
+
+public class HelperTestSuite extends BasicTestSuite {
+
+  @Override
+  protected List<BasicTestArtefact> getTests() {
+    List<BasicTestArtefact> tests = new ArrayList<>();
+    tests.add(new ExchangeItemUsageIndexTest());
+    tests.add(new HtmlEntityDecoderTest());
+    tests.add(new SharedImageStoreTest());
+    tests.add(new ElementIdIndexTest());
+    tests.add(new ProgressHelperConcurrencyTest());
+    tests.add(new ProgressOverviewDataTest());
+    tests.add(new DiagramExportStageTest());
+    tests.add(new DiagramExportCacheTest());
+    tests.add(new ImageHelperCopyTest());
+    tests.add(new AssetWriteStageTest());
+    tests.add(new SharedFileStoreTest());
+    tests.add(new SearchIndexWriterTest());
+    tests.add(new IndexItemCollectorTest());
+    tests.add(new IncrementalGenerationTest());
+    tests.add(new PreferenceOverrideTest());
+    tests.add(new StreamingFileWriterTest());
+    tests.add(new StreamingOutputTest());
+    tests.add(new ParallelGenerationTest(1, 4));
+    tests.add(new ParallelGenerationTest(4, 4));
+    return tests;
+  }
+
+  /**
+   * Added in order to launch this test suite without the Capella test framework.
+   * @return
+   */
+  public static Test suite() {
+    return new HelperTestSuite();
+  }
+
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.suites;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Generates the In-Flight Entertainment System documentation with several
+ * threads, each page shall be identical to the one of the sequential
+ * generation.
+ */
+@RunWith(Parameterized.class)
+public class IFESampleParallelTestSuite extends IFESampleTestSuite {
+
+	private static final int THREADS = 4;
+
+	@Override
+	protected int getGenerationThreads() {
+		return THREADS;
+	}
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2022 THALES GLOBAL SERVICES.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Thales - initial API and implementation
+ *******************************************************************************/
+package org.polarsys.capella.docgen.test.ju.suites;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.polarsys.capella.docgen.test.ju.cases.DescriptionRewriteBenchmarkTest;
+import org.polarsys.capella.docgen.test.ju.cases.HyperlinkCacheBenchmarkTest;
+import org.polarsys.capella.docgen.test.ju.cases.ProgressTableBenchmarkTest;
+import org.polarsys.capella.docgen.test.ju.cases.RepresentationIndexBenchmarkTest;
+import org.polarsys.capella.test.framework.api.BasicTestArtefact;
+import org.polarsys.capella.test.framework.api.BasicTestSuite;
+
+import junit.framework.Test;
+
+public class PerformanceTestSuite extends BasicTestSuite {
+
+  @Override
+  protected List<BasicTestArtefact> getTests() {
+    List<BasicTestArtefact> tests = new ArrayList<>();
+    tests.add(new HyperlinkCacheBenchmarkTest());
+    tests.add(new DescriptionRewriteBenchmarkTest());
+    tests.add(new RepresentationIndexBenchmarkTest());
+    tests.add(new ProgressTableBenchmarkTest());
+    return tests;
+  }
+
+  /**
+   * Added in order to launch this test suite without the Capella test framework.
+   * @return
+   */
+  public static Test suite() {
+    return new PerformanceTestSuite();
+  }
+
+}